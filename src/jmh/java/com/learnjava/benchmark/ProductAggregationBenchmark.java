@@ -0,0 +1,66 @@
+package com.learnjava.benchmark;
+
+import com.learnjava.benchmark.SimulatedServices.SimulatedProductInfoService;
+import com.learnjava.benchmark.SimulatedServices.SimulatedReviewService;
+import com.learnjava.domain.Product;
+import com.learnjava.executorService.ProductServiceUsingExecutor;
+import com.learnjava.service.ProductService;
+import com.learnjava.thread.ProductServiceUsingThread;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Compares the productInfo + reviews aggregation of ProductService (sequential),
+// ProductServiceUsingThread and ProductServiceUsingExecutor.
+// poolSize only applies to ProductServiceUsingExecutor.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class ProductAggregationBenchmark {
+
+    @Param({"10", "100"})
+    public long latencyMillis;
+
+    @Param({"2", "8"})
+    public int poolSize;
+
+    private ExecutorService executorService;
+    private ProductService productService;
+    private ProductServiceUsingThread productServiceUsingThread;
+    private ProductServiceUsingExecutor productServiceUsingExecutor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SimulatedProductInfoService productInfoService = new SimulatedProductInfoService(latencyMillis, 6);
+        SimulatedReviewService reviewService = new SimulatedReviewService(latencyMillis);
+        executorService = Executors.newFixedThreadPool(poolSize);
+        productService = new ProductService(productInfoService, reviewService);
+        productServiceUsingThread = new ProductServiceUsingThread(productInfoService, reviewService);
+        productServiceUsingExecutor = new ProductServiceUsingExecutor(productInfoService, reviewService, executorService);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executorService.shutdown();
+    }
+
+    @Benchmark
+    public Product productService() {
+        return productService.retrieveProductDetails("ABC123");
+    }
+
+    @Benchmark
+    public Product productServiceUsingThread() {
+        return productServiceUsingThread.retrieveProductDetails("ABC123");
+    }
+
+    @Benchmark
+    public Product productServiceUsingExecutor() throws Exception {
+        return productServiceUsingExecutor.retrieveProductDetails("ABC123");
+    }
+}
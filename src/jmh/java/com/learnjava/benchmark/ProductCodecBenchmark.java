@@ -0,0 +1,81 @@
+package com.learnjava.benchmark;
+
+import com.learnjava.codec.ProductCodec;
+import com.learnjava.domain.Product;
+import com.learnjava.domain.Review;
+import com.learnjava.util.DataSet;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+// Round trip (encode + decode) of a Product with ProductCodec and with Java serialization,
+// and reading a single field (the rating) of an encoded product without decoding it.
+// Run with -prof gc to compare the allocations per operation as well.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductCodecBenchmark {
+
+    @Param({"6", "100"})
+    public int optionCount;
+
+    private Product product;
+    // reused for every operation, as a cache or a file writer would
+    private ByteBuffer buffer;
+    private ByteBuffer encodedProduct;
+    private byte[] serializedProduct;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        product = new Product("PRODUCT-1", DataSet.generateProductInfos(1, optionCount).get(0), new Review(200, 4.5));
+        buffer = ByteBuffer.allocateDirect(ProductCodec.encodedSize(product));
+        encodedProduct = ByteBuffer.allocate(ProductCodec.encodedSize(product));
+        ProductCodec.encode(product, encodedProduct);
+        encodedProduct.flip();
+        serializedProduct = serialize(product);
+    }
+
+    @Benchmark
+    public Product codecRoundTrip() {
+        buffer.clear();
+        ProductCodec.encode(product, buffer);
+        buffer.flip();
+        return ProductCodec.decode(buffer);
+    }
+
+    @Benchmark
+    public Object javaSerializationRoundTrip() throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialize(product)))) {
+            return in.readObject();
+        }
+    }
+
+    @Benchmark
+    public double codecSingleField() {
+        return ProductCodec.view(encodedProduct).overallRating();
+    }
+
+    @Benchmark
+    public double javaSerializationSingleField() throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serializedProduct))) {
+            return ((Product) in.readObject()).getReview().getOverallRating();
+        }
+    }
+
+    private static byte[] serialize(Product product) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(product);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,104 @@
+package com.learnjava.benchmark;
+
+import com.learnjava.domain.Inventory;
+import com.learnjava.domain.ProductInfo;
+import com.learnjava.domain.ProductOption;
+import com.learnjava.domain.Review;
+import com.learnjava.service.InventoryService;
+import com.learnjava.service.ProductInfoService;
+import com.learnjava.service.ReviewService;
+import com.learnjava.simulation.LatencySimulator;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.learnjava.util.CommonUtil.delay;
+
+// Services with the same behaviour as the ones in com.learnjava.service, but with the simulated latency
+// and the number of product options passed as benchmark parameters instead of the hard-coded 500/1000 ms.
+// The non-blocking *Async() methods of the services get the same latency from their LatencySimulator.
+public final class SimulatedServices {
+
+    private SimulatedServices() {
+    }
+
+    public static class SimulatedProductInfoService extends ProductInfoService {
+        private final long latencyMillis;
+        private final int optionCount;
+
+        public SimulatedProductInfoService(long latencyMillis, int optionCount) {
+            super(LatencySimulator.constant(Duration.ofMillis(latencyMillis)));
+            this.latencyMillis = latencyMillis;
+            this.optionCount = optionCount;
+        }
+
+        @Override
+        public ProductInfo retrieveProductInfo(String productId) {
+            delay(latencyMillis);
+            return productInfo(productId, optionCount);
+        }
+
+        @Override
+        public CompletableFuture<ProductInfo> retrieveProductInfoAsync(String productId) {
+            return super.retrieveProductInfoAsync(productId).thenApply(productInfo -> productInfo(productId, optionCount));
+        }
+    }
+
+    public static class SimulatedReviewService extends ReviewService {
+        private final long latencyMillis;
+
+        public SimulatedReviewService(long latencyMillis) {
+            super(LatencySimulator.constant(Duration.ofMillis(latencyMillis)));
+            this.latencyMillis = latencyMillis;
+        }
+
+        @Override
+        public Review retrieveReviews(String productId) {
+            delay(latencyMillis);
+            return new Review(200, 4.5);
+        }
+    }
+
+    public static class SimulatedInventoryService extends InventoryService {
+        private final long latencyMillis;
+
+        public SimulatedInventoryService(long latencyMillis) {
+            super(LatencySimulator.constant(Duration.ofMillis(latencyMillis)));
+            this.latencyMillis = latencyMillis;
+        }
+
+        @Override
+        public Inventory addInventory(ProductOption productOption) {
+            delay(latencyMillis);
+            return Inventory.builder()
+                    .count(2).build();
+        }
+
+        @Override
+        public CompletableFuture<Inventory> addInventory_CF(ProductOption productOption) {
+            return CompletableFuture.supplyAsync(() -> addInventory(productOption));
+        }
+
+        @Override
+        public List<Inventory> addInventoryBulk(List<ProductOption> productOptions) {
+            delay(latencyMillis);
+            return productOptions.stream()
+                    .map(productOption -> Inventory.builder()
+                            .count(2).build())
+                    .collect(Collectors.toList());
+        }
+    }
+
+    // options are created on every call, as the inventory strategies update them in place
+    public static ProductInfo productInfo(String productId, int optionCount) {
+        List<ProductOption> productOptions = IntStream.rangeClosed(1, optionCount)
+                .mapToObj(index -> new ProductOption(index, "128GB", "Black", 749.99))
+                .collect(Collectors.toList());
+        return ProductInfo.builder().productId(productId)
+                .productOptions(productOptions)
+                .build();
+    }
+}
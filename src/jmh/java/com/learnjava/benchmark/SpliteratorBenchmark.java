@@ -0,0 +1,69 @@
+package com.learnjava.benchmark;
+
+import com.learnjava.collections.BalancedSpliterators;
+import com.learnjava.util.DataSet;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+// Sum of the DataSet collections with a sequential stream, a parallel stream (default spliterator of
+// the collection) and a parallel stream over BalancedSpliterators. The speed up of a source is
+// sequential time / parallel time, ARRAY_LIST is the baseline which splits well already.
+// workTokens is the cpu work per element (Blackhole.consumeCPU), with 0 the copy of the balanced
+// version is not paid back.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SpliteratorBenchmark {
+
+    public enum SourceType {
+        ARRAY_LIST,
+        LINKED_LIST,
+        HASH_SET
+    }
+
+    @Param({"ARRAY_LIST", "LINKED_LIST", "HASH_SET"})
+    public SourceType sourceType;
+
+    @Param({"1000000"})
+    public int size;
+
+    @Param({"0", "50"})
+    public long workTokens;
+
+    private Collection<Integer> source;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        source = switch (sourceType) {
+            case ARRAY_LIST -> DataSet.generateArrayList(size);
+            case LINKED_LIST -> DataSet.generateIntegerLinkedList(size);
+            case HASH_SET -> DataSet.generateIntegerSet(size);
+        };
+    }
+
+    @Benchmark
+    public long sequential() {
+        return source.stream().mapToLong(this::work).sum();
+    }
+
+    @Benchmark
+    public long parallel() {
+        return source.parallelStream().mapToLong(this::work).sum();
+    }
+
+    @Benchmark
+    public long parallelBalanced() {
+        return BalancedSpliterators.parallelStream(source).mapToLong(this::work).sum();
+    }
+
+    private long work(Integer number) {
+        Blackhole.consumeCPU(workTokens);
+        return number;
+    }
+}
@@ -0,0 +1,94 @@
+package com.learnjava.completableFuture;
+
+import com.learnjava.benchmark.SimulatedServices;
+import com.learnjava.benchmark.SimulatedServices.SimulatedInventoryService;
+import com.learnjava.benchmark.SimulatedServices.SimulatedProductInfoService;
+import com.learnjava.benchmark.SimulatedServices.SimulatedReviewService;
+import com.learnjava.domain.ProductOption;
+import com.learnjava.service.BatchingInventoryService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+// Compares the inventory strategies of ProductServiceWithInventoryUsingCompletableFuture.
+// Lives in the same package as the service because the strategies are package-private.
+// All strategies run on a ForkJoinPool of poolSize threads: the CompletableFuture ones through the
+// executor of the service, the parallel stream one by being invoked from inside the pool.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class InventoryStrategyBenchmark {
+
+    @Param({"6", "50"})
+    public int optionCount;
+
+    @Param({"4", "16"})
+    public int poolSize;
+
+    @Param({"10", "50"})
+    public long latencyMillis;
+
+    private ForkJoinPool forkJoinPool;
+    private ProductServiceWithInventoryUsingCompletableFuture productService;
+    private BatchingInventoryService batchingInventoryService;
+    private ProductServiceWithInventoryUsingCompletableFuture batchingProductService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        forkJoinPool = new ForkJoinPool(poolSize);
+        productService = new ProductServiceWithInventoryUsingCompletableFuture(
+                new SimulatedProductInfoService(latencyMillis, optionCount),
+                new SimulatedReviewService(latencyMillis),
+                new SimulatedInventoryService(latencyMillis),
+                forkJoinPool);
+        batchingInventoryService = new BatchingInventoryService(new SimulatedInventoryService(latencyMillis), 1000, 1);
+        batchingProductService = new ProductServiceWithInventoryUsingCompletableFuture(
+                new SimulatedProductInfoService(latencyMillis, optionCount),
+                new SimulatedReviewService(latencyMillis),
+                batchingInventoryService,
+                forkJoinPool);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        forkJoinPool.shutdown();
+        batchingInventoryService.close();
+    }
+
+    @Benchmark
+    public List<ProductOption> inventoryUpdatedProductOptions() {
+        return productService.inventoryUpdatedProductOptions(SimulatedServices.productInfo("ABC123", optionCount));
+    }
+
+    @Benchmark
+    public List<ProductOption> inventoryUpdatedProductOptionsWithCompletableFuture() {
+        return productService.inventoryUpdatedProductOptionsWithCompletableFuture(SimulatedServices.productInfo("ABC123", optionCount));
+    }
+
+    @Benchmark
+    public List<ProductOption> inventoryUpdatedProductOptionsWithCompletableFuture_AllOf() {
+        return productService.inventoryUpdatedProductOptionsWithCompletableFuture_AllOf(SimulatedServices.productInfo("ABC123", optionCount));
+    }
+
+    @Benchmark
+    public List<ProductOption> inventoryUpdatedProductOptionsWithParallelStream() {
+        // a parallel stream started from a ForkJoinPool task runs in that pool instead of the common pool
+        return forkJoinPool.submit(() -> productService.inventoryUpdatedProductOptionsWithParallelStream(
+                SimulatedServices.productInfo("ABC123", optionCount))).join();
+    }
+
+    @Benchmark
+    public List<ProductOption> inventoryUpdatedProductOptionsAsync_Batched() {
+        return batchingProductService.inventoryUpdatedProductOptionsAsync(SimulatedServices.productInfo("ABC123", optionCount)).join();
+    }
+
+    @Benchmark
+    public List<ProductOption> inventoryUpdatedProductOptionsNonBlocking() {
+        return productService.inventoryUpdatedProductOptionsNonBlocking(SimulatedServices.productInfo("ABC123", optionCount)).join();
+    }
+}
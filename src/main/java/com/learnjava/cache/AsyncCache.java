@@ -0,0 +1,177 @@
+package com.learnjava.cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+// Size bounded (LRU), per entry TTL cache of CompletableFuture values.
+//      - the future is cached as soon as the load starts, so concurrent misses for the same key share
+//        a single in-flight load (single flight) instead of calling the downstream service again.
+//      - a failed load is removed from the cache, so the next call loads again.
+//      - every caller gets its own copy() of the cached future, so a caller cancelling or completing
+//        its future (or calling orTimeout() on it) doesn't change the value of the other callers.
+//      - TTL is counted from the start of the load.
+//      - the last loaded value of an expired entry is kept as a stale value (getStale()) until it is
+//        reloaded successfully, to be used as fallback when the downstream is slow or down.
+public class AsyncCache<K, V> {
+
+    private final Function<K, CompletableFuture<V>> loader;
+    private final int maxSize;
+    private final long ttlNanos;
+
+    // access ordered LinkedHashMap gives the LRU order, guarded by its own monitor
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder expirationCount = new LongAdder();
+    private final LongAdder loadFailureCount = new LongAdder();
+
+    public AsyncCache(Function<K, CompletableFuture<V>> loader, int maxSize, Duration ttl) {
+        if (maxSize < 1 || ttl.isNegative()) {
+            throw new IllegalArgumentException("maxSize must be >= 1 and ttl must not be negative");
+        }
+        this.loader = loader;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > AsyncCache.this.maxSize) {
+                    evictionCount.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public CompletableFuture<V> get(K key) {
+        final long now = System.nanoTime();
+        final Entry<V> newEntry;
+
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            // an entry which failed (about to be removed by removeFailedLoad()) is a miss
+            boolean failed = entry != null && entry.value.isCompletedExceptionally();
+            if (entry != null && !failed && now - entry.loadStartNanos < ttlNanos) {
+                hitCount.increment();
+                return entry.value.copy();
+            }
+            if (entry != null && !failed) {
+                expirationCount.increment();
+            }
+            missCount.increment();
+            newEntry = new Entry<>(new CompletableFuture<>(), now, entry == null ? null : entry.lastValue());
+            entries.put(key, newEntry);
+        }
+
+        // load outside the lock, other callers of the same key already get a copy of newEntry.value
+        CompletableFuture<V> loadFuture;
+        try {
+            loadFuture = loader.apply(key);
+        } catch (RuntimeException e) {
+            loadFuture = CompletableFuture.failedFuture(e);
+        }
+        loadFuture.whenComplete((value, throwable) -> {
+            if (throwable != null) {
+                loadFailureCount.increment();
+                removeFailedLoad(key, newEntry);
+                newEntry.value.completeExceptionally(throwable);
+            } else {
+                newEntry.value.complete(value);
+            }
+        });
+        return newEntry.value.copy();
+    }
+
+    // blocking get, failure of the load is thrown as it is instead of wrapped in a CompletionException
+    public V join(K key) {
+        try {
+            return get(key).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    // value of key if it is cached, loaded and not expired, doesn't trigger a load
+    public V getIfPresent(K key) {
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry == null || System.nanoTime() - entry.loadStartNanos >= ttlNanos
+                    || !entry.value.isDone() || entry.value.isCompletedExceptionally()) {
+                return null;
+            }
+            return entry.value.join();
+        }
+    }
+
+    // last successfully loaded value of key, even if it is expired or being reloaded, doesn't trigger a load
+    public V getStale(K key) {
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            return entry == null ? null : entry.lastValue();
+        }
+    }
+
+    public void invalidate(K key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public CacheStats stats() {
+        return new CacheStats(hitCount.sum(), missCount.sum(), evictionCount.sum(),
+                expirationCount.sum(), loadFailureCount.sum());
+    }
+
+    private void removeFailedLoad(K key, Entry<V> entry) {
+        synchronized (entries) {
+            // only if it wasn't replaced by a newer load in the meantime
+            if (entries.get(key) != entry) {
+                return;
+            }
+            if (entry.staleValue == null) {
+                entries.remove(key);
+            } else {
+                // keeps the stale value, as an already expired entry so that the next get() loads again
+                entries.put(key, new Entry<>(CompletableFuture.completedFuture(entry.staleValue),
+                        System.nanoTime() - ttlNanos, null));
+            }
+        }
+    }
+
+    private static final class Entry<V> {
+        private final CompletableFuture<V> value;
+        private final long loadStartNanos;
+        // value of the previous (expired) entry
+        private final V staleValue;
+
+        private Entry(CompletableFuture<V> value, long loadStartNanos, V staleValue) {
+            this.value = value;
+            this.loadStartNanos = loadStartNanos;
+            this.staleValue = staleValue;
+        }
+
+        private V lastValue() {
+            if (value.isDone() && !value.isCompletedExceptionally() && !value.isCancelled()) {
+                return value.join();
+            }
+            return staleValue;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.learnjava.cache;
+
+import java.util.Collection;
+
+// Bloom filter of long keys (e.g. item ids): mightContain() is false only for keys which were never added,
+// and true for the added keys plus a fraction (falsePositiveRate) of the others.
+// Takes about 10 bits per key for 1% false positives, whatever the size of the keys.
+// Immutable once built (of()), so it is read from any number of threads without locking.
+public final class BloomFilter {
+
+    private final long[] bits;
+    private final int bitCount;
+    private final int hashCount;
+
+    private BloomFilter(int bitCount, int hashCount) {
+        this.bits = new long[(bitCount + 63) / 64];
+        this.bitCount = bitCount;
+        this.hashCount = hashCount;
+    }
+
+    public static BloomFilter of(Collection<? extends Number> keys, double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("falsePositiveRate must be between 0 and 1 : " + falsePositiveRate);
+        }
+        int expectedKeys = Math.max(1, keys.size());
+        // optimal size and number of hashes for the expected keys and false positive rate
+        long bitCount = (long) Math.ceil(-expectedKeys * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        if (bitCount > Integer.MAX_VALUE - 63) {
+            throw new IllegalArgumentException("Too many keys for a BloomFilter : " + keys.size());
+        }
+        int hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedKeys * Math.log(2)));
+        BloomFilter bloomFilter = new BloomFilter((int) Math.max(64, bitCount), hashCount);
+        for (Number key : keys) {
+            bloomFilter.add(key.longValue());
+        }
+        return bloomFilter;
+    }
+
+    public boolean mightContain(long key) {
+        long hash = mix(key);
+        // double hashing : hash i = h1 + i * h2
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int index = 0; index < hashCount; index++) {
+            int bit = Math.floorMod(h1 + index * h2, bitCount);
+            if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int bitCount() {
+        return bitCount;
+    }
+
+    public int hashCount() {
+        return hashCount;
+    }
+
+    private void add(long key) {
+        long hash = mix(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int index = 0; index < hashCount; index++) {
+            int bit = Math.floorMod(h1 + index * h2, bitCount);
+            bits[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    // spreads consecutive keys (ids) over all the bits (finalizer of SplitMix64)
+    private static long mix(long key) {
+        long z = key + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
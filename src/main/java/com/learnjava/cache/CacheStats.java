@@ -0,0 +1,10 @@
+package com.learnjava.cache;
+
+// point in time snapshot of the counters of an AsyncCache
+public record CacheStats(long hitCount, long missCount, long evictionCount, long expirationCount, long loadFailureCount) {
+
+    public double hitRate() {
+        long requestCount = hitCount + missCount;
+        return requestCount == 0 ? 0.0 : (double) hitCount / requestCount;
+    }
+}
@@ -0,0 +1,215 @@
+package com.learnjava.catalog;
+
+import com.learnjava.domain.Inventory;
+import com.learnjava.domain.ProductInfo;
+import com.learnjava.domain.ProductOption;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Read only catalog of products and their options, stored column by column in primitive arrays:
+//      options of product p are the option indexes optionStart[p] until optionStart[p + 1]
+//      optionIds, prices, inventoryCounts : one primitive per option
+//      sizeCodes, colorCodes              : dictionary codes (short) of the size and color strings
+// An option takes 4 + 2 + 2 + 8 + 4 = 20 bytes, instead of a ProductOption, a boxed Integer and an
+// Inventory object plus the references to them (around 100 bytes with compressed oops).
+//
+// ProductOption objects are created only when a product is requested, as views (ProductOptionView)
+// reading the columns, see productInfo().
+// Immutable once built, so it can be read from any number of threads without locking.
+public final class ColumnarCatalog implements OptionColumns {
+
+    // inventoryCounts value of an option without inventory
+    public static final int NO_INVENTORY = -1;
+
+    private final Map<String, Integer> productIndexes;
+    private final String[] productIds;
+    private final int[] optionStart;
+    private final int[] optionIds;
+    private final short[] sizeCodes;
+    private final short[] colorCodes;
+    private final double[] prices;
+    private final int[] inventoryCounts;
+    private final StringDictionary sizes;
+    private final StringDictionary colors;
+
+    private ColumnarCatalog(Builder builder) {
+        this.productIndexes = builder.productIndexes;
+        this.productIds = Arrays.copyOf(builder.productIds, builder.productCount);
+        this.optionStart = Arrays.copyOf(builder.optionStart, builder.productCount + 1);
+        this.optionIds = Arrays.copyOf(builder.optionIds, builder.optionCount);
+        this.sizeCodes = Arrays.copyOf(builder.sizeCodes, builder.optionCount);
+        this.colorCodes = Arrays.copyOf(builder.colorCodes, builder.optionCount);
+        this.prices = Arrays.copyOf(builder.prices, builder.optionCount);
+        this.inventoryCounts = Arrays.copyOf(builder.inventoryCounts, builder.optionCount);
+        this.sizes = builder.sizes;
+        this.colors = builder.colors;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    // bulk load of existing ProductInfo objects (e.g. from ProductInfoService)
+    public static ColumnarCatalog of(Collection<ProductInfo> productInfos) {
+        Builder builder = builder();
+        productInfos.forEach(builder::addProduct);
+        return builder.build();
+    }
+
+    public boolean contains(String productId) {
+        return productIndexes.containsKey(productId);
+    }
+
+    public int productCount() {
+        return productIds.length;
+    }
+
+    public int optionCount() {
+        return optionIds.length;
+    }
+
+    // ProductInfo with a new list of ProductOptionViews, null if the product is not in the catalog.
+    // The caller may set the inventory of the options (as the product services do), the catalog isn't changed.
+    public ProductInfo productInfo(String productId) {
+        Integer productIndex = productIndexes.get(productId);
+        if (productIndex == null) {
+            return null;
+        }
+        int from = optionStart[productIndex];
+        int to = optionStart[productIndex + 1];
+        List<ProductOption> productOptions = new ArrayList<>(to - from);
+        for (int optionIndex = from; optionIndex < to; optionIndex++) {
+            productOptions.add(new ProductOptionView(this, optionIndex));
+        }
+        return ProductInfo.builder().productId(productId)
+                .productOptions(productOptions)
+                .build();
+    }
+
+    // column accessors by option index (0 until optionCount())
+
+    @Override
+    public int optionId(int optionIndex) {
+        return optionIds[optionIndex];
+    }
+
+    @Override
+    public String size(int optionIndex) {
+        return sizes.decode(sizeCodes[optionIndex]);
+    }
+
+    @Override
+    public String color(int optionIndex) {
+        return colors.decode(colorCodes[optionIndex]);
+    }
+
+    @Override
+    public double price(int optionIndex) {
+        return prices[optionIndex];
+    }
+
+    @Override
+    public int inventoryCount(int optionIndex) {
+        return inventoryCounts[optionIndex];
+    }
+
+    // approximate heap used by the columns and dictionaries, for comparison with the object model
+    public long estimatedSizeInBytes() {
+        long productBytes = (long) productIds.length * (4 + 4 + 32) + (long) optionStart.length * 4;
+        long optionBytes = (long) optionIds.length * (4 + 2 + 2 + 8 + 4);
+        long dictionaryBytes = (long) (sizes.size() + colors.size()) * 64;
+        return productBytes + optionBytes + dictionaryBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "ColumnarCatalog[products=" + productCount() + ", options=" + optionCount()
+                + ", sizes=" + sizes.size() + ", colors=" + colors.size() + "]";
+    }
+
+    // Not thread safe, the catalog is built by a single thread (e.g. a bulk loader) and then shared.
+    public static final class Builder {
+        private final Map<String, Integer> productIndexes = new HashMap<>();
+        private final StringDictionary sizes = new StringDictionary();
+        private final StringDictionary colors = new StringDictionary();
+        private String[] productIds = new String[16];
+        private int[] optionStart = new int[17];
+        private int productCount;
+        private int[] optionIds = new int[64];
+        private short[] sizeCodes = new short[64];
+        private short[] colorCodes = new short[64];
+        private double[] prices = new double[64];
+        private int[] inventoryCounts = new int[64];
+        private int optionCount;
+        private boolean built;
+
+        private Builder() {
+        }
+
+        public Builder addProduct(ProductInfo productInfo) {
+            startProduct(productInfo.getProductId());
+            for (ProductOption productOption : productInfo.getProductOptions()) {
+                Inventory inventory = productOption.getInventory();
+                addOption(productOption.getProductionOptionId(), productOption.getSize(), productOption.getColor(),
+                        productOption.getPrice(), inventory == null ? NO_INVENTORY : inventory.getCount());
+            }
+            return this;
+        }
+
+        // the options added afterwards belong to this product, until the next startProduct()
+        public Builder startProduct(String productId) {
+            checkNotBuilt();
+            if (productIndexes.putIfAbsent(productId, productCount) != null) {
+                throw new IllegalArgumentException("Duplicate productId : " + productId);
+            }
+            if (productCount == productIds.length) {
+                productIds = Arrays.copyOf(productIds, productCount * 2);
+                optionStart = Arrays.copyOf(optionStart, productCount * 2 + 1);
+            }
+            productIds[productCount] = productId;
+            productCount++;
+            optionStart[productCount] = optionCount;
+            return this;
+        }
+
+        public Builder addOption(int optionId, String size, String color, double price, int inventoryCount) {
+            checkNotBuilt();
+            if (productCount == 0) {
+                throw new IllegalStateException("startProduct() must be called before addOption()");
+            }
+            if (optionCount == optionIds.length) {
+                int capacity = optionCount + (optionCount >> 1);
+                optionIds = Arrays.copyOf(optionIds, capacity);
+                sizeCodes = Arrays.copyOf(sizeCodes, capacity);
+                colorCodes = Arrays.copyOf(colorCodes, capacity);
+                prices = Arrays.copyOf(prices, capacity);
+                inventoryCounts = Arrays.copyOf(inventoryCounts, capacity);
+            }
+            optionIds[optionCount] = optionId;
+            sizeCodes[optionCount] = sizes.encode(size);
+            colorCodes[optionCount] = colors.encode(color);
+            prices[optionCount] = price;
+            inventoryCounts[optionCount] = inventoryCount;
+            optionCount++;
+            optionStart[productCount] = optionCount;
+            return this;
+        }
+
+        public ColumnarCatalog build() {
+            checkNotBuilt();
+            built = true;
+            return new ColumnarCatalog(this);
+        }
+
+        private void checkNotBuilt() {
+            if (built) {
+                throw new IllegalStateException("Catalog is already built");
+            }
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package com.learnjava.catalog;
+
+import com.learnjava.domain.Inventory;
+import com.learnjava.domain.ProductInfo;
+import com.learnjava.domain.ProductOption;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// Product catalog in a binary file, read through a memory mapped buffer. Opening only maps the file
+// and reads the header and the (small) size/color dictionaries, the products stay in the file (page
+// cache) instead of the heap, and a lookup reads the bytes of the mapping in place (no deserialization).
+//
+// File layout (big endian):
+//      header        : magic, version, productCount, optionCount, stringCount, indexSlots (int),
+//                      stringsOffset, indexOffset, optionsOffset (long)
+//      strings       : size/color dictionary, per string : length (short) + UTF-8 bytes
+//      index         : open addressing hash table of productId.hashCode(), indexSlots * offset of the
+//                      product record (long, 0 = empty slot), linear probing
+//      products      : per product : productId length (short) + UTF-8 bytes, first option index (int),
+//                      option count (int)
+//      options       : per option (OPTION_BYTES) : optionId (int), size code (short), color code (short),
+//                      price (double), inventory count (int)
+//
+// A single MappedByteBuffer is limited to 2 GB, which is the limit of the file size.
+// Reads use absolute get methods only, so the store can be read from any number of threads.
+public final class MappedCatalogStore implements OptionColumns, AutoCloseable {
+
+    static final int MAGIC = 0x50434154; // "PCAT"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 6 * Integer.BYTES + 3 * Long.BYTES;
+    static final int OPTION_BYTES = Integer.BYTES + 2 * Short.BYTES + Double.BYTES + Integer.BYTES;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int productCount;
+    private final int optionCount;
+    private final int indexSlots;
+    private final long indexOffset;
+    private final long optionsOffset;
+    private final String[] strings;
+
+    private MappedCatalogStore(Path file, FileChannel channel, MappedByteBuffer buffer) throws IOException {
+        this.file = file;
+        this.channel = channel;
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a catalog file : " + file);
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported catalog version " + buffer.getInt(4) + " : " + file);
+        }
+        this.productCount = buffer.getInt(8);
+        this.optionCount = buffer.getInt(12);
+        int stringCount = buffer.getInt(16);
+        this.indexSlots = buffer.getInt(20);
+        long stringsOffset = buffer.getLong(24);
+        this.indexOffset = buffer.getLong(32);
+        this.optionsOffset = buffer.getLong(40);
+        if (optionsOffset + (long) optionCount * OPTION_BYTES > buffer.capacity()) {
+            throw new IOException("Truncated catalog file : " + file);
+        }
+
+        this.strings = new String[stringCount];
+        int position = (int) stringsOffset;
+        for (int index = 0; index < stringCount; index++) {
+            int length = buffer.getShort(position);
+            strings[index] = readUtf8(position + Short.BYTES, length);
+            position += Short.BYTES + length;
+        }
+    }
+
+    public static MappedCatalogStore open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Catalog file larger than 2 GB : " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new MappedCatalogStore(file, channel, buffer);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // Writes the products to file, through a temporary file which replaces file once complete,
+    // so a reader never maps a half written catalog. productIds must be unique.
+    public static void write(Path file, Collection<ProductInfo> productInfos) throws IOException {
+        // shared dictionary of sizes and colors, the codes index the strings section
+        StringDictionary dictionary = new StringDictionary();
+        List<byte[]> productIdBytes = new ArrayList<>(productInfos.size());
+        int optionCount = 0;
+        for (ProductInfo productInfo : productInfos) {
+            byte[] idBytes = productInfo.getProductId().getBytes(StandardCharsets.UTF_8);
+            if (idBytes.length > Short.MAX_VALUE) {
+                throw new IllegalArgumentException("productId too long : " + productInfo.getProductId());
+            }
+            productIdBytes.add(idBytes);
+            for (ProductOption productOption : productInfo.getProductOptions()) {
+                dictionary.encode(productOption.getSize());
+                dictionary.encode(productOption.getColor());
+                optionCount++;
+            }
+        }
+
+        List<byte[]> stringBytes = new ArrayList<>(dictionary.size());
+        long stringsBytes = 0;
+        for (short code = 0; code < dictionary.size(); code++) {
+            byte[] bytes = dictionary.decode(code).getBytes(StandardCharsets.UTF_8);
+            stringBytes.add(bytes);
+            stringsBytes += Short.BYTES + bytes.length;
+        }
+
+        // load factor <= 0.5, so that probing stays short
+        int indexSlots = Integer.highestOneBit(Math.max(1, productInfos.size()) * 2 - 1) << 1;
+        long stringsOffset = HEADER_BYTES;
+        long indexOffset = stringsOffset + stringsBytes;
+        long productsOffset = indexOffset + (long) indexSlots * Long.BYTES;
+
+        long[] index = new long[indexSlots];
+        long productOffset = productsOffset;
+        int productIndex = 0;
+        for (ProductInfo productInfo : productInfos) {
+            int slot = findSlot(productInfo.getProductId(), indexSlots);
+            while (index[slot] != 0) {
+                slot = (slot + 1) & (indexSlots - 1);
+            }
+            index[slot] = productOffset;
+            productOffset += Short.BYTES + productIdBytes.get(productIndex++).length + 2 * Integer.BYTES;
+        }
+        long optionsOffset = productOffset;
+        if (optionsOffset + (long) optionCount * OPTION_BYTES > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Catalog larger than 2 GB");
+        }
+
+        Path temporaryFile = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryFile), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(productInfos.size());
+            out.writeInt(optionCount);
+            out.writeInt(dictionary.size());
+            out.writeInt(indexSlots);
+            out.writeLong(stringsOffset);
+            out.writeLong(indexOffset);
+            out.writeLong(optionsOffset);
+
+            for (byte[] bytes : stringBytes) {
+                out.writeShort(bytes.length);
+                out.write(bytes);
+            }
+            for (long offset : index) {
+                out.writeLong(offset);
+            }
+            int firstOption = 0;
+            productIndex = 0;
+            for (ProductInfo productInfo : productInfos) {
+                byte[] idBytes = productIdBytes.get(productIndex++);
+                out.writeShort(idBytes.length);
+                out.write(idBytes);
+                out.writeInt(firstOption);
+                out.writeInt(productInfo.getProductOptions().size());
+                firstOption += productInfo.getProductOptions().size();
+            }
+            for (ProductInfo productInfo : productInfos) {
+                for (ProductOption productOption : productInfo.getProductOptions()) {
+                    Inventory inventory = productOption.getInventory();
+                    out.writeInt(productOption.getProductionOptionId());
+                    out.writeShort(dictionary.encode(productOption.getSize()));
+                    out.writeShort(dictionary.encode(productOption.getColor()));
+                    out.writeDouble(productOption.getPrice());
+                    out.writeInt(inventory == null ? ColumnarCatalog.NO_INVENTORY : inventory.getCount());
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporaryFile);
+            throw e;
+        }
+        Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // ProductInfo with a new list of ProductOptionViews over the mapping, null if the product is not in the store
+    public ProductInfo productInfo(String productId) {
+        int productOffset = findProduct(productId);
+        if (productOffset < 0) {
+            return null;
+        }
+        int idLength = buffer.getShort(productOffset);
+        int firstOption = buffer.getInt(productOffset + Short.BYTES + idLength);
+        int productOptionCount = buffer.getInt(productOffset + Short.BYTES + idLength + Integer.BYTES);
+        List<ProductOption> productOptions = new ArrayList<>(productOptionCount);
+        for (int optionIndex = firstOption; optionIndex < firstOption + productOptionCount; optionIndex++) {
+            productOptions.add(new ProductOptionView(this, optionIndex));
+        }
+        return ProductInfo.builder().productId(productId)
+                .productOptions(productOptions)
+                .build();
+    }
+
+    public boolean contains(String productId) {
+        return findProduct(productId) >= 0;
+    }
+
+    // offset of the product record, -1 if not found
+    private int findProduct(String productId) {
+        byte[] idBytes = productId.getBytes(StandardCharsets.UTF_8);
+        int slot = findSlot(productId, indexSlots);
+        for (int probe = 0; probe < indexSlots; probe++) {
+            long productOffset = buffer.getLong((int) (indexOffset + (long) slot * Long.BYTES));
+            if (productOffset == 0) {
+                return -1;
+            }
+            if (idEquals((int) productOffset, idBytes)) {
+                return (int) productOffset;
+            }
+            slot = (slot + 1) & (indexSlots - 1);
+        }
+        return -1;
+    }
+
+    // compares the bytes of the mapping, without creating a String per probed record
+    private boolean idEquals(int productOffset, byte[] idBytes) {
+        if (buffer.getShort(productOffset) != idBytes.length) {
+            return false;
+        }
+        int position = productOffset + Short.BYTES;
+        for (int index = 0; index < idBytes.length; index++) {
+            if (buffer.get(position + index) != idBytes[index]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int findSlot(String productId, int indexSlots) {
+        // String.hashCode() is specified, so the slots of a file stay valid across JVMs
+        int hash = productId.hashCode();
+        return (hash ^ (hash >>> 16)) & (indexSlots - 1);
+    }
+
+    private String readUtf8(int position, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(position, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int optionPosition(int optionIndex) {
+        if (optionIndex < 0 || optionIndex >= optionCount) {
+            throw new IndexOutOfBoundsException("Option " + optionIndex + " out of bounds for " + optionCount + " options");
+        }
+        return (int) (optionsOffset + (long) optionIndex * OPTION_BYTES);
+    }
+
+    @Override
+    public int optionId(int optionIndex) {
+        return buffer.getInt(optionPosition(optionIndex));
+    }
+
+    @Override
+    public String size(int optionIndex) {
+        return string(buffer.getShort(optionPosition(optionIndex) + Integer.BYTES));
+    }
+
+    @Override
+    public String color(int optionIndex) {
+        return string(buffer.getShort(optionPosition(optionIndex) + Integer.BYTES + Short.BYTES));
+    }
+
+    @Override
+    public double price(int optionIndex) {
+        return buffer.getDouble(optionPosition(optionIndex) + Integer.BYTES + 2 * Short.BYTES);
+    }
+
+    @Override
+    public int inventoryCount(int optionIndex) {
+        return buffer.getInt(optionPosition(optionIndex) + Integer.BYTES + 2 * Short.BYTES + Double.BYTES);
+    }
+
+    private String string(short code) {
+        return code == StringDictionary.NULL_CODE ? null : strings[code];
+    }
+
+    public int productCount() {
+        return productCount;
+    }
+
+    public int optionCount() {
+        return optionCount;
+    }
+
+    // The mapping itself is released by the GC once the store (and its views) are unreachable,
+    // Java 21 has no supported way to unmap a MappedByteBuffer earlier.
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    @Override
+    public String toString() {
+        return "MappedCatalogStore[" + file + ", products=" + productCount + ", options=" + optionCount + "]";
+    }
+}
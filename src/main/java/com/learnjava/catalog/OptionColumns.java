@@ -0,0 +1,16 @@
+package com.learnjava.catalog;
+
+// option columns read by ProductOptionView, by option index
+interface OptionColumns {
+
+    int optionId(int optionIndex);
+
+    String size(int optionIndex);
+
+    String color(int optionIndex);
+
+    double price(int optionIndex);
+
+    // ColumnarCatalog.NO_INVENTORY if the option has no inventory
+    int inventoryCount(int optionIndex);
+}
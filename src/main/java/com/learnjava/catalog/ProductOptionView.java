@@ -0,0 +1,78 @@
+package com.learnjava.catalog;
+
+import com.learnjava.domain.Inventory;
+import com.learnjava.domain.ProductOption;
+
+// Flyweight ProductOption reading id, size, color and price from the columns of a ColumnarCatalog or a
+// MappedCatalogStore, so it can be passed to the existing services (e.g. InventoryService) like any ProductOption.
+// Only the inventory can be set (product services set it per request), it isn't written back to
+// the catalog. Without it set, the inventory of the catalog (if any) is returned.
+public class ProductOptionView extends ProductOption {
+
+    private final OptionColumns catalog;
+    private final int optionIndex;
+
+    ProductOptionView(OptionColumns catalog, int optionIndex) {
+        this.catalog = catalog;
+        this.optionIndex = optionIndex;
+    }
+
+    @Override
+    public Integer getProductionOptionId() {
+        return catalog.optionId(optionIndex);
+    }
+
+    @Override
+    public String getSize() {
+        return catalog.size(optionIndex);
+    }
+
+    @Override
+    public String getColor() {
+        return catalog.color(optionIndex);
+    }
+
+    @Override
+    public double getPrice() {
+        return catalog.price(optionIndex);
+    }
+
+    @Override
+    public Inventory getInventory() {
+        Inventory inventory = super.getInventory();
+        if (inventory != null) {
+            return inventory;
+        }
+        int inventoryCount = catalog.inventoryCount(optionIndex);
+        return inventoryCount == ColumnarCatalog.NO_INVENTORY ? null : new Inventory(inventoryCount);
+    }
+
+    @Override
+    public void setProductionOptionId(Integer productionOptionId) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setSize(String size) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setColor(String color) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setPrice(double price) {
+        throw readOnly();
+    }
+
+    // serialized as a plain ProductOption, the catalog it reads from isn't serializable
+    private Object writeReplace() {
+        return new ProductOption(getProductionOptionId(), getSize(), getColor(), getPrice(), getInventory());
+    }
+
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("ProductOptionView is read only, except for the inventory");
+    }
+}
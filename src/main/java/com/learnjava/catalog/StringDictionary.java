@@ -0,0 +1,42 @@
+package com.learnjava.catalog;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Dictionary encoding of the repeated strings of the catalog (size, color): every distinct string is
+// stored once and the columns store its code (a short) instead of a reference per option.
+// Encoding is done by the single thread building the catalog, decoding is safe from any thread
+// once the catalog is built (published through the final fields of ColumnarCatalog).
+final class StringDictionary {
+
+    static final short NULL_CODE = -1;
+
+    private final Map<String, Short> codes = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    short encode(String value) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+        Short code = codes.get(value);
+        if (code == null) {
+            if (values.size() > Short.MAX_VALUE) {
+                throw new IllegalStateException("More than " + (Short.MAX_VALUE + 1) + " distinct values in dictionary");
+            }
+            code = (short) values.size();
+            codes.put(value, code);
+            values.add(value);
+        }
+        return code;
+    }
+
+    String decode(short code) {
+        return code == NULL_CODE ? null : values.get(code);
+    }
+
+    int size() {
+        return values.size();
+    }
+}
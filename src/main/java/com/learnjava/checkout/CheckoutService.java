@@ -0,0 +1,113 @@
+package com.learnjava.checkout;
+
+import com.learnjava.domain.checkout.Cart;
+import com.learnjava.domain.checkout.CartItem;
+import com.learnjava.domain.checkout.CheckoutResponse;
+import com.learnjava.domain.checkout.CheckoutStatus;
+import com.learnjava.executorService.ExecutorRegistry;
+import com.learnjava.executorService.ExecutorRegistry.Downstream;
+import com.learnjava.service.PriceValidatorService;
+import com.learnjava.util.DataSet;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import static com.learnjava.util.LoggerUtil.log;
+
+public class CheckoutService {
+
+    // ways to fan out the price validation (500 ms per item) of a cart.
+    //      PARALLEL_STREAM : uses ForkJoinPool.commonPool(), so at most noOfCores items are validated at a time.
+    //      EXECUTOR        : uses the executor passed to the constructor (or the price validation bulkhead).
+    //      VIRTUAL_THREADS : one virtual thread per item, latency stays around 500 ms as the cart grows
+    //                        because a blocked virtual thread does not hold a platform thread.
+    public enum ValidationStrategy {
+        PARALLEL_STREAM,
+        EXECUTOR,
+        VIRTUAL_THREADS
+    }
+
+    private final PriceValidatorService priceValidatorService;
+    private final ExecutorService executorService;
+    private final PricingEngine pricingEngine;
+
+    public CheckoutService(PriceValidatorService priceValidatorService) {
+        this(priceValidatorService, ExecutorRegistry.defaultRegistry().executorFor(Downstream.PRICE_VALIDATION));
+    }
+
+    public CheckoutService(PriceValidatorService priceValidatorService, ExecutorService executorService) {
+        this(priceValidatorService, executorService, PricingEngine.noRules());
+    }
+
+    public CheckoutService(PriceValidatorService priceValidatorService, ExecutorService executorService, PricingEngine pricingEngine) {
+        this.priceValidatorService = priceValidatorService;
+        this.executorService = executorService;
+        this.pricingEngine = pricingEngine;
+    }
+
+    public CheckoutResponse checkout(Cart cart) {
+        return checkout(cart, ValidationStrategy.VIRTUAL_THREADS);
+    }
+
+    public CheckoutResponse checkout(Cart cart, ValidationStrategy strategy) {
+        final List<CartItem> cartItemList = cart.getCartItemList();
+
+        final List<CartItem> invalidCartItems = switch (strategy) {
+            case PARALLEL_STREAM -> invalidCartItemsWithParallelStream(cartItemList);
+            case EXECUTOR -> invalidCartItemsWithExecutor(cartItemList, executorService);
+            case VIRTUAL_THREADS -> invalidCartItemsWithVirtualThreads(cartItemList);
+        };
+
+        if (!invalidCartItems.isEmpty()) {
+            log("Checkout failed, invalid items : " + invalidCartItems.size());
+            return new CheckoutResponse(CheckoutStatus.FAILURE, invalidCartItems);
+        }
+
+        final double finalRate = calculateFinalRate(cartItemList);
+        log("Checkout complete, final rate : " + finalRate);
+        return new CheckoutResponse(CheckoutStatus.SUCCESS, finalRate);
+    }
+
+    private List<CartItem> invalidCartItemsWithParallelStream(final List<CartItem> cartItemList) {
+        return cartItemList.parallelStream()
+                .filter(priceValidatorService::isCartItemInvalid)
+                .collect(Collectors.toList());
+    }
+
+    private List<CartItem> invalidCartItemsWithVirtualThreads(final List<CartItem> cartItemList) {
+        // executor is closed (and waits for all the submitted tasks) at the end of try block
+        try (ExecutorService virtualThreadExecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            return invalidCartItemsWithExecutor(cartItemList, virtualThreadExecutor);
+        }
+    }
+
+    private List<CartItem> invalidCartItemsWithExecutor(final List<CartItem> cartItemList, final ExecutorService executor) {
+        // submit all the validations first and join afterwards, otherwise every item waits for the previous one.
+        final List<CompletableFuture<CartItem>> validationFutureList = cartItemList.stream()
+                .map(cartItem -> CompletableFuture.supplyAsync(
+                        () -> priceValidatorService.isCartItemInvalid(cartItem) ? cartItem : null, executor))
+                .collect(Collectors.toList());
+
+        return validationFutureList.stream()
+                .map(CompletableFuture::join)
+                .filter(cartItem -> cartItem != null)
+                .collect(Collectors.toList());
+    }
+
+    // in cents, so the total doesn't depend on how a parallel stream splits the cart, expired items are skipped
+    private double calculateFinalRate(final List<CartItem> cartItemList) {
+        return pricingEngine.price(cartItemList).total();
+    }
+
+    public static void main(String[] args) {
+
+        CheckoutService checkoutService = new CheckoutService(new PriceValidatorService());
+        CheckoutResponse checkoutResponse = checkoutService.checkout(DataSet.createCart(25));
+        log("Checkout response is " + checkoutResponse);
+        ExecutorRegistry.defaultRegistry().shutdown(Duration.ofSeconds(5));
+    }
+}
@@ -0,0 +1,110 @@
+package com.learnjava.checkout;
+
+import com.learnjava.domain.checkout.CartItem;
+import com.learnjava.util.DataSet;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static com.learnjava.util.LoggerUtil.log;
+
+// Computes cart totals in fixed point long cents:
+//      - the rate of an item is rounded to cents once, amount = rate in cents * quantity
+//      - the rules are applied to every item in a single pass, in the order given (compiled once to an array)
+//      - expired items are skipped
+// Summing doubles in a parallel stream gives a different total depending on how the items are split
+// between the threads (and loses cents on big carts), summing longs gives the same total for any split,
+// so large carts can use a parallel stream without changing the result. Overflows throw ArithmeticException.
+public class PricingEngine {
+
+    // smaller carts are priced sequentially, splitting costs more than it saves
+    public static final int PARALLEL_THRESHOLD = 8192;
+
+    private final PricingRule[] rules;
+
+    public PricingEngine(List<PricingRule> rules) {
+        this.rules = rules.toArray(new PricingRule[0]);
+    }
+
+    public static PricingEngine noRules() {
+        return new PricingEngine(List.of());
+    }
+
+    public PricingResult price(List<CartItem> cartItems) {
+        Stream<CartItem> cartItemStream = cartItems.size() >= PARALLEL_THRESHOLD ? cartItems.parallelStream() : cartItems.stream();
+        return cartItemStream.collect(Totals::new, this::add, Totals::combine)
+                .toResult();
+    }
+
+    // amount of the item after the rules, in cents
+    public long priceCents(CartItem cartItem) {
+        long amountCents = subtotalCents(cartItem);
+        for (PricingRule rule : rules) {
+            amountCents = rule.apply(cartItem, amountCents);
+        }
+        return amountCents;
+    }
+
+    public static long toCents(double amount) {
+        return Math.round(amount * 100);
+    }
+
+    public static double toAmount(long cents) {
+        return cents / 100.0;
+    }
+
+    private static long subtotalCents(CartItem cartItem) {
+        return Math.multiplyExact(toCents(cartItem.getRate()), (long) cartItem.getQuantity());
+    }
+
+    private void add(Totals totals, CartItem cartItem) {
+        if (cartItem.isExpired()) {
+            totals.expiredItems++;
+            return;
+        }
+        totals.subtotalCents = Math.addExact(totals.subtotalCents, subtotalCents(cartItem));
+        totals.totalCents = Math.addExact(totals.totalCents, priceCents(cartItem));
+        totals.pricedItems++;
+    }
+
+    // subtotalCents : before the rules
+    public record PricingResult(long subtotalCents, long totalCents, int pricedItems, int expiredItems) {
+
+        public double total() {
+            return toAmount(totalCents);
+        }
+    }
+
+    private static final class Totals {
+        private long subtotalCents;
+        private long totalCents;
+        private int pricedItems;
+        private int expiredItems;
+
+        private void combine(Totals other) {
+            subtotalCents = Math.addExact(subtotalCents, other.subtotalCents);
+            totalCents = Math.addExact(totalCents, other.totalCents);
+            pricedItems += other.pricedItems;
+            expiredItems += other.expiredItems;
+        }
+
+        private PricingResult toResult() {
+            return new PricingResult(subtotalCents, totalCents, pricedItems, expiredItems);
+        }
+    }
+
+    public static void main(String[] args) {
+        PricingEngine pricingEngine = new PricingEngine(List.of(
+                PricingRule.when(cartItem -> cartItem.getQuantity() >= 10, PricingRule.percentOff(500)),
+                PricingRule.tax(1900)));
+        List<CartItem> cartItems = DataSet.createCart(500_000).getCartItemList();
+        for (int run = 0; run < 3; run++) {
+            long start = System.nanoTime();
+            PricingResult pricingResult = pricingEngine.price(cartItems);
+            log("Priced " + pricingResult.pricedItems() + " items in " + (System.nanoTime() - start) / 1_000_000 + " ms : "
+                    + pricingResult);
+        }
+        double doubleSum = cartItems.parallelStream().mapToDouble(cartItem -> cartItem.getRate() * cartItem.getQuantity()).sum();
+        log("Subtotal with doubles : " + doubleSum + ", in cents : " + toAmount(pricingEngine.price(cartItems).subtotalCents()));
+    }
+}
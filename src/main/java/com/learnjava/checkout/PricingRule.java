@@ -0,0 +1,48 @@
+package com.learnjava.checkout;
+
+import com.learnjava.domain.checkout.CartItem;
+
+import java.util.function.Predicate;
+
+// Discount or tax applied to the amount of a cart item (rate * quantity), in cents.
+// Rules are applied one after the other by the PricingEngine, each gets the amount of the previous one.
+// Percentages are in basis points (1% = 100), results are rounded half up to a whole cent.
+@FunctionalInterface
+public interface PricingRule {
+
+    long BASIS_POINTS = 10_000;
+
+    long apply(CartItem cartItem, long amountCents);
+
+    static PricingRule percentOff(long basisPoints) {
+        checkBasisPoints(basisPoints);
+        return (cartItem, amountCents) -> scale(amountCents, BASIS_POINTS - basisPoints);
+    }
+
+    // per unit, the amount doesn't go below 0
+    static PricingRule amountOffPerUnit(long cents) {
+        return (cartItem, amountCents) -> Math.max(0, amountCents - Math.multiplyExact(cents, (long) cartItem.getQuantity()));
+    }
+
+    static PricingRule tax(long basisPoints) {
+        if (basisPoints < 0) {
+            throw new IllegalArgumentException("basisPoints must be >= 0 : " + basisPoints);
+        }
+        return (cartItem, amountCents) -> scale(amountCents, BASIS_POINTS + basisPoints);
+    }
+
+    // e.g. when(cartItem -> cartItem.getQuantity() >= 10, percentOff(500)) : 5% off from 10 units
+    static PricingRule when(Predicate<CartItem> condition, PricingRule rule) {
+        return (cartItem, amountCents) -> condition.test(cartItem) ? rule.apply(cartItem, amountCents) : amountCents;
+    }
+
+    private static long scale(long amountCents, long basisPoints) {
+        return Math.floorDiv(Math.multiplyExact(amountCents, basisPoints) + BASIS_POINTS / 2, BASIS_POINTS);
+    }
+
+    private static void checkBasisPoints(long basisPoints) {
+        if (basisPoints < 0 || basisPoints > BASIS_POINTS) {
+            throw new IllegalArgumentException("basisPoints must be between 0 and " + BASIS_POINTS + " : " + basisPoints);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.learnjava.codec;
+
+import com.learnjava.domain.Product;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Lazy view of a product encoded by ProductCodec: every accessor reads its field from the buffer when
+// called, using the offsets of the record, so reading e.g. the rating doesn't decode the options.
+// Uses absolute reads only, the position of the buffer is never changed.
+// The view is valid as long as the bytes of the record in the buffer are not overwritten.
+public final class EncodedProduct {
+
+    private final ByteBuffer buffer;
+    private final int start;
+
+    private EncodedProduct(ByteBuffer buffer, int start) {
+        this.buffer = buffer;
+        this.start = start;
+    }
+
+    static EncodedProduct at(ByteBuffer buffer, int start) {
+        byte version = buffer.get(start);
+        if (version != ProductCodec.VERSION) {
+            throw new IllegalArgumentException("Unsupported product codec version " + version + " at " + start);
+        }
+        int length = buffer.getInt(start + ProductCodec.LENGTH_OFFSET);
+        if (length < ProductCodec.HEADER_BYTES || start + length > buffer.limit()) {
+            throw new IllegalArgumentException("Truncated product record at " + start + ", length " + length);
+        }
+        return new EncodedProduct(buffer, start);
+    }
+
+    // bytes of the record, including the header
+    public int length() {
+        return buffer.getInt(start + ProductCodec.LENGTH_OFFSET);
+    }
+
+    public String productId() {
+        return string(start + ProductCodec.HEADER_BYTES);
+    }
+
+    public String productInfoId() {
+        int productIdPosition = start + ProductCodec.HEADER_BYTES;
+        return string(productIdPosition + stringBytes(productIdPosition));
+    }
+
+    public int noOfReviews() {
+        return buffer.getInt(reviewPosition());
+    }
+
+    public double overallRating() {
+        return buffer.getDouble(reviewPosition() + Integer.BYTES);
+    }
+
+    public int optionCount() {
+        return buffer.getInt(start + buffer.getInt(start + ProductCodec.OPTIONS_OFFSET));
+    }
+
+    // null if the option has no id
+    public Integer optionId(int index) {
+        int optionId = buffer.getInt(optionPosition(index));
+        return optionId == ProductCodec.NULL_INT ? null : optionId;
+    }
+
+    public double optionPrice(int index) {
+        return buffer.getDouble(optionPosition(index) + Integer.BYTES);
+    }
+
+    // ProductCodec.NULL_INT (Integer.MIN_VALUE) if the option has no inventory
+    public int optionInventoryCount(int index) {
+        return buffer.getInt(optionPosition(index) + Integer.BYTES + Double.BYTES);
+    }
+
+    public String optionSize(int index) {
+        return string(optionPosition(index) + 2 * Integer.BYTES + Double.BYTES);
+    }
+
+    public String optionColor(int index) {
+        int sizePosition = optionPosition(index) + 2 * Integer.BYTES + Double.BYTES;
+        return string(sizePosition + stringBytes(sizePosition));
+    }
+
+    // decodes the whole product
+    public Product toProduct() {
+        return ProductCodec.toProduct(this);
+    }
+
+    private int reviewPosition() {
+        return start + buffer.getInt(start + ProductCodec.REVIEW_OFFSET);
+    }
+
+    private int optionPosition(int index) {
+        int optionsPosition = start + buffer.getInt(start + ProductCodec.OPTIONS_OFFSET);
+        int optionCount = buffer.getInt(optionsPosition);
+        if (index < 0 || index >= optionCount) {
+            throw new IndexOutOfBoundsException("Option " + index + " out of bounds for " + optionCount + " options");
+        }
+        return start + buffer.getInt(optionsPosition + Integer.BYTES + index * Integer.BYTES);
+    }
+
+    // bytes taken by the string at position, including its length
+    private int stringBytes(int position) {
+        int length = buffer.getInt(position);
+        return Integer.BYTES + Math.max(0, length);
+    }
+
+    private String string(int position) {
+        int length = buffer.getInt(position);
+        if (length < 0) {
+            return null;
+        }
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + position + Integer.BYTES, length, StandardCharsets.UTF_8);
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(position + Integer.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,181 @@
+package com.learnjava.codec;
+
+import com.learnjava.domain.Inventory;
+import com.learnjava.domain.Product;
+import com.learnjava.domain.ProductInfo;
+import com.learnjava.domain.ProductOption;
+import com.learnjava.domain.Review;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+// Binary codec of the Product aggregate (Product, ProductInfo, ProductOption, Inventory, Review),
+// e.g. to keep products in a cache as bytes or to write them to a file.
+// Encodes into and decodes from a ByteBuffer given by the caller (so the buffer can be reused),
+// at the position of the buffer, without intermediate objects (strings are written as UTF-8 char by char).
+//
+// Layout of version 1 (big endian, offsets relative to the start of the record):
+//      version (byte), record length (int), review offset (int), options offset (int)
+//      productId (string), productInfo.productId (string)
+//      review      : noOfReviews (int), overallRating (double)
+//      options     : count (int), offset of every option (int * count), then per option :
+//                    productionOptionId (int, NULL_INT if null), price (double),
+//                    inventory count (int, NULL_INT if no inventory), size (string), color (string)
+//      string      : length in bytes (int, -1 if null) + UTF-8 bytes
+// The offsets let EncodedProduct read single fields (e.g. the rating, or the price of option 3)
+// without decoding the rest. A new layout gets a new version, decode() rejects versions it doesn't know.
+public final class ProductCodec {
+
+    public static final byte VERSION = 1;
+
+    static final int NULL_INT = Integer.MIN_VALUE;
+    static final int LENGTH_OFFSET = 1;
+    static final int REVIEW_OFFSET = 5;
+    static final int OPTIONS_OFFSET = 9;
+    static final int HEADER_BYTES = 13;
+
+    private ProductCodec() {
+    }
+
+    // exact number of bytes encode() writes, to size (or check) the buffer
+    public static int encodedSize(Product product) {
+        ProductInfo productInfo = product.getProductInfo();
+        int size = HEADER_BYTES + stringSize(product.getProductId()) + stringSize(productInfo.getProductId())
+                + Integer.BYTES + Double.BYTES + Integer.BYTES;
+        for (ProductOption productOption : productInfo.getProductOptions()) {
+            size += Integer.BYTES + optionSize(productOption);
+        }
+        return size;
+    }
+
+    // Writes the product at the position of the buffer and moves the position after it.
+    // Throws BufferOverflowException if the remaining space is smaller than encodedSize(product),
+    // the position of the buffer is unchanged in that case.
+    public static int encode(Product product, ByteBuffer buffer) {
+        int size = encodedSize(product);
+        if (buffer.remaining() < size) {
+            throw new BufferOverflowException();
+        }
+        int start = buffer.position();
+        ProductInfo productInfo = product.getProductInfo();
+        List<ProductOption> productOptions = productInfo.getProductOptions();
+
+        buffer.put(VERSION);
+        buffer.putInt(size);
+        // review and options offsets, filled in below
+        buffer.putInt(0);
+        buffer.putInt(0);
+        putString(buffer, product.getProductId());
+        putString(buffer, productInfo.getProductId());
+
+        buffer.putInt(start + REVIEW_OFFSET, buffer.position() - start);
+        buffer.putInt(product.getReview().getNoOfReviews());
+        buffer.putDouble(product.getReview().getOverallRating());
+
+        buffer.putInt(start + OPTIONS_OFFSET, buffer.position() - start);
+        buffer.putInt(productOptions.size());
+        int optionOffsetTable = buffer.position();
+        int optionOffset = optionOffsetTable + productOptions.size() * Integer.BYTES - start;
+        for (ProductOption productOption : productOptions) {
+            buffer.putInt(optionOffset);
+            optionOffset += optionSize(productOption);
+        }
+        for (ProductOption productOption : productOptions) {
+            Integer productionOptionId = productOption.getProductionOptionId();
+            Inventory inventory = productOption.getInventory();
+            buffer.putInt(productionOptionId == null ? NULL_INT : productionOptionId);
+            buffer.putDouble(productOption.getPrice());
+            buffer.putInt(inventory == null ? NULL_INT : inventory.getCount());
+            putString(buffer, productOption.getSize());
+            putString(buffer, productOption.getColor());
+        }
+        return size;
+    }
+
+    // Reads the product at the position of the buffer and moves the position after it.
+    public static Product decode(ByteBuffer buffer) {
+        EncodedProduct encodedProduct = EncodedProduct.at(buffer, buffer.position());
+        Product product = encodedProduct.toProduct();
+        buffer.position(buffer.position() + encodedProduct.length());
+        return product;
+    }
+
+    // lazy view of the product at the position of the buffer, the buffer isn't moved
+    public static EncodedProduct view(ByteBuffer buffer) {
+        return EncodedProduct.at(buffer, buffer.position());
+    }
+
+    static Product toProduct(EncodedProduct encodedProduct) {
+        int optionCount = encodedProduct.optionCount();
+        List<ProductOption> productOptions = new ArrayList<>(optionCount);
+        for (int index = 0; index < optionCount; index++) {
+            int inventoryCount = encodedProduct.optionInventoryCount(index);
+            productOptions.add(new ProductOption(encodedProduct.optionId(index), encodedProduct.optionSize(index),
+                    encodedProduct.optionColor(index), encodedProduct.optionPrice(index),
+                    inventoryCount == NULL_INT ? null : new Inventory(inventoryCount)));
+        }
+        ProductInfo productInfo = new ProductInfo(encodedProduct.productInfoId(), productOptions);
+        Review review = new Review(encodedProduct.noOfReviews(), encodedProduct.overallRating());
+        return new Product(encodedProduct.productId(), productInfo, review);
+    }
+
+    private static int optionSize(ProductOption productOption) {
+        return Integer.BYTES + Double.BYTES + Integer.BYTES + stringSize(productOption.getSize()) + stringSize(productOption.getColor());
+    }
+
+    static int stringSize(String value) {
+        return Integer.BYTES + (value == null ? 0 : utf8Length(value));
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        buffer.putInt(utf8Length(value));
+        for (int index = 0; index < value.length(); index++) {
+            char c = value.charAt(index);
+            if (c < 0x80) {
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xC0 | (c >> 6)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && index + 1 < value.length() && Character.isLowSurrogate(value.charAt(index + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++index));
+                buffer.put((byte) (0xF0 | (codePoint >> 18)));
+                buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                // unpaired surrogate, written as '?' like String.getBytes(UTF_8)
+                buffer.put((byte) '?');
+            } else {
+                buffer.put((byte) (0xE0 | (c >> 12)));
+                buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+    }
+
+    private static int utf8Length(String value) {
+        int length = 0;
+        for (int index = 0; index < value.length(); index++) {
+            char c = value.charAt(index);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && index + 1 < value.length() && Character.isLowSurrogate(value.charAt(index + 1))) {
+                length += 4;
+                index++;
+            } else if (Character.isSurrogate(c)) {
+                length++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+}
@@ -0,0 +1,166 @@
+package com.learnjava.collections;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// Parallel streams of collections which can't be split cheaply (LinkedList, and HashSet whose
+// buckets are often unevenly filled) end up with a few large chunks and run at near sequential speed.
+// The LinkedList spliterator for example walks the list and peels off batches of 1024, 2048, ... elements.
+//
+// balanced() copies the elements once into segmented arrays (fixed size segments, so no copying
+// while growing and no single huge array), which then split in exact halves by index like an ArrayList.
+// The copy is sequential and O(n), so it pays off when the work per element is larger than the copy.
+//
+// usage:
+//      BalancedSpliterators.parallelStream(linkedList).map(...).collect(...)
+public class BalancedSpliterators {
+
+    static final int SEGMENT_SHIFT = 12;
+    static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+    static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    // characteristics of the source which are kept after buffering
+    private static final int KEPT_CHARACTERISTICS = Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL;
+
+    private BalancedSpliterators() {
+    }
+
+    public static <T> Spliterator<T> balanced(Collection<? extends T> source) {
+        if (source instanceof RandomAccess) {
+            // ArrayList, Arrays.asList() etc. already split in halves by index
+            @SuppressWarnings("unchecked")
+            Spliterator<T> spliterator = (Spliterator<T>) source.spliterator();
+            return spliterator;
+        }
+        return balanced(source.spliterator());
+    }
+
+    // buffering is done on the first use of the spliterator (late binding), not here
+    public static <T> Spliterator<T> balanced(Spliterator<? extends T> source) {
+        return new SegmentedArraySpliterator<>(source);
+    }
+
+    public static <T> Stream<T> parallelStream(Collection<? extends T> source) {
+        return StreamSupport.stream(balanced(source), true);
+    }
+
+    // appends the elements to fixed size segments, only the (small) array of segments is copied when growing
+    private static final class SegmentedBuffer implements Consumer<Object> {
+        private Object[][] segments;
+        private int count;
+
+        private SegmentedBuffer(long estimatedSize) {
+            int segmentCount = estimatedSize >= Integer.MAX_VALUE ? 16 : (int) ((estimatedSize + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+            segments = new Object[Math.max(1, segmentCount)][];
+        }
+
+        @Override
+        public void accept(Object element) {
+            int segment = count >>> SEGMENT_SHIFT;
+            if (segment == segments.length) {
+                segments = Arrays.copyOf(segments, segments.length * 2);
+            }
+            if (segments[segment] == null) {
+                segments[segment] = new Object[SEGMENT_SIZE];
+            }
+            segments[segment][count & SEGMENT_MASK] = element;
+            count++;
+        }
+    }
+
+    static final class SegmentedArraySpliterator<T> implements Spliterator<T> {
+        // null once the elements are buffered
+        private Spliterator<? extends T> source;
+        private final int sourceCharacteristics;
+        private Object[][] segments;
+        private int index;
+        private int fence;
+
+        private SegmentedArraySpliterator(Spliterator<? extends T> source) {
+            this.source = source;
+            this.sourceCharacteristics = source.characteristics();
+        }
+
+        private SegmentedArraySpliterator(Object[][] segments, int sourceCharacteristics, int origin, int fence) {
+            this.segments = segments;
+            this.sourceCharacteristics = sourceCharacteristics;
+            this.index = origin;
+            this.fence = fence;
+        }
+
+        private void buffer() {
+            if (source == null) {
+                return;
+            }
+            SegmentedBuffer buffer = new SegmentedBuffer(source.estimateSize());
+            source.forEachRemaining(buffer);
+            segments = buffer.segments;
+            index = 0;
+            fence = buffer.count;
+            source = null;
+        }
+
+        @SuppressWarnings("unchecked")
+        private T elementAt(int position) {
+            return (T) segments[position >>> SEGMENT_SHIFT][position & SEGMENT_MASK];
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            buffer();
+            int midPoint = (index + fence) >>> 1;
+            if (index >= midPoint) {
+                return null;
+            }
+            Spliterator<T> prefix = new SegmentedArraySpliterator<>(segments, sourceCharacteristics, index, midPoint);
+            index = midPoint;
+            return prefix;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            buffer();
+            if (index >= fence) {
+                return false;
+            }
+            action.accept(elementAt(index++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            buffer();
+            // segment by segment, so the inner loop is a plain array loop
+            while (index < fence) {
+                Object[] segment = segments[index >>> SEGMENT_SHIFT];
+                int segmentEnd = Math.min(fence, (index | SEGMENT_MASK) + 1);
+                for (int position = index & SEGMENT_MASK, end = position + segmentEnd - index; position < end; position++) {
+                    @SuppressWarnings("unchecked")
+                    T element = (T) segment[position];
+                    action.accept(element);
+                }
+                index = segmentEnd;
+            }
+        }
+
+        @Override
+        public long estimateSize() {
+            return source != null ? source.estimateSize() : fence - index;
+        }
+
+        @Override
+        public int characteristics() {
+            int characteristics = sourceCharacteristics & KEPT_CHARACTERISTICS;
+            // before buffering the exact size is only known if the source knows it
+            if (source == null || (sourceCharacteristics & Spliterator.SIZED) != 0) {
+                characteristics |= Spliterator.SIZED | Spliterator.SUBSIZED;
+            }
+            return characteristics;
+        }
+    }
+}
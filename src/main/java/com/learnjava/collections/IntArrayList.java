@@ -0,0 +1,216 @@
+package com.learnjava.collections;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Spliterator;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+// Growable list of ints backed by an int[], 4 bytes per element instead of an Integer object
+// (16 bytes) plus a reference per element in List<Integer>, and no boxing in the streams.
+// Not thread safe: fill it on one thread, then it can be read (streamed) from many threads.
+public class IntArrayList {
+
+    // below this size the parallel operations run sequentially, forking costs more than it saves
+    static final int PARALLEL_THRESHOLD = 1 << 13;
+
+    private int[] elements;
+    private int size;
+    // incremented on structural changes, so that a spliterator can detect them (fail fast)
+    private int modCount;
+
+    public IntArrayList() {
+        this(16);
+    }
+
+    public IntArrayList(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("initialCapacity must be >= 0 : " + initialCapacity);
+        }
+        this.elements = new int[initialCapacity];
+    }
+
+    private IntArrayList(int[] elements, int size) {
+        this.elements = elements;
+        this.size = size;
+    }
+
+    // uses the given array as it is (no copy), the caller must not modify it afterwards
+    public static IntArrayList wrap(int[] elements) {
+        return new IntArrayList(elements, elements.length);
+    }
+
+    public static IntArrayList of(int... elements) {
+        return wrap(elements.clone());
+    }
+
+    public void add(int element) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, Math.max(16, elements.length + (elements.length >> 1)));
+        }
+        modCount++;
+        elements[size++] = element;
+    }
+
+    public int get(int index) {
+        checkIndex(index);
+        return elements[index];
+    }
+
+    public void set(int index, int element) {
+        checkIndex(index);
+        elements[index] = element;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        modCount++;
+        size = 0;
+    }
+
+    public int[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+
+    public IntStream stream() {
+        return StreamSupport.intStream(spliterator(), false);
+    }
+
+    public IntStream parallelStream() {
+        return StreamSupport.intStream(spliterator(), true);
+    }
+
+    public Spliterator.OfInt spliterator() {
+        return new IntArraySpliterator(this, 0, -1, 0);
+    }
+
+    // sum as long, sum of ints overflows already for 1..100_000
+    public long sum() {
+        long sum = 0;
+        for (int index = 0; index < size; index++) {
+            sum += elements[index];
+        }
+        return sum;
+    }
+
+    public long parallelSum() {
+        if (size < PARALLEL_THRESHOLD) {
+            return sum();
+        }
+        return parallelStream().asLongStream().sum();
+    }
+
+    public int reduce(int identity, IntBinaryOperator operator) {
+        int result = identity;
+        for (int index = 0; index < size; index++) {
+            result = operator.applyAsInt(result, elements[index]);
+        }
+        return result;
+    }
+
+    // operator must be associative and identity must be an identity for it, as for IntStream.reduce()
+    public int parallelReduce(int identity, IntBinaryOperator operator) {
+        if (size < PARALLEL_THRESHOLD) {
+            return reduce(identity, operator);
+        }
+        return parallelStream().reduce(identity, operator);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "IntArrayList[size=" + size + "]";
+    }
+
+    // splits in halves of the remaining range, SIZED and SUBSIZED so that the parallel streams can
+    // write the results of e.g. toArray() directly by index.
+    // The end of the range is bound on first use (late binding), so elements added after creating
+    // the stream but before the terminal operation are included.
+    static final class IntArraySpliterator implements Spliterator.OfInt {
+        private final IntArrayList list;
+        private int index;
+        // -1 until first use
+        private int fence;
+        // bound together with fence
+        private int expectedModCount;
+
+        IntArraySpliterator(IntArrayList list, int origin, int fence, int expectedModCount) {
+            this.list = list;
+            this.index = origin;
+            this.fence = fence;
+            this.expectedModCount = expectedModCount;
+        }
+
+        private int getFence() {
+            if (fence < 0) {
+                expectedModCount = list.modCount;
+                fence = list.size;
+            }
+            return fence;
+        }
+
+        @Override
+        public OfInt trySplit() {
+            int high = getFence();
+            int midPoint = (index + high) >>> 1;
+            if (index >= midPoint) {
+                return null;
+            }
+            IntArraySpliterator prefix = new IntArraySpliterator(list, index, midPoint, expectedModCount);
+            index = midPoint;
+            return prefix;
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            int high = getFence();
+            if (index >= high) {
+                return false;
+            }
+            action.accept(list.elements[index++]);
+            checkForComodification();
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            int[] elements = list.elements;
+            int high = getFence();
+            for (int current = index; current < high; current++) {
+                action.accept(elements[current]);
+            }
+            index = high;
+            checkForComodification();
+        }
+
+        private void checkForComodification() {
+            if (list.modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+
+        @Override
+        public long estimateSize() {
+            return getFence() - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL;
+        }
+    }
+}
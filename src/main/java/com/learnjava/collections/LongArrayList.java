@@ -0,0 +1,216 @@
+package com.learnjava.collections;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Spliterator;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+// Growable list of longs backed by a long[], 8 bytes per element instead of a Long object
+// (16 bytes) plus a reference per element in List<Long>, and no boxing in the streams.
+// Not thread safe: fill it on one thread, then it can be read (streamed) from many threads.
+public class LongArrayList {
+
+    // below this size the parallel operations run sequentially, forking costs more than it saves
+    static final int PARALLEL_THRESHOLD = 1 << 13;
+
+    private long[] elements;
+    private int size;
+    // incremented on structural changes, so that a spliterator can detect them (fail fast)
+    private int modCount;
+
+    public LongArrayList() {
+        this(16);
+    }
+
+    public LongArrayList(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("initialCapacity must be >= 0 : " + initialCapacity);
+        }
+        this.elements = new long[initialCapacity];
+    }
+
+    private LongArrayList(long[] elements, int size) {
+        this.elements = elements;
+        this.size = size;
+    }
+
+    // uses the given array as it is (no copy), the caller must not modify it afterwards
+    public static LongArrayList wrap(long[] elements) {
+        return new LongArrayList(elements, elements.length);
+    }
+
+    public static LongArrayList of(long... elements) {
+        return wrap(elements.clone());
+    }
+
+    public void add(long element) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, Math.max(16, elements.length + (elements.length >> 1)));
+        }
+        modCount++;
+        elements[size++] = element;
+    }
+
+    public long get(int index) {
+        checkIndex(index);
+        return elements[index];
+    }
+
+    public void set(int index, long element) {
+        checkIndex(index);
+        elements[index] = element;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        modCount++;
+        size = 0;
+    }
+
+    public long[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+
+    public LongStream stream() {
+        return StreamSupport.longStream(spliterator(), false);
+    }
+
+    public LongStream parallelStream() {
+        return StreamSupport.longStream(spliterator(), true);
+    }
+
+    public Spliterator.OfLong spliterator() {
+        return new LongArraySpliterator(this, 0, -1, 0);
+    }
+
+    // overflows silently like LongStream.sum(), use Math.addExact in reduce() to detect it
+    public long sum() {
+        long sum = 0;
+        for (int index = 0; index < size; index++) {
+            sum += elements[index];
+        }
+        return sum;
+    }
+
+    public long parallelSum() {
+        if (size < PARALLEL_THRESHOLD) {
+            return sum();
+        }
+        return parallelStream().sum();
+    }
+
+    public long reduce(long identity, LongBinaryOperator operator) {
+        long result = identity;
+        for (int index = 0; index < size; index++) {
+            result = operator.applyAsLong(result, elements[index]);
+        }
+        return result;
+    }
+
+    // operator must be associative and identity must be an identity for it, as for LongStream.reduce()
+    public long parallelReduce(long identity, LongBinaryOperator operator) {
+        if (size < PARALLEL_THRESHOLD) {
+            return reduce(identity, operator);
+        }
+        return parallelStream().reduce(identity, operator);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "LongArrayList[size=" + size + "]";
+    }
+
+    // splits in halves of the remaining range, SIZED and SUBSIZED so that the parallel streams can
+    // write the results of e.g. toArray() directly by index.
+    // The end of the range is bound on first use (late binding), so elements added after creating
+    // the stream but before the terminal operation are included.
+    static final class LongArraySpliterator implements Spliterator.OfLong {
+        private final LongArrayList list;
+        private int index;
+        // -1 until first use
+        private int fence;
+        // bound together with fence
+        private int expectedModCount;
+
+        LongArraySpliterator(LongArrayList list, int origin, int fence, int expectedModCount) {
+            this.list = list;
+            this.index = origin;
+            this.fence = fence;
+            this.expectedModCount = expectedModCount;
+        }
+
+        private int getFence() {
+            if (fence < 0) {
+                expectedModCount = list.modCount;
+                fence = list.size;
+            }
+            return fence;
+        }
+
+        @Override
+        public OfLong trySplit() {
+            int high = getFence();
+            int midPoint = (index + high) >>> 1;
+            if (index >= midPoint) {
+                return null;
+            }
+            LongArraySpliterator prefix = new LongArraySpliterator(list, index, midPoint, expectedModCount);
+            index = midPoint;
+            return prefix;
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            int high = getFence();
+            if (index >= high) {
+                return false;
+            }
+            action.accept(list.elements[index++]);
+            checkForComodification();
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(LongConsumer action) {
+            long[] elements = list.elements;
+            int high = getFence();
+            for (int current = index; current < high; current++) {
+                action.accept(elements[current]);
+            }
+            index = high;
+            checkForComodification();
+        }
+
+        private void checkForComodification() {
+            if (list.modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+
+        @Override
+        public long estimateSize() {
+            return getFence() - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL;
+        }
+    }
+}
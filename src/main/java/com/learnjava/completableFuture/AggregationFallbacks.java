@@ -0,0 +1,45 @@
+package com.learnjava.completableFuture;
+
+import com.learnjava.domain.ProductInfo;
+import com.learnjava.domain.Review;
+import com.learnjava.service.CachingReviewService;
+
+import java.util.function.Function;
+
+// What ProductServiceWithDeadline uses instead of a response which didn't arrive within the deadline.
+// A fallback returning null means there is no fallback, and the request fails.
+public class AggregationFallbacks {
+
+    private final Function<String, ProductInfo> productInfoFallback;
+    private final Function<String, Review> reviewFallback;
+
+    public AggregationFallbacks(Function<String, ProductInfo> productInfoFallback, Function<String, Review> reviewFallback) {
+        this.productInfoFallback = productInfoFallback;
+        this.reviewFallback = reviewFallback;
+    }
+
+    // no productInfo -> no product, but a product without reviews is better than no product
+    public static AggregationFallbacks withoutReviews() {
+        return new AggregationFallbacks(productId -> null, productId -> emptyReview());
+    }
+
+    // last (possibly expired) review of the cache, or no reviews if it was never loaded
+    public static AggregationFallbacks withStaleReviews(CachingReviewService cachingReviewService) {
+        return new AggregationFallbacks(productId -> null, productId -> {
+            Review staleReview = cachingReviewService.retrieveStaleReviews(productId);
+            return staleReview != null ? staleReview : emptyReview();
+        });
+    }
+
+    public ProductInfo productInfoFallback(String productId) {
+        return productInfoFallback.apply(productId);
+    }
+
+    public Review reviewFallback(String productId) {
+        return reviewFallback.apply(productId);
+    }
+
+    private static Review emptyReview() {
+        return new Review(0, 0.0);
+    }
+}
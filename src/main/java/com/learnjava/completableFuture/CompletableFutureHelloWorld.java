@@ -64,26 +64,28 @@ public class CompletableFutureHelloWorld {
     // using custom thread pool for CompletableFuture instead of common thread pool.
     // CommonForkJoinPool is shared by parallelStreams & CompletableFuture
     // Verify through logs that the code is executed with custom thread pool
+    // The pool is closed (shut down) at the end of try block, otherwise every call would leak its threads.
     public String threeAsyncCallsParallel_WithCustomThreadPool() {
         startTimer();
-        ExecutorService executorService = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
-        final CompletableFuture<String> helloFuture = CompletableFuture.supplyAsync(hws::hello, executorService);
-        final CompletableFuture<String> worldFuture = CompletableFuture.supplyAsync(hws::world, executorService);
-        final CompletableFuture<String> thirdFuture = CompletableFuture.supplyAsync(() -> {
-            delay(1000);
-            log("inside thirdMethod");
-            return " Hi from Prayag!";
-        }, executorService);
-
-        // example of usage of .thenCombine()
-        // which we will use to combine two futures.
-        final String resultHelloWorldString = helloFuture
-                .thenCombine(worldFuture, (helloFutureResult, worldFutureResult) -> helloFutureResult + worldFutureResult)
-                .thenCombine(thirdFuture, (previousResult, currentResult) -> previousResult + currentResult)
-                .thenApply(String::toUpperCase)
-                .join();
-        timeTaken();
-        return resultHelloWorldString;
+        try (ExecutorService executorService = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors())) {
+            final CompletableFuture<String> helloFuture = CompletableFuture.supplyAsync(hws::hello, executorService);
+            final CompletableFuture<String> worldFuture = CompletableFuture.supplyAsync(hws::world, executorService);
+            final CompletableFuture<String> thirdFuture = CompletableFuture.supplyAsync(() -> {
+                delay(1000);
+                log("inside thirdMethod");
+                return " Hi from Prayag!";
+            }, executorService);
+
+            // example of usage of .thenCombine()
+            // which we will use to combine two futures.
+            final String resultHelloWorldString = helloFuture
+                    .thenCombine(worldFuture, (helloFutureResult, worldFutureResult) -> helloFutureResult + worldFutureResult)
+                    .thenCombine(thirdFuture, (previousResult, currentResult) -> previousResult + currentResult)
+                    .thenApply(String::toUpperCase)
+                    .join();
+            timeTaken();
+            return resultHelloWorldString;
+        }
     }
 
     // added more logs to demonstrate that all .thenCombine(), .thenApply(), calls are getting executed in
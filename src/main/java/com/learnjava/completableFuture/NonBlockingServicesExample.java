@@ -0,0 +1,44 @@
+package com.learnjava.completableFuture;
+
+import com.learnjava.domain.Product;
+import com.learnjava.service.InventoryService;
+import com.learnjava.service.ProductInfoService;
+import com.learnjava.service.ReviewService;
+import com.learnjava.simulation.LatencySimulator;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.learnjava.util.CommonUtil.startTimer;
+import static com.learnjava.util.CommonUtil.timeTaken;
+import static com.learnjava.util.LoggerUtil.log;
+
+// Tens of thousands of product requests in flight with the non-blocking services : every request is
+// 1 product info call (1 s), 1 review call (1 s) and 6 inventory calls (500 ms), all waiting in the
+// queue of the latency timer instead of on a thread, so all the requests complete in about 1.5 s
+// with a handful of threads. With the blocking calls each of them would hold a thread.
+// usage : NonBlockingServicesExample [requests]
+public class NonBlockingServicesExample {
+
+    public static void main(String[] args) {
+        int requestCount = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        ProductServiceWithInventoryUsingCompletableFuture productService = new ProductServiceWithInventoryUsingCompletableFuture(
+                new ProductInfoService(), new ReviewService(), new InventoryService());
+
+        startTimer();
+        List<CompletableFuture<Product>> productFutures = IntStream.range(0, requestCount)
+                .mapToObj(request -> productService.retrieveProductDetailsNonBlocking("PRODUCT-" + request))
+                .collect(Collectors.toList());
+        log("Requests sent : " + requestCount + ", calls waiting in the latency timer : " + LatencySimulator.pendingAsyncCalls()
+                + ", live threads : " + ManagementFactory.getThreadMXBean().getThreadCount());
+
+        CompletableFuture.allOf(productFutures.toArray(new CompletableFuture<?>[0])).join();
+        timeTaken();
+        log("Products retrieved : " + productFutures.size() + ", peak live threads : "
+                + ManagementFactory.getThreadMXBean().getPeakThreadCount());
+        log("Product is " + productFutures.get(0).join());
+    }
+}
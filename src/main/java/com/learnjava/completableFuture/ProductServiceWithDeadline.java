@@ -0,0 +1,128 @@
+package com.learnjava.completableFuture;
+
+import com.learnjava.domain.*;
+import com.learnjava.service.CachingReviewService;
+import com.learnjava.service.InventoryService;
+import com.learnjava.service.ProductInfoService;
+import com.learnjava.service.ReviewService;
+import com.learnjava.util.Deadline;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static com.learnjava.util.LoggerUtil.log;
+
+// Product aggregation where every stage waits only for the time left until the deadline of the request.
+// A stage which doesn't answer in time is replaced by its fallback (see AggregationFallbacks), and the part
+// is flagged as degraded in the ProductResult:
+//      productInfo -> fallback productInfo, request fails if there is none
+//      inventory   -> options without inventory (options whose inventory arrived in time keep it)
+//      reviews     -> fallback review (e.g. stale cached review, or no reviews), request fails if there is none
+// So the latency of the request is bounded by the deadline instead of by the slowest service.
+// The calls use the non-blocking *Async methods of the services : orTimeout() completes the future of the
+// call itself, which removes the call from the latency timer, so no thread stays parked past the deadline.
+public class ProductServiceWithDeadline {
+    private ProductInfoService productInfoService;
+    private ReviewService reviewService;
+    private InventoryService inventoryService;
+    private AggregationFallbacks fallbacks;
+
+    public ProductServiceWithDeadline(ProductInfoService productInfoService, ReviewService reviewService, InventoryService inventoryService, AggregationFallbacks fallbacks) {
+        this.productInfoService = productInfoService;
+        this.reviewService = reviewService;
+        this.inventoryService = inventoryService;
+        this.fallbacks = fallbacks;
+    }
+
+    public ProductResult retrieveProductDetails(String productId, Duration budget) {
+        return retrieveProductDetailsAsync(productId, Deadline.after(budget)).join();
+    }
+
+    public CompletableFuture<ProductResult> retrieveProductDetailsAsync(String productId, Deadline deadline) {
+        final Set<ProductPart> degradedParts = ConcurrentHashMap.newKeySet();
+
+        CompletableFuture<ProductInfo> productInfoCompletableFuture = productInfoService.retrieveProductInfoAsync(productId)
+                .orTimeout(deadline.remainingNanos(), TimeUnit.NANOSECONDS)
+                .exceptionally(throwable -> {
+                    ProductInfo fallbackProductInfo = fallbacks.productInfoFallback(productId);
+                    if (fallbackProductInfo == null) {
+                        throw completionException(throwable);
+                    }
+                    log("productInfo not available in time, using fallback : " + throwable);
+                    degradedParts.add(ProductPart.PRODUCT_INFO);
+                    return fallbackProductInfo;
+                })
+                .thenCompose(productInfo -> inventoryUpdatedProductInfo(productInfo, deadline, degradedParts));
+
+        CompletableFuture<Review> reviewCompletableFuture = reviewService.retrieveReviewsAsync(productId)
+                .orTimeout(deadline.remainingNanos(), TimeUnit.NANOSECONDS)
+                .exceptionally(throwable -> {
+                    Review fallbackReview = fallbacks.reviewFallback(productId);
+                    if (fallbackReview == null) {
+                        throw completionException(throwable);
+                    }
+                    log("reviews not available in time, using fallback : " + throwable);
+                    degradedParts.add(ProductPart.REVIEW);
+                    return fallbackReview;
+                });
+
+        return productInfoCompletableFuture.thenCombine(
+                reviewCompletableFuture,
+                (productInfo, review) -> new ProductResult(new Product(productId, productInfo, review), copyOf(degradedParts)));
+    }
+
+    // started once productInfo is available, so it only gets the time left after productInfo
+    private CompletableFuture<ProductInfo> inventoryUpdatedProductInfo(ProductInfo productInfo, Deadline deadline, Set<ProductPart> degradedParts) {
+        final long remainingNanos = deadline.remainingNanos();
+        List<CompletableFuture<Void>> inventoryFutureList = productInfo.getProductOptions().stream()
+                .map(productOption -> inventoryService.addInventoryAsync(productOption)
+                        .orTimeout(remainingNanos, TimeUnit.NANOSECONDS)
+                        .handle((inventory, throwable) -> {
+                            if (throwable != null) {
+                                degradedParts.add(ProductPart.INVENTORY);
+                            } else {
+                                productOption.setInventory(inventory);
+                            }
+                            return (Void) null;
+                        }))
+                .collect(Collectors.toList());
+
+        return CompletableFuture.allOf(inventoryFutureList.toArray(new CompletableFuture<?>[0]))
+                .thenApply(v -> productInfo);
+    }
+
+    // no fallback : the request fails with the original cause (e.g. TimeoutException)
+    private static CompletionException completionException(Throwable throwable) {
+        return throwable instanceof CompletionException ? (CompletionException) throwable : new CompletionException(throwable);
+    }
+
+    private static Set<ProductPart> copyOf(Set<ProductPart> degradedParts) {
+        return degradedParts.isEmpty() ? EnumSet.noneOf(ProductPart.class) : EnumSet.copyOf(degradedParts);
+    }
+
+    public static void main(String[] args) {
+
+        ProductInfoService productInfoService = new ProductInfoService();
+        CachingReviewService reviewService = new CachingReviewService(new ReviewService(), 1000, Duration.ofMillis(100));
+        InventoryService inventoryService = new InventoryService();
+        ProductServiceWithDeadline productService = new ProductServiceWithDeadline(productInfoService, reviewService, inventoryService,
+                AggregationFallbacks.withStaleReviews(reviewService));
+        String productId = "ABC123";
+
+        // enough time for everything (productInfo 1000ms + inventory 500ms)
+        ProductResult productResult = productService.retrieveProductDetails(productId, Duration.ofMillis(2000));
+        log("Product is " + productResult);
+
+        // after productInfo (1000ms) only 200ms are left, not enough for inventory (500ms)
+        // -> product with options without inventory, flagged as INVENTORY degraded
+        productResult = productService.retrieveProductDetails(productId, Duration.ofMillis(1200));
+        log("Degraded parts are " + productResult.getDegradedParts());
+    }
+}
@@ -1,52 +1,147 @@
 package com.learnjava.completableFuture;
 
 import com.learnjava.domain.*;
+import com.learnjava.executorService.ExecutorRegistry;
+import com.learnjava.executorService.ExecutorRegistry.Downstream;
+import com.learnjava.metrics.LatencyMetrics;
+import com.learnjava.service.BatchingInventoryService;
 import com.learnjava.service.InventoryService;
 import com.learnjava.service.ProductInfoService;
 import com.learnjava.service.ReviewService;
 
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
-import static com.learnjava.util.CommonUtil.*;
+import static com.learnjava.metrics.LatencyMetrics.*;
 import static com.learnjava.util.LoggerUtil.log;
 
 public class ProductServiceWithInventoryUsingCompletableFuture {
+    private static final String REQUEST_METRIC = stageName(ProductServiceWithInventoryUsingCompletableFuture.class, REQUEST);
+    private static final String PRODUCT_INFO_METRIC = stageName(ProductServiceWithInventoryUsingCompletableFuture.class, PRODUCT_INFO);
+    private static final String REVIEWS_METRIC = stageName(ProductServiceWithInventoryUsingCompletableFuture.class, REVIEWS);
+    private static final String INVENTORY_METRIC = stageName(ProductServiceWithInventoryUsingCompletableFuture.class, INVENTORY);
+    private static final String COMBINE_METRIC = stageName(ProductServiceWithInventoryUsingCompletableFuture.class, COMBINE);
     private ProductInfoService productInfoService;
     private ReviewService reviewService;
     private InventoryService inventoryService;
+    // executors used by supplyAsync(), by default the bulkheads of the default ExecutorRegistry
+    // (instead of ForkJoinPool.commonPool() which is shared with the parallel streams)
+    private Executor productInfoExecutor;
+    private Executor reviewExecutor;
+    private Executor inventoryExecutor;
+    private final LatencyMetrics metrics = LatencyMetrics.defaultMetrics();
 
     public ProductServiceWithInventoryUsingCompletableFuture(ProductInfoService productInfoService, ReviewService reviewService, InventoryService inventoryService) {
+        this(productInfoService, reviewService, inventoryService, ExecutorRegistry.defaultRegistry());
+    }
+
+    public ProductServiceWithInventoryUsingCompletableFuture(ProductInfoService productInfoService, ReviewService reviewService, InventoryService inventoryService, ExecutorRegistry executorRegistry) {
+        this.productInfoService = productInfoService;
+        this.reviewService = reviewService;
+        this.inventoryService = inventoryService;
+        this.productInfoExecutor = executorRegistry.executorFor(Downstream.PRODUCT_INFO);
+        this.reviewExecutor = executorRegistry.executorFor(Downstream.REVIEWS);
+        this.inventoryExecutor = executorRegistry.executorFor(Downstream.INVENTORY);
+    }
+
+    // all the calls on a single executor
+    public ProductServiceWithInventoryUsingCompletableFuture(ProductInfoService productInfoService, ReviewService reviewService, InventoryService inventoryService, Executor executor) {
         this.productInfoService = productInfoService;
         this.reviewService = reviewService;
         this.inventoryService = inventoryService;
+        this.productInfoExecutor = executor;
+        this.reviewExecutor = executor;
+        this.inventoryExecutor = executor;
     }
 
     public Product retrieveProductDetailsCompletableFuture(String productId) {
-        startTimer();
+        LatencyMetrics.Timer requestTimer = metrics.start(REQUEST_METRIC);
 
-        CompletableFuture<ProductInfo> productInfoCompletableFuture = CompletableFuture.supplyAsync(() -> productInfoService.retrieveProductInfo(productId))
+        CompletableFuture<ProductInfo> productInfoCompletableFuture = CompletableFuture.supplyAsync(() -> metrics.time(PRODUCT_INFO_METRIC, () -> productInfoService.retrieveProductInfo(productId)), productInfoExecutor)
                 .thenApply(productInfo -> {
-                    productInfo.setProductOptions(inventoryUpdatedProductOptionsWithCompletableFuture(productInfo));
+                    productInfo.setProductOptions(metrics.time(INVENTORY_METRIC, () -> inventoryUpdatedProductOptionsWithCompletableFuture(productInfo)));
                     return productInfo;
                 });
 
-        CompletableFuture<Review> reviewCompletableFuture = CompletableFuture.supplyAsync(() -> reviewService.retrieveReviews(productId));
+        CompletableFuture<Review> reviewCompletableFuture = CompletableFuture.supplyAsync(() -> metrics.time(REVIEWS_METRIC, () -> reviewService.retrieveReviews(productId)), reviewExecutor);
 
         CompletableFuture<Product> productCompletableFuture = productInfoCompletableFuture.thenCombine(
                 reviewCompletableFuture,
-                (productInfoResponse, reviewResponse) -> new Product(productId, productInfoResponse, reviewResponse));
+                (productInfoResponse, reviewResponse) -> metrics.time(COMBINE_METRIC, () -> new Product(productId, productInfoResponse, reviewResponse)));
+
+        try {
+            return productCompletableFuture.join();
+        } finally {
+            // also recorded when join() throws
+            log("Total Time Taken : " + requestTimer.stop());
+        }
+    }
+
+    // non-blocking version, no thread waits on join() for the inventory calls, so with a
+    // BatchingInventoryService all the options of the product (and of concurrent requests)
+    // go to the inventory service in a single bulk call.
+    public CompletableFuture<Product> retrieveProductDetailsAsync(String productId) {
+        LatencyMetrics.Timer requestTimer = metrics.start(REQUEST_METRIC);
+
+        CompletableFuture<ProductInfo> productInfoCompletableFuture = CompletableFuture.supplyAsync(() -> metrics.time(PRODUCT_INFO_METRIC, () -> productInfoService.retrieveProductInfo(productId)), productInfoExecutor)
+                .thenCompose(productInfo -> {
+                    // the timer is stopped by whichever thread completes the inventory future
+                    LatencyMetrics.Timer inventoryTimer = metrics.start(INVENTORY_METRIC);
+                    return inventoryUpdatedProductOptionsAsync(productInfo)
+                            .thenApply(productOptions -> {
+                                inventoryTimer.stop();
+                                productInfo.setProductOptions(productOptions);
+                                return productInfo;
+                            });
+                });
+
+        CompletableFuture<Review> reviewCompletableFuture = CompletableFuture.supplyAsync(() -> metrics.time(REVIEWS_METRIC, () -> reviewService.retrieveReviews(productId)), reviewExecutor);
 
-        final Product product = productCompletableFuture.join();
-        timeTaken();
-        return product;
+        return productInfoCompletableFuture.thenCombine(
+                        reviewCompletableFuture,
+                        (productInfoResponse, reviewResponse) -> metrics.time(COMBINE_METRIC, () -> new Product(productId, productInfoResponse, reviewResponse)))
+                .whenComplete((product, throwable) -> requestTimer.stop());
     }
 
+    // Fully non-blocking version, uses the async api of the services (retrieveProductInfoAsync(), ...) which
+    // complete their futures from a timer : no thread of the executors waits for any of the calls, so
+    // the number of requests in flight is not limited by the size of the bulkheads.
+    // The combining stages run on the thread completing the last future (the timer), they only build objects.
+    public CompletableFuture<Product> retrieveProductDetailsNonBlocking(String productId) {
+        LatencyMetrics.Timer requestTimer = metrics.start(REQUEST_METRIC);
+
+        CompletableFuture<ProductInfo> productInfoCall = productInfoService.retrieveProductInfoAsync(productId);
+        CompletableFuture<Review> reviewCall = reviewService.retrieveReviewsAsync(productId);
+        CompletableFuture<ProductInfo> productInfoCompletableFuture = productInfoCall
+                .thenCompose(productInfo -> inventoryUpdatedProductOptionsNonBlocking(productInfo)
+                        .thenApply(productOptions -> {
+                            productInfo.setProductOptions(productOptions);
+                            return productInfo;
+                        }));
+
+        CompletableFuture<Product> productFuture = productInfoCompletableFuture.thenCombine(
+                        reviewCall,
+                        (productInfoResponse, reviewResponse) -> new Product(productId, productInfoResponse, reviewResponse))
+                .whenComplete((product, throwable) -> requestTimer.stop());
+        // a cancelled request cancels the calls still in flight, which leave the latency timer
+        // (once productInfo is cancelled the inventory calls are not started)
+        productFuture.whenComplete((product, throwable) -> {
+            if (productFuture.isCancelled()) {
+                productInfoCall.cancel(false);
+                reviewCall.cancel(false);
+            }
+        });
+        return productFuture;
+    }
+
+    // inventory strategies below are package-private so that the benchmarks (src/jmh) can compare them.
+
     // below method is not efficient because it is calling inventoryService (latency 500ms) for each
     // productOption synchronously.
     // Latency: 4000 ms (approx)
-    private List<ProductOption> inventoryUpdatedProductOptions(final ProductInfo productInfo) {
+    List<ProductOption> inventoryUpdatedProductOptions(final ProductInfo productInfo) {
         return productInfo.getProductOptions().stream()
                 .map(productOption -> {
                     Inventory inventory = inventoryService.addInventory(productOption);
@@ -57,11 +152,11 @@ public class ProductServiceWithInventoryUsingCompletableFuture {
 
     // async calls to inventoryService using CompletableFuture in stream.
     // Latency: 1500 ms (approx)
-    private List<ProductOption> inventoryUpdatedProductOptionsWithCompletableFuture(final ProductInfo productInfo) {
+    List<ProductOption> inventoryUpdatedProductOptionsWithCompletableFuture(final ProductInfo productInfo) {
         List<CompletableFuture<ProductOption>> productOptionFutureList =  productInfo.getProductOptions().stream()
                 .map(productOption -> {
                     CompletableFuture<ProductOption> productOptionFuture = CompletableFuture
-                            .supplyAsync(() -> inventoryService.addInventory(productOption))
+                            .supplyAsync(() -> inventoryService.addInventory(productOption), inventoryExecutor)
                             .thenApply((inventory -> {
                                 productOption.setInventory(inventory);
                                 return productOption;
@@ -82,11 +177,13 @@ public class ProductServiceWithInventoryUsingCompletableFuture {
     //          3. API call
     // and all dataSources returns the same result for given request, then we can use anyOf() to make
     // our code fast whichever service returns the response first we will use the response and done.
-    private List<ProductOption> inventoryUpdatedProductOptionsWithCompletableFuture_AllOf(final ProductInfo productInfo) {
+    // com.learnjava.hedging.HedgedRequest does this without calling every dataSource for every request
+    // (backup dataSources are called only when the primary is slow or fails).
+    List<ProductOption> inventoryUpdatedProductOptionsWithCompletableFuture_AllOf(final ProductInfo productInfo) {
         List<CompletableFuture<ProductOption>> productOptionFutureList =  productInfo.getProductOptions().stream()
                 .map(productOption -> {
                     CompletableFuture<ProductOption> productOptionFuture = CompletableFuture
-                            .supplyAsync(() -> inventoryService.addInventory(productOption))
+                            .supplyAsync(() -> inventoryService.addInventory(productOption), inventoryExecutor)
                             .thenApply((inventory -> {
                                 productOption.setInventory(inventory);
                                 return productOption;
@@ -101,9 +198,41 @@ public class ProductServiceWithInventoryUsingCompletableFuture {
                 .join();
     }
 
+    // uses the async api of inventoryService (addInventory_CF), so no thread is blocked while waiting
+    // for the inventory. With BatchingInventoryService all the calls are sent as a single bulk call.
+    // Latency: 500 ms (approx) + batch window
+    CompletableFuture<List<ProductOption>> inventoryUpdatedProductOptionsAsync(final ProductInfo productInfo) {
+        List<CompletableFuture<ProductOption>> productOptionFutureList = productInfo.getProductOptions().stream()
+                .map(productOption -> inventoryService.addInventory_CF(productOption)
+                        .thenApply(inventory -> {
+                            productOption.setInventory(inventory);
+                            return productOption;
+                        }))
+                .collect(Collectors.toList());
+
+        return CompletableFuture.allOf(productOptionFutureList.toArray(new CompletableFuture<?>[0]))
+                .thenApply((v) -> productOptionFutureList.stream().map(CompletableFuture::join).collect(Collectors.toList()));
+    }
+
+    // same as inventoryUpdatedProductOptionsAsync() but with addInventoryAsync(), completed from the timer of
+    // the inventory service instead of a thread of the inventory bulkhead blocked for each option.
+    // Latency: 500 ms (approx), whatever the number of options and of concurrent requests
+    CompletableFuture<List<ProductOption>> inventoryUpdatedProductOptionsNonBlocking(final ProductInfo productInfo) {
+        List<CompletableFuture<ProductOption>> productOptionFutureList = productInfo.getProductOptions().stream()
+                .map(productOption -> inventoryService.addInventoryAsync(productOption)
+                        .thenApply(inventory -> {
+                            productOption.setInventory(inventory);
+                            return productOption;
+                        }))
+                .collect(Collectors.toList());
+
+        return CompletableFuture.allOf(productOptionFutureList.toArray(new CompletableFuture<?>[0]))
+                .thenApply((v) -> productOptionFutureList.stream().map(CompletableFuture::join).collect(Collectors.toList()));
+    }
+
     // async call using parallelStreams
     // Latency: 1500 ms (approx)
-    private List<ProductOption> inventoryUpdatedProductOptionsWithParallelStream(final ProductInfo productInfo) {
+    List<ProductOption> inventoryUpdatedProductOptionsWithParallelStream(final ProductInfo productInfo) {
         return productInfo.getProductOptions().parallelStream()
                 .map(productOption -> {
                     Inventory inventory = inventoryService.addInventory(productOption);
@@ -122,5 +251,13 @@ public class ProductServiceWithInventoryUsingCompletableFuture {
         Product product = productService.retrieveProductDetailsCompletableFuture(productId);
         log("Product is " + product);
 
+        // inventory of all the options in a single bulk call
+        try (BatchingInventoryService batchingInventoryService = new BatchingInventoryService(inventoryService, 100, 10)) {
+            ProductServiceWithInventoryUsingCompletableFuture batchingProductService = new ProductServiceWithInventoryUsingCompletableFuture(productInfoService, reviewService, batchingInventoryService);
+            product = batchingProductService.retrieveProductDetailsAsync(productId).join();
+            log("Product is " + product + ", inventory bulk calls : " + batchingInventoryService.getBulkCallCount());
+        }
+        LatencyMetrics.defaultMetrics().logSnapshot();
+
     }
 }
@@ -0,0 +1,373 @@
+package com.learnjava.completableFuture;
+
+import com.learnjava.domain.Product;
+import com.learnjava.service.InventoryService;
+import com.learnjava.service.ProductInfoService;
+import com.learnjava.service.ReviewService;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static com.learnjava.util.CommonUtil.startTimer;
+import static com.learnjava.util.CommonUtil.timeTaken;
+import static com.learnjava.util.LoggerUtil.log;
+
+// Retrieves the products of a stream of product ids, emitting them as a Flow.Publisher<Product>.
+// Every product id goes through ProductServiceWithInventoryUsingCompletableFuture.retrieveProductDetailsNonBlocking(),
+// so no thread waits per product (nor a bulkhead thread per call, which would cap the throughput at the
+// size of the bulkheads), and at most maxInFlight products are retrieved at the same time.
+//
+// Backpressure: product ids are requested from upstream only while fewer than maxInFlight products are
+// in flight or waiting to be emitted, and products are emitted only as far as the subscriber requested.
+// A slow subscriber therefore slows down the reading of the ids instead of piling up products in memory.
+//
+// ordered   : products are emitted in the order of the ids (a slow product holds back the ones after it)
+// unordered : products are emitted as soon as they are available
+//
+// The first failed product fails the stream (onError) and cancels the upstream, for partial results use
+// a retrieve function with fallbacks (e.g. ProductServiceWithDeadline).
+// When the stream ends early (cancel() or failure) the retrievals still in flight are cancelled.
+public class StreamingProductService {
+
+    private final Function<String, CompletableFuture<Product>> retrieveProduct;
+    private final int maxInFlight;
+    private final boolean ordered;
+
+    public StreamingProductService(ProductServiceWithInventoryUsingCompletableFuture productService, int maxInFlight, boolean ordered) {
+        this(productService::retrieveProductDetailsNonBlocking, maxInFlight, ordered);
+    }
+
+    public StreamingProductService(Function<String, CompletableFuture<Product>> retrieveProduct, int maxInFlight, boolean ordered) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be >= 1 : " + maxInFlight);
+        }
+        this.retrieveProduct = retrieveProduct;
+        this.maxInFlight = maxInFlight;
+        this.ordered = ordered;
+    }
+
+    // the ids are read from upstream once per subscriber
+    public Flow.Publisher<Product> retrieveProductDetails(Flow.Publisher<String> productIds) {
+        return subscriber -> {
+            Objects.requireNonNull(subscriber, "subscriber");
+            productIds.subscribe(new ProductSubscription(subscriber));
+        };
+    }
+
+    // the stream can only be consumed once, so the returned publisher accepts a single subscriber
+    public Flow.Publisher<Product> retrieveProductDetails(Stream<String> productIds) {
+        return retrieveProductDetails(new IteratorPublisher<>(productIds.iterator()));
+    }
+
+    // Subscriber of the ids and subscription of the products at the same time.
+    // All the state changes and the calls to the downstream subscriber happen in drain(), which runs on
+    // one thread at a time (whichever thread calls drain() first runs the loop for the others too).
+    private final class ProductSubscription implements Flow.Subscriber<String>, Flow.Subscription {
+        private final Flow.Subscriber<? super Product> downstream;
+
+        // written by the other threads, read by drain()
+        private final Queue<String> receivedIds = new ConcurrentLinkedQueue<>();
+        private final Queue<CompletableFuture<Product>> completedProducts = new ConcurrentLinkedQueue<>();
+        // started and not completed yet, removed by their completion
+        private final Set<CompletableFuture<Product>> retrievalsInFlight = ConcurrentHashMap.newKeySet();
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile Flow.Subscription upstream;
+        private volatile boolean upstreamDone;
+        private volatile Throwable upstreamError;
+        private volatile boolean cancelled;
+
+        // only used by drain()
+        private final Queue<CompletableFuture<Product>> productsInIdOrder = new ArrayDeque<>();
+        // ids received but whose product is not emitted yet, kept <= maxInFlight
+        private int active;
+        private long emitted;
+        private boolean terminated;
+
+        private ProductSubscription(Flow.Subscriber<? super Product> downstream) {
+            this.downstream = downstream;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            upstream = subscription;
+            downstream.onSubscribe(this);
+            subscription.request(maxInFlight);
+        }
+
+        @Override
+        public void onNext(String productId) {
+            receivedIds.add(productId);
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            upstreamError = throwable;
+            upstreamDone = true;
+            drain();
+        }
+
+        @Override
+        public void onComplete() {
+            upstreamDone = true;
+            drain();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                // rule 3.9 of reactive streams
+                upstreamError = new IllegalArgumentException("request must be > 0 : " + n);
+                upstreamDone = true;
+                cancelled = true;
+                upstream.cancel();
+            } else {
+                requested.accumulateAndGet(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            upstream.cancel();
+            drain();
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                if (terminated) {
+                    return;
+                }
+                if (cancelled && upstreamError == null) {
+                    receivedIds.clear();
+                    productsInIdOrder.clear();
+                    completedProducts.clear();
+                    terminated = true;
+                    cancelRetrievals();
+                    return;
+                }
+                startRetrievals();
+                long replenish = emitProducts();
+                if (terminated) {
+                    return;
+                }
+                if ((upstreamDone && receivedIds.isEmpty() && active == 0) || upstreamError != null) {
+                    terminated = true;
+                    if (upstreamError != null) {
+                        cancelRetrievals();
+                        downstream.onError(upstreamError);
+                    } else {
+                        downstream.onComplete();
+                    }
+                    return;
+                }
+                if (replenish > 0 && !upstreamDone) {
+                    upstream.request(replenish);
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void startRetrievals() {
+            String productId;
+            while ((productId = receivedIds.poll()) != null) {
+                active++;
+                CompletableFuture<Product> productFuture;
+                try {
+                    productFuture = retrieveProduct.apply(productId);
+                } catch (RuntimeException e) {
+                    productFuture = CompletableFuture.failedFuture(e);
+                }
+                final CompletableFuture<Product> retrieval = productFuture;
+                retrievalsInFlight.add(retrieval);
+                if (ordered) {
+                    productsInIdOrder.add(retrieval);
+                    retrieval.whenComplete((product, throwable) -> {
+                        retrievalsInFlight.remove(retrieval);
+                        drain();
+                    });
+                } else {
+                    retrieval.whenComplete((product, throwable) -> {
+                        retrievalsInFlight.remove(retrieval);
+                        completedProducts.add(retrieval);
+                        drain();
+                    });
+                }
+            }
+        }
+
+        // returns the number of ids to request from upstream, one per emitted product
+        private long emitProducts() {
+            long emittedNow = 0;
+            Queue<CompletableFuture<Product>> products = ordered ? productsInIdOrder : completedProducts;
+            CompletableFuture<Product> productFuture;
+            while ((productFuture = products.peek()) != null && productFuture.isDone()) {
+                // a failure is signalled without waiting for demand
+                if (productFuture.isCompletedExceptionally()) {
+                    terminated = true;
+                    upstream.cancel();
+                    cancelRetrievals();
+                    downstream.onError(productFuture.exceptionNow());
+                    return 0;
+                }
+                if (emitted >= requested.get()) {
+                    break;
+                }
+                products.poll();
+                active--;
+                emitted++;
+                emittedNow++;
+                downstream.onNext(productFuture.resultNow());
+            }
+            return emittedNow;
+        }
+
+        // nobody will read their products, the retrieve function decides how far the cancel goes
+        // (e.g. retrieveProductDetailsNonBlocking() cancels its calls to the services)
+        private void cancelRetrievals() {
+            for (CompletableFuture<Product> retrieval : retrievalsInFlight) {
+                retrieval.cancel(true);
+            }
+        }
+    }
+
+    // publishes the elements of an iterator (e.g. of a Stream) on request, on the thread calling request()
+    static final class IteratorPublisher<T> implements Flow.Publisher<T> {
+        private final Iterator<T> iterator;
+        private final AtomicInteger subscriberCount = new AtomicInteger();
+
+        IteratorPublisher(Iterator<T> iterator) {
+            this.iterator = iterator;
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super T> subscriber) {
+            if (subscriberCount.incrementAndGet() > 1) {
+                subscriber.onSubscribe(new Flow.Subscription() {
+                    @Override
+                    public void request(long n) {
+                    }
+
+                    @Override
+                    public void cancel() {
+                    }
+                });
+                subscriber.onError(new IllegalStateException("IteratorPublisher allows a single subscriber"));
+                return;
+            }
+            subscriber.onSubscribe(new IteratorSubscription<>(iterator, subscriber));
+        }
+    }
+
+    private static final class IteratorSubscription<T> implements Flow.Subscription {
+        private final Iterator<T> iterator;
+        private final Flow.Subscriber<? super T> subscriber;
+        private final AtomicLong requested = new AtomicLong();
+        private volatile boolean cancelled;
+        private boolean done;
+
+        private IteratorSubscription(Iterator<T> iterator, Flow.Subscriber<? super T> subscriber) {
+            this.iterator = iterator;
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                cancelled = true;
+                subscriber.onError(new IllegalArgumentException("request must be > 0 : " + n));
+                return;
+            }
+            // only the call which raises requested from 0 emits, calls from within onNext() just add demand
+            if (requested.getAndAccumulate(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added) != 0) {
+                return;
+            }
+            long toEmit = n;
+            do {
+                long emittedNow = 0;
+                while (emittedNow < toEmit && !cancelled && !done) {
+                    if (!iterator.hasNext()) {
+                        done = true;
+                        subscriber.onComplete();
+                        return;
+                    }
+                    subscriber.onNext(iterator.next());
+                    emittedNow++;
+                }
+                if (cancelled || done) {
+                    return;
+                }
+                toEmit = requested.addAndGet(-emittedNow);
+            } while (toEmit != 0);
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+
+        ProductServiceWithInventoryUsingCompletableFuture productService = new ProductServiceWithInventoryUsingCompletableFuture(
+                new ProductInfoService(), new ReviewService(), new InventoryService());
+        StreamingProductService streamingProductService = new StreamingProductService(productService, 20, true);
+        List<String> productIds = IntStream.rangeClosed(1, 100).mapToObj(id -> "ABC" + id).collect(Collectors.toList());
+
+        startTimer();
+        CountDownLatch completed = new CountDownLatch(1);
+        AtomicInteger productCount = new AtomicInteger();
+        streamingProductService.retrieveProductDetails(productIds.stream()).subscribe(new Flow.Subscriber<>() {
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(10);
+            }
+
+            @Override
+            public void onNext(Product product) {
+                if (productCount.incrementAndGet() % 10 == 0) {
+                    log("Products received : " + productCount.get() + ", last is " + product.getProductId());
+                    subscription.request(10);
+                }
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                log("Product stream failed : " + throwable);
+                completed.countDown();
+            }
+
+            @Override
+            public void onComplete() {
+                completed.countDown();
+            }
+        });
+        completed.await();
+        // 100 products (~1500 ms each), 20 at a time
+        timeTaken();
+    }
+}
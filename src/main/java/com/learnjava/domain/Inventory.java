@@ -5,10 +5,14 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.io.Serializable;
+
 @NoArgsConstructor
 @AllArgsConstructor
 @Data
 @Builder
-public class Inventory {
+public class Inventory implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private int count;
 }
@@ -5,13 +5,16 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.io.Serializable;
 import java.util.List;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-public class ProductInfo {
+public class ProductInfo implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private String productId;
     private List<ProductOption> productOptions;
 }
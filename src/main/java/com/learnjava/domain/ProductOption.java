@@ -5,11 +5,15 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.io.Serializable;
+
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
-public class ProductOption {
+public class ProductOption implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private Integer productionOptionId;
     private String size;
     private String  color;
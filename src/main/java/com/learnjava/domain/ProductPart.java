@@ -0,0 +1,8 @@
+package com.learnjava.domain;
+
+// parts of a Product which can be replaced by a fallback when their service doesn't answer in time
+public enum ProductPart {
+    PRODUCT_INFO,
+    INVENTORY,
+    REVIEW
+}
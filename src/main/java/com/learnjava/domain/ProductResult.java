@@ -0,0 +1,23 @@
+package com.learnjava.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductResult {
+
+    private Product product;
+    // parts of product which are fallbacks (stale or empty) instead of the response of the service,
+    // empty (not null) when built with the no args constructor, e.g. by Jackson
+    private Set<ProductPart> degradedParts = EnumSet.noneOf(ProductPart.class);
+
+    public boolean isDegraded() {
+        return degradedParts != null && !degradedParts.isEmpty();
+    }
+}
@@ -5,11 +5,15 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.io.Serializable;
+
 @AllArgsConstructor
 @NoArgsConstructor
 @Data
 @Builder
-public class Review {
+public class Review implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private int noOfReviews;
     private double overallRating;
 }
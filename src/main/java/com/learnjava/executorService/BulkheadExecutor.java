@@ -0,0 +1,176 @@
+package com.learnjava.executorService;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.learnjava.util.LoggerUtil.log;
+
+// Thread pool dedicated to one downstream service (bulkhead), with a bounded queue.
+// Unlike Executors.newFixedThreadPool() (unbounded queue), a slow downstream can only pile up
+// queueCapacity tasks, after that the overflow policy applies instead of growing without limit.
+// Threads are daemon threads, so a pool which is not shut down doesn't keep the JVM running.
+public class BulkheadExecutor extends ThreadPoolExecutor {
+
+    public enum OverflowPolicy {
+        // task is rejected with RejectedExecutionException (fail fast)
+        REJECT,
+        // task runs on the submitting thread, which slows down the submitter (backpressure)
+        CALLER_RUNS,
+        // submitting thread waits up to the block timeout for space in the queue, then the task is rejected
+        BLOCK
+    }
+
+    // hooks called around the tasks and the lifecycle of the bulkhead, e.g. for metrics or logging
+    public interface Listener {
+        default void beforeTask(String bulkheadName) {
+        }
+
+        default void afterTask(String bulkheadName, long durationNanos, Throwable failure) {
+        }
+
+        default void onRejected(String bulkheadName) {
+        }
+
+        default void onTerminated(String bulkheadName) {
+        }
+    }
+
+    private static final Listener NO_OP_LISTENER = new Listener() {
+    };
+
+    private final String name;
+    private final Listener listener;
+    private final ThreadLocal<Long> taskStartNanos = new ThreadLocal<>();
+    private final LongAdder rejectedCount = new LongAdder();
+
+    private BulkheadExecutor(String name, int threads, int queueCapacity, OverflowPolicy overflowPolicy, Duration blockTimeout, Listener listener) {
+        super(threads, threads, 30, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                namedDaemonThreads(name), rejectionHandler(name, overflowPolicy, blockTimeout));
+        this.name = name;
+        this.listener = listener;
+    }
+
+    public static BulkheadExecutor of(String name, int threads, int queueCapacity, OverflowPolicy overflowPolicy) {
+        return of(name, threads, queueCapacity, overflowPolicy, Duration.ofMillis(100), NO_OP_LISTENER);
+    }
+
+    public static BulkheadExecutor of(String name, int threads, int queueCapacity, OverflowPolicy overflowPolicy, Duration blockTimeout) {
+        return of(name, threads, queueCapacity, overflowPolicy, blockTimeout, NO_OP_LISTENER);
+    }
+
+    public static BulkheadExecutor of(String name, int threads, int queueCapacity, OverflowPolicy overflowPolicy, Duration blockTimeout, Listener listener) {
+        BulkheadExecutor bulkhead = new BulkheadExecutor(name, threads, queueCapacity, overflowPolicy, blockTimeout, listener);
+        // idle bulkheads don't keep their threads (set once constructed, not from the constructor)
+        bulkhead.allowCoreThreadTimeOut(true);
+        return bulkhead;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    // stops accepting tasks, waits up to timeout for the queued/running ones, then interrupts the rest
+    public boolean shutdownGracefully(Duration timeout) {
+        shutdown();
+        try {
+            if (awaitTermination(timeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                return true;
+            }
+            log("Bulkhead " + name + " did not terminate in " + timeout + ", interrupting " + getActiveCount() + " tasks");
+            shutdownNow();
+            return awaitTermination(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            shutdownNow();
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Bulkhead[" + name + ", active=" + getActiveCount() + ", queued=" + getQueue().size()
+                + ", completed=" + getCompletedTaskCount() + ", rejected=" + getRejectedCount() + "]";
+    }
+
+    @Override
+    protected void beforeExecute(Thread thread, Runnable task) {
+        super.beforeExecute(thread, task);
+        taskStartNanos.set(System.nanoTime());
+        listener.beforeTask(name);
+    }
+
+    @Override
+    protected void afterExecute(Runnable task, Throwable failure) {
+        super.afterExecute(task, failure);
+        Long startNanos = taskStartNanos.get();
+        taskStartNanos.remove();
+        listener.afterTask(name, startNanos == null ? 0 : System.nanoTime() - startNanos, failure);
+    }
+
+    @Override
+    protected void terminated() {
+        super.terminated();
+        listener.onTerminated(name);
+    }
+
+    private void rejected() {
+        rejectedCount.increment();
+        listener.onRejected(name);
+    }
+
+    private static ThreadFactory namedDaemonThreads(String name) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "bulkhead-" + name + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static RejectedExecutionHandler rejectionHandler(String name, OverflowPolicy overflowPolicy, Duration blockTimeout) {
+        return (task, executor) -> {
+            BulkheadExecutor bulkhead = (BulkheadExecutor) executor;
+            if (executor.isShutdown()) {
+                bulkhead.rejected();
+                throw new RejectedExecutionException("Bulkhead " + name + " is shut down");
+            }
+            switch (overflowPolicy) {
+                case CALLER_RUNS -> task.run();
+                case BLOCK -> {
+                    try {
+                        if (!executor.getQueue().offer(task, blockTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                            bulkhead.rejected();
+                            throw new RejectedExecutionException("Bulkhead " + name + " is full");
+                        }
+                        // shut down while waiting (e.g. shutdownNow() emptied the queue) : the task would never run
+                        if (executor.isShutdown() && executor.remove(task)) {
+                            bulkhead.rejected();
+                            throw new RejectedExecutionException("Bulkhead " + name + " is shut down");
+                        }
+                        // all the threads may have timed out while waiting, as execute() would do
+                        executor.prestartCoreThread();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        bulkhead.rejected();
+                        throw new RejectedExecutionException("Interrupted while waiting for bulkhead " + name, e);
+                    }
+                }
+                default -> {
+                    bulkhead.rejected();
+                    throw new RejectedExecutionException("Bulkhead " + name + " is full");
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,109 @@
+package com.learnjava.executorService;
+
+import com.learnjava.executorService.BulkheadExecutor.OverflowPolicy;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static com.learnjava.util.CommonUtil.noOfCores;
+import static com.learnjava.util.LoggerUtil.log;
+
+// One bulkhead (BulkheadExecutor) per downstream service, so that a slow downstream can only exhaust
+// its own threads and queue, the calls to the other downstreams keep running.
+//
+// usage:
+//      ExecutorRegistry.defaultRegistry().executorFor(Downstream.REVIEWS)
+//      ExecutorRegistry.defaultRegistry().shutdown(Duration.ofSeconds(5))
+// Shutdown is final : the services keep the executors they got at construction, so a registry (the default
+// one included) is not replaced after shutdown, its executors throw IllegalStateException instead.
+public class ExecutorRegistry {
+
+    // how long a submitter waits for space in a full queue before the call is rejected
+    public static final Duration DEFAULT_BLOCK_TIMEOUT = Duration.ofSeconds(1);
+
+    public enum Downstream {
+        PRODUCT_INFO,
+        REVIEWS,
+        INVENTORY,
+        PRICE_VALIDATION
+    }
+
+    private static ExecutorRegistry defaultRegistry;
+
+    private final Map<Downstream, BulkheadExecutor> bulkheads = new EnumMap<>(Downstream.class);
+
+    // calls to the downstreams block (simulated latency), so the pools are sized for blocking calls
+    // rather than for the number of cores. Once a queue is full the submitter waits up to DEFAULT_BLOCK_TIMEOUT
+    // for space, then the call is rejected (RejectedExecutionException). The submitter never runs the call
+    // itself : an inventory call submitted from a productInfo thread would hold that thread for the latency
+    // of the inventory, which is the starvation across downstreams the bulkheads are there to prevent.
+    public ExecutorRegistry() {
+        this(OverflowPolicy.BLOCK, DEFAULT_BLOCK_TIMEOUT);
+    }
+
+    // same pools with another overflow policy, e.g. CALLER_RUNS when all the submitters are request threads
+    // (never threads of another bulkhead) and slowing them down is the backpressure wanted
+    public ExecutorRegistry(OverflowPolicy overflowPolicy, Duration blockTimeout) {
+        this(Map.of(
+                Downstream.PRODUCT_INFO, BulkheadExecutor.of("productInfo", 4 * noOfCores(), 1_000, overflowPolicy, blockTimeout),
+                Downstream.REVIEWS, BulkheadExecutor.of("reviews", 4 * noOfCores(), 1_000, overflowPolicy, blockTimeout),
+                Downstream.INVENTORY, BulkheadExecutor.of("inventory", 8 * noOfCores(), 5_000, overflowPolicy, blockTimeout),
+                Downstream.PRICE_VALIDATION, BulkheadExecutor.of("priceValidation", 8 * noOfCores(), 10_000, overflowPolicy, blockTimeout)));
+    }
+
+    public ExecutorRegistry(Map<Downstream, BulkheadExecutor> bulkheads) {
+        for (Downstream downstream : Downstream.values()) {
+            if (!bulkheads.containsKey(downstream)) {
+                throw new IllegalArgumentException("No bulkhead for " + downstream);
+            }
+        }
+        this.bulkheads.putAll(bulkheads);
+    }
+
+    // registry used by the services when no executor is passed to them, created on first use.
+    // Once it is shut down (at the end of the application) it can't be used anymore.
+    public static synchronized ExecutorRegistry defaultRegistry() {
+        if (defaultRegistry == null) {
+            defaultRegistry = new ExecutorRegistry();
+        }
+        defaultRegistry.checkNotShutdown();
+        return defaultRegistry;
+    }
+
+    public BulkheadExecutor executorFor(Downstream downstream) {
+        checkNotShutdown();
+        return bulkheads.get(downstream);
+    }
+
+    private void checkNotShutdown() {
+        if (isShutdown()) {
+            throw new IllegalStateException("ExecutorRegistry is shut down");
+        }
+    }
+
+    public boolean isShutdown() {
+        return bulkheads.values().stream().anyMatch(BulkheadExecutor::isShutdown);
+    }
+
+    // stops all the bulkheads, each one gets up to timeout to finish its tasks
+    public void shutdown(Duration timeout) {
+        bulkheads.values().forEach(BulkheadExecutor::shutdown);
+        bulkheads.values().forEach(bulkhead -> {
+            if (!bulkhead.shutdownGracefully(timeout)) {
+                log("Bulkhead " + bulkhead.getName() + " did not terminate");
+            }
+        });
+    }
+
+    // shuts the registry down when the JVM exits
+    public ExecutorRegistry registerShutdownHook(Duration timeout) {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> shutdown(timeout), "executor-registry-shutdown"));
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return bulkheads.values().toString();
+    }
+}
@@ -3,41 +3,69 @@ package com.learnjava.executorService;
 import com.learnjava.domain.Product;
 import com.learnjava.domain.ProductInfo;
 import com.learnjava.domain.Review;
+import com.learnjava.executorService.ExecutorRegistry.Downstream;
+import com.learnjava.metrics.LatencyMetrics;
 import com.learnjava.service.ProductInfoService;
 import com.learnjava.service.ReviewService;
+import com.learnjava.util.Deadline;
 
+import java.time.Duration;
 import java.util.concurrent.*;
 
-import static com.learnjava.util.CommonUtil.stopWatch;
+import static com.learnjava.metrics.LatencyMetrics.*;
 import static com.learnjava.util.LoggerUtil.log;
 
 public class ProductServiceUsingExecutor {
-    private static ExecutorService executorService = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    private static final String REQUEST_METRIC = stageName(ProductServiceUsingExecutor.class, REQUEST);
+    private static final String PRODUCT_INFO_METRIC = stageName(ProductServiceUsingExecutor.class, PRODUCT_INFO);
+    private static final String REVIEWS_METRIC = stageName(ProductServiceUsingExecutor.class, REVIEWS);
     private ProductInfoService productInfoService;
     private ReviewService reviewService;
+    private ExecutorService productInfoExecutorService;
+    private ExecutorService reviewExecutorService;
+    private final LatencyMetrics metrics = LatencyMetrics.defaultMetrics();
 
+    // each downstream gets its own bulkhead (bounded pool + queue) of the default ExecutorRegistry,
+    // so a slow review service can't take the threads needed by the product info calls.
     public ProductServiceUsingExecutor(ProductInfoService productInfoService, ReviewService reviewService) {
+        this(productInfoService, reviewService,
+                ExecutorRegistry.defaultRegistry().executorFor(Downstream.PRODUCT_INFO),
+                ExecutorRegistry.defaultRegistry().executorFor(Downstream.REVIEWS));
+    }
+
+    // to run the calls on a different pool (e.g. different pool size), caller owns its shutdown.
+    public ProductServiceUsingExecutor(ProductInfoService productInfoService, ReviewService reviewService, ExecutorService executorService) {
+        this(productInfoService, reviewService, executorService, executorService);
+    }
+
+    public ProductServiceUsingExecutor(ProductInfoService productInfoService, ReviewService reviewService, ExecutorService productInfoExecutorService, ExecutorService reviewExecutorService) {
         this.productInfoService = productInfoService;
         this.reviewService = reviewService;
+        this.productInfoExecutorService = productInfoExecutorService;
+        this.reviewExecutorService = reviewExecutorService;
     }
 
     public Product retrieveProductDetails(String productId) throws ExecutionException, InterruptedException, TimeoutException {
-        stopWatch.start();
-
-        Future<ProductInfo> productInfoFuture = executorService.submit(() -> productInfoService.retrieveProductInfo(productId));
-//        ProductInfo productInfo = productInfoService.retrieveProductInfo(productId); // blocking call
-
-        Future<Review> reviewFuture = executorService.submit(() -> reviewService.retrieveReviews(productId));
-//        Review review = reviewService.retrieveReviews(productId); // blocking call
+        LatencyMetrics.Timer requestTimer = metrics.start(REQUEST_METRIC);
+        try {
+            Future<ProductInfo> productInfoFuture = productInfoExecutorService.submit(() -> metrics.time(PRODUCT_INFO_METRIC, () -> productInfoService.retrieveProductInfo(productId)));
+//            ProductInfo productInfo = productInfoService.retrieveProductInfo(productId); // blocking call
 
-        // we can pass timeout also to make sure we are not waiting for infinite time.
-        // After specified time passed it will throw TimeoutException.
-        ProductInfo productInfo = productInfoFuture.get(1200, TimeUnit.MILLISECONDS);
-        Review review = reviewFuture.get();
+            Future<Review> reviewFuture = reviewExecutorService.submit(() -> metrics.time(REVIEWS_METRIC, () -> reviewService.retrieveReviews(productId)));
+//            Review review = reviewService.retrieveReviews(productId); // blocking call
 
-        stopWatch.stop();
-        log("Total Time Taken : "+ stopWatch.getTime());
-        return new Product(productId, productInfo, review);
+            // we can pass timeout also to make sure we are not waiting for infinite time.
+            // After specified time passed it will throw TimeoutException.
+            // Both calls share one deadline, so the review only gets the time left after productInfo.
+            // (see ProductServiceWithDeadline for fallbacks instead of TimeoutException)
+            Deadline deadline = Deadline.after(Duration.ofMillis(1200));
+            ProductInfo productInfo = productInfoFuture.get(deadline.remainingNanos(), TimeUnit.NANOSECONDS);
+            Review review = reviewFuture.get(deadline.remainingNanos(), TimeUnit.NANOSECONDS);
+            return new Product(productId, productInfo, review);
+        } finally {
+            // timed out and failed requests are recorded too, they are the tail of the latency
+            log("Total Time Taken : "+ requestTimer.stop());
+        }
     }
 
     public static void main(String[] args) throws ExecutionException, InterruptedException, TimeoutException {
@@ -48,7 +76,7 @@ public class ProductServiceUsingExecutor {
         String productId = "ABC123";
         Product product = productService.retrieveProductDetails(productId);
         log("Product is " + product);
-        // need to explicitly shut down the service, otherwise it keeps on running
-        executorService.shutdown();
+        // need to explicitly shut down the executors, otherwise submitted tasks are cut off at JVM exit
+        ExecutorRegistry.defaultRegistry().shutdown(Duration.ofSeconds(5));
     }
 }
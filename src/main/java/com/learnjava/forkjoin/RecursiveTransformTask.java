@@ -0,0 +1,104 @@
+package com.learnjava.forkjoin;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+
+// Applies a function to every element of a list using fork/join, and writes the results into a single
+// pre-sized output array by index, so the order of the input is kept without concatenating result lists.
+//
+// The list is split in halves only until the chunks are small enough (threshold), the chunks are then
+// transformed sequentially, so the number of tasks doesn't grow with the size of the list.
+//      threshold > 0   : chunks of at most threshold elements.
+//      AUTO_THRESHOLD  : keeps splitting only while this worker has few queued (not yet stolen) tasks,
+//                        i.e. while the other workers might still need work (getSurplusQueuedTaskCount).
+//                        Good for cpu bound functions, for blocking functions (e.g. remote calls) use 1.
+public class RecursiveTransformTask<T, R> extends RecursiveAction {
+
+    public static final int AUTO_THRESHOLD = 0;
+
+    // in auto mode splitting stops when this worker already has more queued tasks than this
+    private static final int SURPLUS_QUEUED_TASKS = 3;
+
+    private final List<? extends T> input;
+    private final Object[] output;
+    private final Function<? super T, ? extends R> transform;
+    private final int threshold;
+    private final int from;
+    private int to;
+    // forked right halves of this task, joined in reverse order of forking
+    private RecursiveTransformTask<T, R> nextForked;
+
+    private RecursiveTransformTask(List<? extends T> input, Object[] output, Function<? super T, ? extends R> transform,
+                                   int threshold, int from, int to, RecursiveTransformTask<T, R> nextForked) {
+        this.input = input;
+        this.output = output;
+        this.transform = transform;
+        this.threshold = threshold;
+        this.from = from;
+        this.to = to;
+        this.nextForked = nextForked;
+    }
+
+    // transforms the list on the common pool, with the auto-tuned threshold
+    public static <T, R> List<R> transform(List<? extends T> input, Function<? super T, ? extends R> transform) {
+        return transform(ForkJoinPool.commonPool(), input, transform, AUTO_THRESHOLD);
+    }
+
+    public static <T, R> List<R> transform(ForkJoinPool forkJoinPool, List<? extends T> input,
+                                           Function<? super T, ? extends R> transform, int threshold) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("threshold must be >= 0 : " + threshold);
+        }
+        // get(index) must be cheap for the split to work, e.g. LinkedList is copied once
+        List<? extends T> randomAccessInput = input instanceof RandomAccess ? input : new ArrayList<>(input);
+        Object[] output = new Object[randomAccessInput.size()];
+        RecursiveTransformTask<T, R> task = new RecursiveTransformTask<>(randomAccessInput, output, transform, threshold, 0, output.length, null);
+        forkJoinPool.invoke(task);
+        @SuppressWarnings("unchecked")
+        List<R> resultList = (List<R>) Collections.unmodifiableList(Arrays.asList(output));
+        return resultList;
+    }
+
+    @Override
+    protected void compute() {
+        RecursiveTransformTask<T, R> forked = null;
+        // split off the right halves (forked, can be stolen) and keep the left half in this task
+        while (shouldSplit()) {
+            int midPoint = (from + to) >>> 1;
+            forked = new RecursiveTransformTask<>(input, output, transform, threshold, midPoint, to, forked);
+            forked.fork();
+            to = midPoint;
+        }
+
+        for (int index = from; index < to; index++) {
+            output[index] = transform.apply(input.get(index));
+        }
+
+        // join the forked halves, the ones which are not stolen yet are run by this thread
+        while (forked != null) {
+            if (forked.tryUnfork()) {
+                forked.compute();
+            } else {
+                forked.join();
+            }
+            forked = forked.nextForked;
+        }
+    }
+
+    private boolean shouldSplit() {
+        int size = to - from;
+        if (size <= 1) {
+            return false;
+        }
+        if (threshold == AUTO_THRESHOLD) {
+            return getSurplusQueuedTaskCount() <= SURPLUS_QUEUED_TASKS;
+        }
+        return size > threshold;
+    }
+}
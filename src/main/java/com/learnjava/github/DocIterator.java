@@ -0,0 +1,164 @@
+package com.learnjava.github;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+// Iterator over ascending doc ids of a segment, used to evaluate queries without materializing
+// the matching doc ids: terms are PostingList cursors, combined with and() / or().
+interface DocIterator {
+
+    int NO_MORE_DOCS = Integer.MAX_VALUE;
+
+    // current doc id, -1 before the first next(), NO_MORE_DOCS at the end
+    int doc();
+
+    int next();
+
+    // first doc id >= target (the current doc if it is already >= target)
+    int advance(int target);
+
+    // upper bound of the number of docs, to iterate the cheapest iterator first
+    int cost();
+
+    static DocIterator all(int docCount) {
+        return new AllDocs(docCount);
+    }
+
+    // docs of all the iterators, leapfrogging from the cheapest one
+    static DocIterator and(List<DocIterator> iterators) {
+        if (iterators.size() == 1) {
+            return iterators.get(0);
+        }
+        DocIterator[] sorted = iterators.toArray(new DocIterator[0]);
+        Arrays.sort(sorted, Comparator.comparingInt(DocIterator::cost));
+        return new Conjunction(sorted);
+    }
+
+    // docs of any of the iterators
+    static DocIterator or(List<DocIterator> iterators) {
+        if (iterators.size() == 1) {
+            return iterators.get(0);
+        }
+        return new Disjunction(iterators.toArray(new DocIterator[0]));
+    }
+
+    final class AllDocs implements DocIterator {
+        private final int docCount;
+        private int doc = -1;
+
+        private AllDocs(int docCount) {
+            this.docCount = docCount;
+        }
+
+        @Override
+        public int doc() {
+            return doc;
+        }
+
+        @Override
+        public int next() {
+            return advance(doc + 1);
+        }
+
+        @Override
+        public int advance(int target) {
+            if (doc >= target) {
+                return doc;
+            }
+            return doc = target < docCount ? target : NO_MORE_DOCS;
+        }
+
+        @Override
+        public int cost() {
+            return docCount;
+        }
+    }
+
+    final class Conjunction implements DocIterator {
+        private final DocIterator[] iterators;
+        private int doc = -1;
+
+        private Conjunction(DocIterator[] iterators) {
+            this.iterators = iterators;
+        }
+
+        @Override
+        public int doc() {
+            return doc;
+        }
+
+        @Override
+        public int next() {
+            return advance(doc + 1);
+        }
+
+        @Override
+        public int advance(int target) {
+            if (doc >= target) {
+                return doc;
+            }
+            int candidate = iterators[0].advance(target);
+            candidates:
+            while (candidate != NO_MORE_DOCS) {
+                for (int index = 1; index < iterators.length; index++) {
+                    int other = iterators[index].advance(candidate);
+                    if (other > candidate) {
+                        candidate = iterators[0].advance(other);
+                        continue candidates;
+                    }
+                }
+                break;
+            }
+            return doc = candidate;
+        }
+
+        @Override
+        public int cost() {
+            return iterators[0].cost();
+        }
+    }
+
+    final class Disjunction implements DocIterator {
+        private final DocIterator[] iterators;
+        private final int cost;
+        private int doc = -1;
+
+        private Disjunction(DocIterator[] iterators) {
+            this.iterators = iterators;
+            int sum = 0;
+            for (DocIterator iterator : iterators) {
+                sum = (int) Math.min(Integer.MAX_VALUE, (long) sum + iterator.cost());
+            }
+            this.cost = sum;
+        }
+
+        @Override
+        public int doc() {
+            return doc;
+        }
+
+        @Override
+        public int next() {
+            return advance(doc + 1);
+        }
+
+        @Override
+        public int advance(int target) {
+            if (doc >= target) {
+                return doc;
+            }
+            int min = NO_MORE_DOCS;
+            for (DocIterator iterator : iterators) {
+                int current = iterator.doc() < target ? iterator.advance(target) : iterator.doc();
+                min = Math.min(min, current);
+            }
+            return doc = min;
+        }
+
+        @Override
+        public int cost() {
+            return cost;
+        }
+    }
+}
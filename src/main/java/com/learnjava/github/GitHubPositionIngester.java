@@ -0,0 +1,317 @@
+package com.learnjava.github;
+
+import com.learnjava.domain.github.GitHubPosition;
+import com.learnjava.metrics.LatencyMetrics;
+import com.learnjava.util.DataSet;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import static com.learnjava.util.LoggerUtil.log;
+
+// Reads a JSON lines file of GitHubPositions (one JSON object per line) with several threads, without
+// loading the file in memory:
+//      - the file is split in chunks of chunkSize bytes, the workers take the next chunk until none is left
+//      - a chunk owns the lines which start inside it: a worker skips the end of the line started in the
+//        previous chunk and reads past the end of its chunk to finish its last line
+//      - every worker reads its chunks with positional reads (FileChannel.read(buffer, position)) into its
+//        own buffer, so the workers share one channel without locking, and parses the bytes directly
+//      - every parsed GitHubPosition is given to the consumer
+// Positional reads are used instead of memory mapping so files larger than 2 GB need no mapping windows
+// and no memory stays mapped after the ingestion.
+//
+// The consumer is called from the worker threads at the same time, so it must be thread safe.
+// Positions of a chunk are given in file order, positions of different chunks in no particular order.
+// Malformed lines are counted (and the first ones logged) and skipped, an exception of the consumer
+// stops the ingestion and is thrown by ingest().
+public class GitHubPositionIngester {
+
+    public static final int DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+    public static final Duration DEFAULT_PROGRESS_INTERVAL = Duration.ofSeconds(5);
+
+    private static final int MAX_READ_BUFFER_SIZE = 1024 * 1024;
+    private static final int MAX_LOGGED_MALFORMED_LINES = 10;
+
+    private final int parallelism;
+    private final int chunkSize;
+    private final Duration progressInterval;
+    private final Consumer<IngestionProgress> progressListener;
+    private final LatencyMetrics metrics = LatencyMetrics.defaultMetrics();
+
+    public GitHubPositionIngester(int parallelism) {
+        this(parallelism, DEFAULT_CHUNK_SIZE, DEFAULT_PROGRESS_INTERVAL, progress -> log("Ingestion progress : " + progress));
+    }
+
+    public GitHubPositionIngester(int parallelism, int chunkSize, Duration progressInterval, Consumer<IngestionProgress> progressListener) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1 : " + parallelism);
+        }
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be at least 1 : " + chunkSize);
+        }
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+        this.progressInterval = progressInterval;
+        this.progressListener = progressListener;
+    }
+
+    public IngestionProgress ingest(Path file, Consumer<GitHubPosition> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Ingestion ingestion = new Ingestion(channel, channel.size(), consumer);
+            return ingestion.run();
+        }
+    }
+
+    // state of one ingest() call, shared by its workers
+    private final class Ingestion {
+        private final FileChannel channel;
+        private final long fileSize;
+        private final Consumer<GitHubPosition> consumer;
+        private final long chunkCount;
+        private final AtomicInteger nextChunk = new AtomicInteger();
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private final AtomicInteger loggedMalformedLines = new AtomicInteger();
+        private final LongAdder bytesRead = new LongAdder();
+        private final LongAdder lines = new LongAdder();
+        private final LongAdder positions = new LongAdder();
+        private final LongAdder malformedLines = new LongAdder();
+        private final long startNanos = System.nanoTime();
+
+        private Ingestion(FileChannel channel, long fileSize, Consumer<GitHubPosition> consumer) {
+            this.channel = channel;
+            this.fileSize = fileSize;
+            this.consumer = consumer;
+            this.chunkCount = (fileSize + chunkSize - 1) / chunkSize;
+            if (chunkCount > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("chunkSize " + chunkSize + " is too small for a file of " + fileSize + " bytes");
+            }
+        }
+
+        private IngestionProgress run() throws IOException {
+            int workerCount = (int) Math.max(1, Math.min(parallelism, chunkCount));
+            ScheduledExecutorService progressReporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "ingestion-progress");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long intervalNanos = progressInterval.toNanos();
+            progressReporter.scheduleAtFixedRate(() -> progressListener.accept(progress()), intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+            AtomicInteger threadCount = new AtomicInteger();
+            ExecutorService workers = Executors.newFixedThreadPool(workerCount, runnable ->
+                    new Thread(runnable, "ingestion-worker-" + threadCount.incrementAndGet()));
+            try {
+                List<Future<?>> futures = new ArrayList<>(workerCount);
+                for (int index = 0; index < workerCount; index++) {
+                    futures.add(workers.submit(new Worker()));
+                }
+                for (Future<?> future : futures) {
+                    try {
+                        future.get();
+                    } catch (ExecutionException e) {
+                        failure.compareAndSet(null, e.getCause());
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure.compareAndSet(null, e);
+            } finally {
+                workers.shutdownNow();
+                progressReporter.shutdownNow();
+            }
+            Throwable cause = failure.get();
+            if (cause instanceof UncheckedIOException uncheckedIOException) {
+                throw uncheckedIOException.getCause();
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            if (cause != null) {
+                throw new IOException("Ingestion of " + fileSize + " bytes failed", cause);
+            }
+            IngestionProgress progress = progress();
+            progressListener.accept(progress);
+            return progress;
+        }
+
+        private IngestionProgress progress() {
+            return new IngestionProgress(bytesRead.sum(), fileSize, lines.sum(), positions.sum(),
+                    malformedLines.sum(), System.nanoTime() - startNanos);
+        }
+
+        private void malformedLine(long offset, RuntimeException e) {
+            malformedLines.increment();
+            if (loggedMalformedLines.incrementAndGet() <= MAX_LOGGED_MALFORMED_LINES) {
+                log("Skipping malformed line at byte " + offset + " : " + e.getMessage());
+            }
+        }
+
+        // reads chunks until there are none left, with its own buffer and parser
+        private final class Worker implements Runnable {
+            private final GitHubPositionParser parser = new GitHubPositionParser();
+            private byte[] buffer = new byte[Math.min(MAX_READ_BUFFER_SIZE, Math.max(chunkSize, 256))];
+            // file offset of buffer[0], and number of valid bytes in the buffer
+            private long bufferStart;
+            private int bufferLength;
+
+            @Override
+            public void run() {
+                int chunk;
+                while (failure.get() == null && (chunk = nextChunk.getAndIncrement()) < chunkCount) {
+                    long chunkStart = (long) chunk * chunkSize;
+                    long chunkEnd = Math.min(chunkStart + chunkSize, fileSize);
+                    LatencyMetrics.Timer timer = metrics.start(LatencyMetrics.stageName(GitHubPositionIngester.class, "chunk"));
+                    try {
+                        readChunk(chunkStart, chunkEnd);
+                    } catch (IOException e) {
+                        UncheckedIOException uncheckedIOException = new UncheckedIOException(e);
+                        failure.compareAndSet(null, uncheckedIOException);
+                        throw uncheckedIOException;
+                    } catch (RuntimeException | Error e) {
+                        failure.compareAndSet(null, e);
+                        throw e;
+                    } finally {
+                        timer.stop();
+                    }
+                }
+            }
+
+            private void readChunk(long chunkStart, long chunkEnd) throws IOException {
+                long lineStart = chunkStart == 0 ? 0 : startOfNextLine(chunkStart - 1);
+                if (lineStart < bufferStart || lineStart >= bufferStart + bufferLength) {
+                    fill(lineStart);
+                }
+                int scanFrom = 0;
+                while (lineStart < chunkEnd && failure.get() == null) {
+                    int from = (int) (lineStart - bufferStart);
+                    int newLine = indexOfNewLine(Math.max(from, scanFrom), bufferLength);
+                    if (newLine >= 0) {
+                        line(from, newLine, lineStart);
+                        lineStart = bufferStart + newLine + 1;
+                        bytesRead.add(newLine + 1 - from);
+                        scanFrom = newLine + 1;
+                    } else if (bufferStart + bufferLength == fileSize) {
+                        // last line of the file, without line separator
+                        line(from, bufferLength, lineStart);
+                        bytesRead.add(bufferLength - from);
+                        lineStart = fileSize;
+                    } else {
+                        // the line continues after the buffer : move it to the start of the buffer
+                        // (and grow the buffer if the line doesn't fit), the scanned part isn't scanned again
+                        int scanned = bufferLength - from;
+                        if (from == 0) {
+                            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                        }
+                        fill(lineStart);
+                        scanFrom = scanned;
+                    }
+                }
+            }
+
+            // offset after the first line separator at or after offset, fileSize if there is none
+            private long startOfNextLine(long offset) throws IOException {
+                fill(offset);
+                while (bufferLength > 0) {
+                    int newLine = indexOfNewLine(0, bufferLength);
+                    if (newLine >= 0) {
+                        return bufferStart + newLine + 1;
+                    }
+                    fill(bufferStart + bufferLength);
+                }
+                return fileSize;
+            }
+
+            private void line(int from, int to, long offset) {
+                if (to > from && buffer[to - 1] == '\r') {
+                    to--;
+                }
+                lines.increment();
+                if (isBlank(from, to)) {
+                    return;
+                }
+                GitHubPosition gitHubPosition;
+                try {
+                    gitHubPosition = parser.parse(buffer, from, to);
+                } catch (IllegalArgumentException e) {
+                    malformedLine(offset, e);
+                    return;
+                }
+                consumer.accept(gitHubPosition);
+                positions.increment();
+            }
+
+            private boolean isBlank(int from, int to) {
+                for (int index = from; index < to; index++) {
+                    byte b = buffer[index];
+                    if (b != ' ' && b != '\t') {
+                        return false;
+                    }
+                }
+                return true;
+            }
+
+            private int indexOfNewLine(int from, int to) {
+                for (int index = from; index < to; index++) {
+                    if (buffer[index] == '\n') {
+                        return index;
+                    }
+                }
+                return -1;
+            }
+
+            // reads from the file offset into the buffer until it is full or the file ends
+            private void fill(long offset) throws IOException {
+                bufferStart = offset;
+                bufferLength = 0;
+                while (bufferLength < buffer.length) {
+                    int read = channel.read(ByteBuffer.wrap(buffer, bufferLength, buffer.length - bufferLength), offset + bufferLength);
+                    if (read < 0) {
+                        break;
+                    }
+                    bufferLength += read;
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path file = Files.createTempFile("github-positions", ".jsonl");
+        try {
+            DataSet.writeGitHubPositions(file, 200_000);
+            LongAdder remotePositions = new LongAdder();
+            GitHubPositionIngester ingester = new GitHubPositionIngester(Runtime.getRuntime().availableProcessors(),
+                    1024 * 1024, Duration.ofMillis(200), progress -> log("Ingestion progress : " + progress));
+            IngestionProgress progress = ingester.ingest(file, gitHubPosition -> {
+                if ("Remote".equals(gitHubPosition.getLocation())) {
+                    remotePositions.increment();
+                }
+            });
+            log("Ingested : " + progress);
+            log("Remote positions : " + remotePositions.sum());
+            LatencyMetrics.defaultMetrics().logSnapshot();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.learnjava.github;
+
+import com.learnjava.domain.github.GitHubPosition;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Minimal parser of a single JSON object (one line of a JSON lines file) into a GitHubPosition, reading
+// the UTF-8 bytes directly. Only the fields of GitHubPosition are kept, values which are not strings
+// (numbers, booleans) are kept as their text, null stays null, nested objects and arrays are skipped.
+// Not thread safe (reuses a char buffer), every ingestion worker has its own parser.
+public class GitHubPositionParser {
+
+    private char[] chars = new char[256];
+    private byte[] bytes;
+    private int position;
+    private int end;
+
+    // parses bytes[from, to), throws IllegalArgumentException if it is not a JSON object
+    public GitHubPosition parse(byte[] bytes, int from, int to) {
+        this.bytes = bytes;
+        this.position = from;
+        this.end = to;
+        try {
+            return parseObject();
+        } finally {
+            this.bytes = null;
+        }
+    }
+
+    public GitHubPosition parse(String line) {
+        byte[] lineBytes = line.getBytes(StandardCharsets.UTF_8);
+        return parse(lineBytes, 0, lineBytes.length);
+    }
+
+    private GitHubPosition parseObject() {
+        GitHubPosition gitHubPosition = new GitHubPosition();
+        skipWhitespace();
+        expect('{');
+        skipWhitespace();
+        if (peek() == '}') {
+            position++;
+            return checkEnd(gitHubPosition);
+        }
+        while (true) {
+            skipWhitespace();
+            String name = parseString();
+            skipWhitespace();
+            expect(':');
+            skipWhitespace();
+            String value = parseValue();
+            setField(gitHubPosition, name, value);
+            skipWhitespace();
+            byte next = next();
+            if (next == '}') {
+                return checkEnd(gitHubPosition);
+            }
+            if (next != ',') {
+                throw error("expected ',' or '}'");
+            }
+        }
+    }
+
+    private GitHubPosition checkEnd(GitHubPosition gitHubPosition) {
+        skipWhitespace();
+        if (position != end) {
+            throw error("unexpected content after the object");
+        }
+        return gitHubPosition;
+    }
+
+    // returns the text of strings, numbers and booleans, null for null, objects and arrays
+    private String parseValue() {
+        byte first = peek();
+        switch (first) {
+            case '"':
+                return parseString();
+            case '{':
+            case '[':
+                skipNested();
+                return null;
+            case 'n':
+                expectWord("null");
+                return null;
+            default:
+                int start = position;
+                while (position < end && bytes[position] != ',' && bytes[position] != '}' && !isWhitespace(bytes[position])) {
+                    position++;
+                }
+                if (start == position) {
+                    throw error("expected a value");
+                }
+                return new String(bytes, start, position - start, StandardCharsets.US_ASCII);
+        }
+    }
+
+    private String parseString() {
+        expect('"');
+        int length = 0;
+        while (true) {
+            if (position >= end) {
+                throw error("unterminated string");
+            }
+            int b = bytes[position++] & 0xFF;
+            if (b == '"') {
+                return new String(chars, 0, length);
+            }
+            if (length + 2 > chars.length) {
+                chars = Arrays.copyOf(chars, chars.length * 2);
+            }
+            if (b == '\\') {
+                chars[length++] = parseEscape();
+            } else if (b < 0x80) {
+                chars[length++] = (char) b;
+            } else {
+                length = decodeUtf8(b, length);
+            }
+        }
+    }
+
+    private char parseEscape() {
+        byte escaped = next();
+        switch (escaped) {
+            case '"': return '"';
+            case '\\': return '\\';
+            case '/': return '/';
+            case 'b': return '\b';
+            case 'f': return '\f';
+            case 'n': return '\n';
+            case 'r': return '\r';
+            case 't': return '\t';
+            case 'u':
+                if (position + 4 > end) {
+                    throw error("invalid unicode escape");
+                }
+                int value = 0;
+                for (int index = 0; index < 4; index++) {
+                    int digit = Character.digit(bytes[position++], 16);
+                    if (digit < 0) {
+                        throw error("invalid unicode escape");
+                    }
+                    value = value * 16 + digit;
+                }
+                // a surrogate pair is two escapes, each gives one char
+                return (char) value;
+            default:
+                throw error("invalid escape");
+        }
+    }
+
+    // multi byte UTF-8 sequence starting with b, returns the new length of chars
+    private int decodeUtf8(int b, int length) {
+        int extraBytes;
+        int codePoint;
+        if ((b & 0xE0) == 0xC0) {
+            extraBytes = 1;
+            codePoint = b & 0x1F;
+        } else if ((b & 0xF0) == 0xE0) {
+            extraBytes = 2;
+            codePoint = b & 0x0F;
+        } else if ((b & 0xF8) == 0xF0) {
+            extraBytes = 3;
+            codePoint = b & 0x07;
+        } else {
+            throw error("invalid UTF-8");
+        }
+        if (position + extraBytes > end) {
+            throw error("invalid UTF-8");
+        }
+        for (int index = 0; index < extraBytes; index++) {
+            int continuation = bytes[position++] & 0xFF;
+            if ((continuation & 0xC0) != 0x80) {
+                throw error("invalid UTF-8");
+            }
+            codePoint = (codePoint << 6) | (continuation & 0x3F);
+        }
+        if (Character.isBmpCodePoint(codePoint)) {
+            chars[length++] = (char) codePoint;
+        } else {
+            chars[length++] = Character.highSurrogate(codePoint);
+            chars[length++] = Character.lowSurrogate(codePoint);
+        }
+        return length;
+    }
+
+    private void skipNested() {
+        int depth = 0;
+        do {
+            byte b = next();
+            if (b == '"') {
+                position--;
+                parseString();
+            } else if (b == '{' || b == '[') {
+                depth++;
+            } else if (b == '}' || b == ']') {
+                depth--;
+            }
+        } while (depth > 0);
+    }
+
+    private void expectWord(String word) {
+        for (int index = 0; index < word.length(); index++) {
+            if (next() != word.charAt(index)) {
+                throw error("expected " + word);
+            }
+        }
+    }
+
+    private void expect(char expected) {
+        if (next() != expected) {
+            throw error("expected '" + expected + "'");
+        }
+    }
+
+    private byte next() {
+        if (position >= end) {
+            throw error("unexpected end of line");
+        }
+        return bytes[position++];
+    }
+
+    private byte peek() {
+        if (position >= end) {
+            throw error("unexpected end of line");
+        }
+        return bytes[position];
+    }
+
+    private void skipWhitespace() {
+        while (position < end && isWhitespace(bytes[position])) {
+            position++;
+        }
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("Invalid JSON at byte " + position + " : " + message);
+    }
+
+    private static void setField(GitHubPosition gitHubPosition, String name, String value) {
+        switch (name) {
+            case "id" -> gitHubPosition.setId(value);
+            case "type" -> gitHubPosition.setType(value);
+            case "url" -> gitHubPosition.setUrl(value);
+            case "created_at" -> gitHubPosition.setCreated_at(value);
+            case "company" -> gitHubPosition.setCompany(value);
+            case "company_url" -> gitHubPosition.setCompany_url(value);
+            case "location" -> gitHubPosition.setLocation(value);
+            case "title" -> gitHubPosition.setTitle(value);
+            case "description" -> gitHubPosition.setDescription(value);
+            case "how_to_apply" -> gitHubPosition.setHow_to_apply(value);
+            case "company_logo" -> gitHubPosition.setCompany_logo(value);
+            default -> {
+                // unknown fields are ignored
+            }
+        }
+    }
+}
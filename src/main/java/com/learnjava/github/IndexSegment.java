@@ -0,0 +1,169 @@
+package com.learnjava.github;
+
+import com.learnjava.collections.IntArrayList;
+import com.learnjava.domain.github.GitHubPosition;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Immutable index of a batch of positions, the doc id of a position is its index in the batch.
+//      terms     : terms of title, description, company and location -> docs containing the term
+//      locations, companies, types : exact field value -> docs with that value (the filters)
+// Built with fork/join: the batch is split in shards of shardSize positions, every shard is indexed into
+// its own maps of IntArrayLists, and the shard indexes are merged pairwise while the tasks are joined.
+// The right shard always has the higher doc ids, so merging appends its lists and keeps them sorted.
+final class IndexSegment {
+
+    private final GitHubPosition[] positions;
+    private final Map<String, PostingList> terms;
+    private final Map<String, PostingList> locations;
+    private final Map<String, PostingList> companies;
+    private final Map<String, PostingList> types;
+
+    private IndexSegment(GitHubPosition[] positions, ShardIndex index) {
+        this.positions = positions;
+        this.terms = compress(index.terms);
+        this.locations = compress(index.locations);
+        this.companies = compress(index.companies);
+        this.types = compress(index.types);
+    }
+
+    static IndexSegment build(ForkJoinPool forkJoinPool, List<GitHubPosition> batch, int shardSize) {
+        GitHubPosition[] positions = batch.toArray(new GitHubPosition[0]);
+        ShardIndex index = forkJoinPool.invoke(new BuildTask(positions, 0, positions.length, shardSize));
+        return new IndexSegment(positions, index);
+    }
+
+    int size() {
+        return positions.length;
+    }
+
+    GitHubPosition position(int doc) {
+        return positions[doc];
+    }
+
+    List<GitHubPosition> positions() {
+        return List.of(positions);
+    }
+
+    // null if no doc of the segment contains the term
+    DocIterator term(String term) {
+        return cursor(terms.get(term));
+    }
+
+    DocIterator location(String location) {
+        return cursor(locations.get(location));
+    }
+
+    DocIterator company(String company) {
+        return cursor(companies.get(company));
+    }
+
+    DocIterator type(String type) {
+        return cursor(types.get(type));
+    }
+
+    long postingCount() {
+        return terms.values().stream().mapToLong(PostingList::size).sum();
+    }
+
+    long sizeInBytes() {
+        return sizeInBytes(terms) + sizeInBytes(locations) + sizeInBytes(companies) + sizeInBytes(types);
+    }
+
+    private static DocIterator cursor(PostingList postingList) {
+        return postingList == null ? null : postingList.cursor();
+    }
+
+    private static long sizeInBytes(Map<String, PostingList> postingLists) {
+        return postingLists.values().stream().mapToLong(PostingList::sizeInBytes).sum();
+    }
+
+    private static Map<String, PostingList> compress(Map<String, IntArrayList> docLists) {
+        Map<String, PostingList> postingLists = new HashMap<>((int) (docLists.size() / 0.75f) + 1);
+        docLists.forEach((term, docs) -> postingLists.put(term, PostingList.of(docs.toArray(), docs.size())));
+        return postingLists;
+    }
+
+    // uncompressed index of a shard, merged into its left neighbour
+    private static final class ShardIndex {
+        private final Map<String, IntArrayList> terms = new HashMap<>();
+        private final Map<String, IntArrayList> locations = new HashMap<>();
+        private final Map<String, IntArrayList> companies = new HashMap<>();
+        private final Map<String, IntArrayList> types = new HashMap<>();
+
+        private void add(int doc, GitHubPosition position) {
+            Tokenizer.forEachTerm(position.getTitle(), term -> addDoc(terms, term, doc));
+            Tokenizer.forEachTerm(position.getDescription(), term -> addDoc(terms, term, doc));
+            Tokenizer.forEachTerm(position.getCompany(), term -> addDoc(terms, term, doc));
+            Tokenizer.forEachTerm(position.getLocation(), term -> addDoc(terms, term, doc));
+            addDoc(locations, position.getLocation(), doc);
+            addDoc(companies, position.getCompany(), doc);
+            addDoc(types, position.getType(), doc);
+        }
+
+        // right has the higher doc ids
+        private ShardIndex merge(ShardIndex right) {
+            merge(terms, right.terms);
+            merge(locations, right.locations);
+            merge(companies, right.companies);
+            merge(types, right.types);
+            return this;
+        }
+
+        private static void addDoc(Map<String, IntArrayList> docLists, String key, int doc) {
+            if (key == null) {
+                return;
+            }
+            IntArrayList docs = docLists.computeIfAbsent(key, k -> new IntArrayList(4));
+            // a term found several times in the same position is added once
+            if (docs.isEmpty() || docs.get(docs.size() - 1) != doc) {
+                docs.add(doc);
+            }
+        }
+
+        private static void merge(Map<String, IntArrayList> left, Map<String, IntArrayList> right) {
+            right.forEach((key, rightDocs) -> {
+                IntArrayList leftDocs = left.putIfAbsent(key, rightDocs);
+                if (leftDocs != null) {
+                    for (int index = 0; index < rightDocs.size(); index++) {
+                        leftDocs.add(rightDocs.get(index));
+                    }
+                }
+            });
+        }
+    }
+
+    private static final class BuildTask extends RecursiveTask<ShardIndex> {
+        private final GitHubPosition[] positions;
+        private final int from;
+        private final int to;
+        private final int shardSize;
+
+        private BuildTask(GitHubPosition[] positions, int from, int to, int shardSize) {
+            this.positions = positions;
+            this.from = from;
+            this.to = to;
+            this.shardSize = shardSize;
+        }
+
+        @Override
+        protected ShardIndex compute() {
+            if (to - from <= shardSize) {
+                ShardIndex index = new ShardIndex();
+                for (int doc = from; doc < to; doc++) {
+                    index.add(doc, positions[doc]);
+                }
+                return index;
+            }
+            int middle = (from + to) >>> 1;
+            BuildTask right = new BuildTask(positions, middle, to, shardSize);
+            right.fork();
+            ShardIndex left = new BuildTask(positions, from, middle, shardSize).compute();
+            return left.merge(right.join());
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.learnjava.github;
+
+import java.util.concurrent.TimeUnit;
+
+// Snapshot of an ingestion, reported periodically while it runs and returned when it completes.
+// bytesRead counts whole lines (including the line separator), so it reaches totalBytes at the end.
+public record IngestionProgress(long bytesRead, long totalBytes, long lines, long positions,
+                                long malformedLines, long elapsedNanos) {
+
+    public double percentComplete() {
+        return totalBytes == 0 ? 100.0 : bytesRead * 100.0 / totalBytes;
+    }
+
+    public double positionsPerSecond() {
+        return elapsedNanos == 0 ? 0 : positions * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    public double megabytesPerSecond() {
+        return elapsedNanos == 0 ? 0 : bytesRead / (1024.0 * 1024.0) * TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%.1f%% (%d / %d bytes), lines=%d, positions=%d, malformed=%d, elapsed=%d ms, %.0f positions/s, %.1f MB/s",
+                percentComplete(), bytesRead, totalBytes, lines, positions, malformedLines,
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), positionsPerSecond(), megabytesPerSecond());
+    }
+}
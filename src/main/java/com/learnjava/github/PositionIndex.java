@@ -0,0 +1,230 @@
+package com.learnjava.github;
+
+import com.learnjava.domain.github.GitHubPosition;
+import com.learnjava.metrics.LatencyMetrics;
+import com.learnjava.util.DataSet;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.learnjava.util.LoggerUtil.log;
+
+// In memory inverted index of GitHubPositions, searched with PositionQuery.
+//
+// The index is a list of immutable IndexSegments, published through an AtomicReference:
+//      - search() reads the current list once and never locks, so any number of queries run
+//        concurrently, also while batches are appended (a query sees the segments of its snapshot)
+//      - append() builds the segment of the batch in parallel (fork/join over shards) without any lock,
+//        then publishes a new list with a compare-and-set, so appenders never wait for each other.
+// To keep the number of segments logarithmic, a new segment is merged with the previous one as long as
+// the previous one isn't larger (like a binary counter), so every position is re-indexed O(log n) times.
+// Merges are built outside of the publication too, on a snapshot of the list : the merged segment then
+// replaces the segments it was built from, the segments published meanwhile by other appenders stay after it.
+// Only if another appender merged one of those segments first is the merge built again on a new snapshot.
+public class PositionIndex {
+
+    public static final int DEFAULT_SHARD_SIZE = 4096;
+
+    private final ForkJoinPool forkJoinPool;
+    private final int shardSize;
+    private final LatencyMetrics metrics = LatencyMetrics.defaultMetrics();
+    private final AtomicReference<List<IndexSegment>> segments = new AtomicReference<>(List.of());
+
+    public PositionIndex() {
+        this(ForkJoinPool.commonPool(), DEFAULT_SHARD_SIZE);
+    }
+
+    public PositionIndex(ForkJoinPool forkJoinPool, int shardSize) {
+        if (shardSize < 1) {
+            throw new IllegalArgumentException("shardSize must be at least 1 : " + shardSize);
+        }
+        this.forkJoinPool = forkJoinPool;
+        this.shardSize = shardSize;
+    }
+
+    public void append(Collection<GitHubPosition> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        LatencyMetrics.Timer timer = metrics.start(LatencyMetrics.stageName(PositionIndex.class, "append"));
+        try {
+            IndexSegment batchSegment = IndexSegment.build(forkJoinPool, new ArrayList<>(batch), shardSize);
+            while (true) {
+                List<IndexSegment> snapshot = segments.get();
+                int firstMerged = snapshot.size();
+                IndexSegment segment = batchSegment;
+                while (firstMerged > 0 && snapshot.get(firstMerged - 1).size() <= segment.size()) {
+                    firstMerged--;
+                    segment = merge(snapshot.get(firstMerged), segment);
+                }
+                if (publish(snapshot.subList(firstMerged, snapshot.size()), segment)) {
+                    return;
+                }
+            }
+        } finally {
+            timer.stop();
+        }
+    }
+
+    // replaces the merged segments (if any) by segment, false if another appender merged one of them first
+    private boolean publish(List<IndexSegment> mergedSegments, IndexSegment segment) {
+        while (true) {
+            List<IndexSegment> current = segments.get();
+            int start = mergedSegments.isEmpty() ? current.size() : indexOfRun(current, mergedSegments);
+            if (start < 0) {
+                return false;
+            }
+            List<IndexSegment> newSegments = new ArrayList<>(current.size() + 1);
+            newSegments.addAll(current.subList(0, start));
+            newSegments.add(segment);
+            newSegments.addAll(current.subList(start + mergedSegments.size(), current.size()));
+            if (segments.compareAndSet(current, List.copyOf(newSegments))) {
+                return true;
+            }
+        }
+    }
+
+    private IndexSegment merge(IndexSegment previous, IndexSegment segment) {
+        List<GitHubPosition> merged = new ArrayList<>(previous.size() + segment.size());
+        merged.addAll(previous.positions());
+        merged.addAll(segment.positions());
+        return IndexSegment.build(forkJoinPool, merged, shardSize);
+    }
+
+    // index of run (same instances, consecutive) in segmentList, -1 if it is not there anymore
+    private static int indexOfRun(List<IndexSegment> segmentList, List<IndexSegment> run) {
+        int start = -1;
+        for (int index = 0; index < segmentList.size(); index++) {
+            if (segmentList.get(index) == run.get(0)) {
+                start = index;
+                break;
+            }
+        }
+        if (start < 0 || start + run.size() > segmentList.size()) {
+            return -1;
+        }
+        for (int offset = 1; offset < run.size(); offset++) {
+            if (segmentList.get(start + offset) != run.get(offset)) {
+                return -1;
+            }
+        }
+        return start;
+    }
+
+    public SearchResult search(PositionQuery query) {
+        LatencyMetrics.Timer timer = metrics.start(LatencyMetrics.stageName(PositionIndex.class, "search"));
+        try {
+            int totalHits = 0;
+            List<GitHubPosition> positions = new ArrayList<>(Math.min(query.limit(), 1024));
+            for (IndexSegment segment : segments.get()) {
+                DocIterator docs = matches(segment, query);
+                if (docs == null) {
+                    continue;
+                }
+                for (int doc = docs.next(); doc != DocIterator.NO_MORE_DOCS; doc = docs.next()) {
+                    totalHits++;
+                    if (positions.size() < query.limit()) {
+                        positions.add(segment.position(doc));
+                    }
+                }
+            }
+            return new SearchResult(totalHits, positions);
+        } finally {
+            timer.stop();
+        }
+    }
+
+    public int size() {
+        return segments.get().stream().mapToInt(IndexSegment::size).sum();
+    }
+
+    public int segmentCount() {
+        return segments.get().size();
+    }
+
+    // number of (term, position) pairs
+    public long postingCount() {
+        return segments.get().stream().mapToLong(IndexSegment::postingCount).sum();
+    }
+
+    // compressed size of the posting lists, without the positions themselves
+    public long postingsSizeInBytes() {
+        return segments.get().stream().mapToLong(IndexSegment::sizeInBytes).sum();
+    }
+
+    // null if nothing of the segment can match
+    private static DocIterator matches(IndexSegment segment, PositionQuery query) {
+        List<DocIterator> required = new ArrayList<>();
+        for (String term : query.allTerms()) {
+            required.add(segment.term(term));
+        }
+        if (query.location() != null) {
+            required.add(segment.location(query.location()));
+        }
+        if (query.company() != null) {
+            required.add(segment.company(query.company()));
+        }
+        if (query.type() != null) {
+            required.add(segment.type(query.type()));
+        }
+        if (required.contains(null)) {
+            return null;
+        }
+        if (!query.anyTerms().isEmpty()) {
+            List<DocIterator> optional = new ArrayList<>();
+            for (String term : query.anyTerms()) {
+                DocIterator docs = segment.term(term);
+                if (docs != null) {
+                    optional.add(docs);
+                }
+            }
+            if (optional.isEmpty()) {
+                return null;
+            }
+            required.add(DocIterator.or(optional));
+        }
+        if (required.isEmpty()) {
+            return DocIterator.all(segment.size());
+        }
+        return DocIterator.and(required);
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path file = Files.createTempFile("github-positions", ".jsonl");
+        try {
+            DataSet.writeGitHubPositions(file, 500_000);
+            PositionIndex index = new PositionIndex();
+            ConcurrentLinkedQueue<GitHubPosition> ingested = new ConcurrentLinkedQueue<>();
+            new GitHubPositionIngester(Runtime.getRuntime().availableProcessors(), GitHubPositionIngester.DEFAULT_CHUNK_SIZE,
+                    Duration.ofSeconds(1), progress -> log("Ingestion progress : " + progress)).ingest(file, ingested::add);
+            List<GitHubPosition> batch = new ArrayList<>(ingested);
+            for (int from = 0; from < batch.size(); from += 100_000) {
+                index.append(batch.subList(from, Math.min(batch.size(), from + 100_000)));
+            }
+            log("Indexed positions : " + index.size() + ", segments : " + index.segmentCount()
+                    + ", postings : " + index.postingCount() + ", postings bytes : " + index.postingsSizeInBytes());
+
+            PositionQuery query = PositionQuery.builder()
+                    .allOf("java")
+                    .anyOf("senior", "reliability")
+                    .location("Remote")
+                    .limit(10)
+                    .build();
+            for (int run = 0; run < 5; run++) {
+                SearchResult result = index.search(query);
+                log("Hits : " + result.totalHits() + ", first : " + result.positions().get(0).getId());
+            }
+            LatencyMetrics.defaultMetrics().logSnapshot();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
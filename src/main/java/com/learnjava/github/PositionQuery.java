@@ -0,0 +1,77 @@
+package com.learnjava.github;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Query of the PositionIndex: positions containing all the allTerms, at least one of the anyTerms
+// (if there are any), and matching the exact location / company / type filters (null = no filter).
+// Terms are matched against title, description, company and location, case insensitive.
+// At most limit positions are returned, SearchResult.totalHits counts all the matches.
+public record PositionQuery(List<String> allTerms, List<String> anyTerms, String location, String company,
+                            String type, int limit) {
+
+    public static final int DEFAULT_LIMIT = 100;
+
+    public PositionQuery {
+        allTerms = List.copyOf(allTerms);
+        anyTerms = List.copyOf(anyTerms);
+        if (limit < 0) {
+            throw new IllegalArgumentException("limit must be >= 0 : " + limit);
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private final List<String> allTerms = new ArrayList<>();
+        private final List<String> anyTerms = new ArrayList<>();
+        private String location;
+        private String company;
+        private String type;
+        private int limit = DEFAULT_LIMIT;
+
+        private Builder() {
+        }
+
+        // text is split into terms like the indexed text, e.g. "Java Developer" -> java AND developer
+        public Builder allOf(String... texts) {
+            for (String text : texts) {
+                allTerms.addAll(Tokenizer.terms(text));
+            }
+            return this;
+        }
+
+        public Builder anyOf(String... texts) {
+            for (String text : texts) {
+                anyTerms.addAll(Tokenizer.terms(text));
+            }
+            return this;
+        }
+
+        public Builder location(String location) {
+            this.location = location;
+            return this;
+        }
+
+        public Builder company(String company) {
+            this.company = company;
+            return this;
+        }
+
+        public Builder type(String type) {
+            this.type = type;
+            return this;
+        }
+
+        public Builder limit(int limit) {
+            this.limit = limit;
+            return this;
+        }
+
+        public PositionQuery build() {
+            return new PositionQuery(allTerms, anyTerms, location, company, type, limit);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.learnjava.github;
+
+import java.util.Arrays;
+
+// Sorted doc ids of a term, compressed: the doc ids are split in blocks of BLOCK_SIZE, the first doc id
+// of every block is kept in an int array (the skip list), the others as the difference to the previous
+// doc id in variable length bytes (7 bits per byte, so most differences take 1 or 2 bytes instead of 4).
+// advance() uses the skip list to jump over the blocks that can't contain the target without decoding them.
+// Immutable, every reader uses its own Cursor.
+final class PostingList {
+
+    static final int BLOCK_SIZE = 128;
+
+    private final byte[] data;
+    private final int size;
+    private final int[] blockFirstDocs;
+    private final int[] blockOffsets;
+
+    private PostingList(byte[] data, int size, int[] blockFirstDocs, int[] blockOffsets) {
+        this.data = data;
+        this.size = size;
+        this.blockFirstDocs = blockFirstDocs;
+        this.blockOffsets = blockOffsets;
+    }
+
+    // docIds[0, length) must be sorted ascending without duplicates
+    static PostingList of(int[] docIds, int length) {
+        int blockCount = (length + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        int[] blockFirstDocs = new int[blockCount];
+        int[] blockOffsets = new int[blockCount];
+        byte[] data = new byte[Math.max(16, length + (length >> 1))];
+        int offset = 0;
+        for (int index = 0; index < length; index++) {
+            if (index % BLOCK_SIZE == 0) {
+                blockFirstDocs[index / BLOCK_SIZE] = docIds[index];
+                blockOffsets[index / BLOCK_SIZE] = offset;
+                continue;
+            }
+            int delta = docIds[index] - docIds[index - 1];
+            if (delta <= 0) {
+                throw new IllegalArgumentException("doc ids must be ascending : " + docIds[index - 1] + ", " + docIds[index]);
+            }
+            if (offset + 5 > data.length) {
+                data = Arrays.copyOf(data, data.length * 2);
+            }
+            while ((delta & ~0x7F) != 0) {
+                data[offset++] = (byte) ((delta & 0x7F) | 0x80);
+                delta >>>= 7;
+            }
+            data[offset++] = (byte) delta;
+        }
+        return new PostingList(Arrays.copyOf(data, offset), length, blockFirstDocs, blockOffsets);
+    }
+
+    int size() {
+        return size;
+    }
+
+    long sizeInBytes() {
+        return data.length + (long) blockFirstDocs.length * 2 * Integer.BYTES;
+    }
+
+    Cursor cursor() {
+        return new Cursor();
+    }
+
+    final class Cursor implements DocIterator {
+        private int doc = -1;
+        // postings read so far, the current doc is the posting index - 1
+        private int index;
+        private int offset;
+
+        @Override
+        public int doc() {
+            return doc;
+        }
+
+        @Override
+        public int next() {
+            if (index == size) {
+                return doc = NO_MORE_DOCS;
+            }
+            if (index % BLOCK_SIZE == 0) {
+                enterBlock(index / BLOCK_SIZE);
+                return doc;
+            }
+            int delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[offset++];
+                delta |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            index++;
+            return doc += delta;
+        }
+
+        @Override
+        public int advance(int target) {
+            if (doc >= target) {
+                return doc;
+            }
+            // last block not entered yet whose first doc is <= target
+            int low = index == 0 ? 0 : (index - 1) / BLOCK_SIZE + 1;
+            int high = blockFirstDocs.length - 1;
+            int block = -1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                if (blockFirstDocs[middle] <= target) {
+                    block = middle;
+                    low = middle + 1;
+                } else {
+                    high = middle - 1;
+                }
+            }
+            if (block >= 0) {
+                enterBlock(block);
+                if (doc >= target) {
+                    return doc;
+                }
+            }
+            int next;
+            while ((next = next()) < target) {
+                // decode until the target
+            }
+            return next;
+        }
+
+        @Override
+        public int cost() {
+            return size;
+        }
+
+        private void enterBlock(int block) {
+            doc = blockFirstDocs[block];
+            offset = blockOffsets[block];
+            index = block * BLOCK_SIZE + 1;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.learnjava.github;
+
+import com.learnjava.domain.github.GitHubPosition;
+
+import java.util.List;
+
+// positions : the first PositionQuery.limit matches, in the order they were appended to the index
+public record SearchResult(int totalHits, List<GitHubPosition> positions) {
+}
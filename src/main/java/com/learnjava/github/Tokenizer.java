@@ -0,0 +1,45 @@
+package com.learnjava.github;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Splits text into lower case terms of letters and digits, used for the indexed text and for the
+// query terms so both match. HTML tags (the descriptions are HTML) are skipped.
+final class Tokenizer {
+
+    private Tokenizer() {
+    }
+
+    static void forEachTerm(String text, Consumer<String> action) {
+        if (text == null) {
+            return;
+        }
+        StringBuilder term = new StringBuilder(16);
+        boolean inTag = false;
+        for (int index = 0; index < text.length(); index++) {
+            char c = text.charAt(index);
+            if (inTag) {
+                inTag = c != '>';
+            } else if (Character.isLetterOrDigit(c)) {
+                term.append(Character.toLowerCase(c));
+                continue;
+            } else if (c == '<') {
+                inTag = true;
+            }
+            if (term.length() > 0) {
+                action.accept(term.toString());
+                term.setLength(0);
+            }
+        }
+        if (term.length() > 0) {
+            action.accept(term.toString());
+        }
+    }
+
+    static List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        forEachTerm(text, terms::add);
+        return terms;
+    }
+}
@@ -0,0 +1,263 @@
+package com.learnjava.hedging;
+
+import com.learnjava.metrics.LatencyHistogram;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Hedged request over several replicas (e.g. DB, S3, API) which return the same result for a key.
+//      - the primary (first replica) is called first.
+//      - if it hasn't answered after the hedge delay, the next replica is called as well (and so on).
+//        hedge delay = given percentile of the latencies observed so far, so only the slowest
+//        ~(100 - percentile)% of the requests send a backup request, instead of doubling the load.
+//        Only the latencies of the primary are recorded, also when a backup wins : the primary is then
+//        cancelled and the time it has run so far is recorded (a lower bound of its latency). Recording
+//        the latency of the winner instead would leave the slow primaries out of the histogram, the hedge
+//        delay would drift down and more and more requests would be hedged.
+//      - if a replica fails, the next one is called right away.
+//      - first successful response wins, the calls still running are cancelled (interrupted).
+// This is CompletableFuture.anyOf() but without firing all the sources for every request.
+// Replicas are either blocking functions, run on the executorService, or async ones (ofAsync()) returning
+// a future, e.g. the non-blocking *Async() methods of the services : no thread waits for those.
+public class HedgedRequest<K, V> implements AutoCloseable {
+
+    private static final int MIN_SAMPLES_FOR_PERCENTILE = 100;
+    private static final int RECALCULATE_DELAY_EVERY = 100;
+
+    private static final ScheduledExecutorService hedgeTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "hedge-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final List<Function<K, CompletableFuture<V>>> replicas;
+    private final double hedgePercentile;
+    // null for async replicas
+    private final ExecutorService executorService;
+    // only an executor created here is shut down by close(), a given one belongs to the caller
+    private final boolean ownsExecutorService;
+
+    private final LatencyHistogram latencyHistogram = new LatencyHistogram();
+    private final AtomicLong hedgeDelayNanos;
+    private final AtomicLong samplesSinceRecalculation = new AtomicLong();
+
+    private final LongAdder requestCount = new LongAdder();
+    private final LongAdder hedgeCount = new LongAdder();
+    private final LongAdder backupWinCount = new LongAdder();
+
+    // initialHedgeDelay is used until enough latencies are recorded to compute the percentile
+    public HedgedRequest(List<Function<K, V>> replicas, double hedgePercentile, Duration initialHedgeDelay) {
+        this(replicas, hedgePercentile, initialHedgeDelay, Executors.newVirtualThreadPerTaskExecutor(), true);
+    }
+
+    // caller owns the shutdown of executorService
+    public HedgedRequest(List<Function<K, V>> replicas, double hedgePercentile, Duration initialHedgeDelay, ExecutorService executorService) {
+        this(replicas, hedgePercentile, initialHedgeDelay, executorService, false);
+    }
+
+    private HedgedRequest(List<Function<K, V>> replicas, double hedgePercentile, Duration initialHedgeDelay, ExecutorService executorService,
+                          boolean ownsExecutorService) {
+        this(hedgePercentile, initialHedgeDelay, replicas.stream()
+                .map(replica -> (Function<K, CompletableFuture<V>>) key -> runOnExecutor(replica, key, executorService))
+                .collect(Collectors.toList()), executorService, ownsExecutorService);
+    }
+
+    private HedgedRequest(double hedgePercentile, Duration initialHedgeDelay, List<Function<K, CompletableFuture<V>>> replicas, ExecutorService executorService,
+                          boolean ownsExecutorService) {
+        if (replicas.isEmpty()) {
+            throw new IllegalArgumentException("at least one replica is required");
+        }
+        this.replicas = List.copyOf(replicas);
+        this.hedgePercentile = hedgePercentile;
+        this.hedgeDelayNanos = new AtomicLong(initialHedgeDelay.toNanos());
+        this.executorService = executorService;
+        this.ownsExecutorService = ownsExecutorService;
+    }
+
+    // replicas returning a future instead of blocking, a losing attempt is cancelled with cancel(true)
+    public static <K, V> HedgedRequest<K, V> ofAsync(List<Function<K, CompletableFuture<V>>> replicas, double hedgePercentile, Duration initialHedgeDelay) {
+        return new HedgedRequest<>(hedgePercentile, initialHedgeDelay, replicas, null, false);
+    }
+
+    public CompletableFuture<V> get(K key) {
+        requestCount.increment();
+        HedgedCall call = new HedgedCall(key);
+        // whoever completes the result (a replica, or the caller by cancelling it) cancels the rest
+        call.result.whenComplete((value, throwable) -> {
+            recordPrimaryLatency(call);
+            call.cancelAttempts();
+        });
+        startNextAttempt(call);
+        return call.result;
+    }
+
+    // blocking get, failure of the last replica is thrown as it is instead of wrapped in a CompletionException
+    public V join(K key) {
+        try {
+            return get(key).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    public long currentHedgeDelayMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(hedgeDelayNanos.get());
+    }
+
+    public long getRequestCount() {
+        return requestCount.sum();
+    }
+
+    public long getHedgeCount() {
+        return hedgeCount.sum();
+    }
+
+    public long getBackupWinCount() {
+        return backupWinCount.sum();
+    }
+
+    @Override
+    public void close() {
+        if (ownsExecutorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    private void startNextAttempt(HedgedCall call) {
+        final int replicaIndex = call.nextReplica.getAndIncrement();
+        if (replicaIndex >= replicas.size() || call.result.isDone()) {
+            return;
+        }
+
+        if (replicaIndex == 0) {
+            call.primaryStartNanos = System.nanoTime();
+        }
+        CompletableFuture<V> attempt;
+        try {
+            attempt = replicas.get(replicaIndex).apply(call.key);
+        } catch (RuntimeException e) {
+            attempt = CompletableFuture.failedFuture(e);
+        }
+        call.attempts.add(attempt);
+        final CompletableFuture<V> startedAttempt = attempt;
+        attempt.whenComplete((value, throwable) -> {
+            // cancelled because the call is complete, nothing to do. Cancelled by someone else (e.g. the
+            // replica itself), it won't answer : counted as a failure, so the call doesn't wait for it forever
+            if (!startedAttempt.isCancelled() || !call.result.isDone()) {
+                onAttemptComplete(call, replicaIndex, value, throwable);
+            }
+        });
+
+        if (replicaIndex + 1 < replicas.size()) {
+            Future<?> hedge = hedgeTimer.schedule(() -> {
+                if (!call.result.isDone() && call.nextReplica.get() == replicaIndex + 1) {
+                    hedgeCount.increment();
+                    startNextAttempt(call);
+                }
+            }, hedgeDelayNanos.get(), TimeUnit.NANOSECONDS);
+            call.attempts.add(hedge);
+        }
+        // result may have completed while this attempt was being started
+        if (call.result.isDone()) {
+            call.cancelAttempts();
+        }
+    }
+
+    private void onAttemptComplete(HedgedCall call, int replicaIndex, V value, Throwable throwable) {
+        if (throwable == null) {
+            // stats are updated before completing the result, so they are visible to the caller
+            if (replicaIndex == 0) {
+                recordPrimaryLatency(call);
+            }
+            if (!call.result.isDone() && call.winnerFound.compareAndSet(false, true)) {
+                if (replicaIndex > 0) {
+                    backupWinCount.increment();
+                }
+                call.result.complete(value);
+            }
+            return;
+        }
+        if (replicaIndex == 0) {
+            // the time to fail is not a latency of the primary
+            call.primaryDone.set(true);
+        }
+        if (call.failureCount.incrementAndGet() == replicas.size()) {
+            call.result.completeExceptionally(throwable instanceof CompletionException && throwable.getCause() != null
+                    ? throwable.getCause() : throwable);
+        } else {
+            // don't wait for the hedge delay, a failed replica won't answer anymore
+            startNextAttempt(call);
+        }
+    }
+
+    // blocking replica on the executor, cancelling the returned future interrupts it
+    private static <K, V> CompletableFuture<V> runOnExecutor(Function<K, V> replica, K key, ExecutorService executorService) {
+        CompletableFuture<V> attempt = new CompletableFuture<>();
+        Future<?> task = executorService.submit(() -> {
+            try {
+                attempt.complete(replica.apply(key));
+            } catch (RuntimeException e) {
+                attempt.completeExceptionally(e);
+            }
+        });
+        attempt.whenComplete((value, throwable) -> {
+            if (attempt.isCancelled()) {
+                task.cancel(true);
+            }
+        });
+        return attempt;
+    }
+
+    // once per call : when the primary returns, or when the call completes before it (lower bound)
+    private void recordPrimaryLatency(HedgedCall call) {
+        if (call.primaryStartNanos != 0 && call.primaryDone.compareAndSet(false, true)) {
+            recordLatency(System.nanoTime() - call.primaryStartNanos);
+        }
+    }
+
+    private void recordLatency(long latencyNanos) {
+        latencyHistogram.record(latencyNanos);
+        if (latencyHistogram.count() >= MIN_SAMPLES_FOR_PERCENTILE
+                && samplesSinceRecalculation.incrementAndGet() % RECALCULATE_DELAY_EVERY == 0) {
+            // computing the percentile walks the whole histogram, so it is refreshed every few samples only
+            hedgeDelayNanos.set(Math.max(1, latencyHistogram.valueAtPercentile(hedgePercentile)));
+        }
+    }
+
+    private final class HedgedCall {
+        private final K key;
+        private final CompletableFuture<V> result = new CompletableFuture<>();
+        private final List<Future<?>> attempts = new CopyOnWriteArrayList<>();
+        private final AtomicInteger nextReplica = new AtomicInteger();
+        private final AtomicInteger failureCount = new AtomicInteger();
+        private final AtomicBoolean winnerFound = new AtomicBoolean();
+        // 0 until the primary has started
+        private volatile long primaryStartNanos;
+        private final AtomicBoolean primaryDone = new AtomicBoolean();
+
+        private HedgedCall(K key) {
+            this.key = key;
+        }
+
+        private void cancelAttempts() {
+            attempts.forEach(attempt -> attempt.cancel(true));
+        }
+    }
+}
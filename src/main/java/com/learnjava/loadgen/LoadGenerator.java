@@ -0,0 +1,152 @@
+package com.learnjava.loadgen;
+
+import com.learnjava.metrics.LatencyHistogram;
+
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Drives a LoadTarget and records the latency of every request, every request runs on its own virtual thread.
+//      open loop   : requests start at a fixed arrival rate, whether the previous ones completed or not
+//                    (like independent users), so a slow service builds up a queue.
+//      closed loop : N users, each one starts its next request when the previous one completed
+//                    (optionally paced to one request every pacing interval).
+//
+// Coordinated omission: a load generator that waits for a slow response before sending the next request
+// doesn't send the requests which would have waited, so the stall is recorded once instead of by every
+// request it delays. To correct it, every request has an intended start time (from the arrival rate or
+// the pacing) and its corrected latency is measured from the intended start, not from the moment it was
+// actually sent. The uncorrected latency (from the actual start) is recorded too, for comparison.
+// A closed loop without pacing has no intended start times, both latencies are the same there.
+public class LoadGenerator {
+
+    public static final int DEFAULT_MAX_IN_FLIGHT = 10_000;
+
+    private final LoadTarget target;
+    private final int maxInFlight;
+
+    public LoadGenerator(LoadTarget target) {
+        this(target, DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    // an open loop waits for a request to complete before sending more than maxInFlight (the wait is
+    // still included in the corrected latency)
+    public LoadGenerator(LoadTarget target, int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be at least 1 : " + maxInFlight);
+        }
+        this.target = target;
+        this.maxInFlight = maxInFlight;
+    }
+
+    public LoadReport runOpenLoop(double requestsPerSecond, Duration duration) throws InterruptedException {
+        if (requestsPerSecond <= 0) {
+            throw new IllegalArgumentException("requestsPerSecond must be > 0 : " + requestsPerSecond);
+        }
+        long requestCount = (long) (requestsPerSecond * duration.toNanos() / 1e9);
+        double intervalNanos = 1e9 / requestsPerSecond;
+        Recorder recorder = new Recorder();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        long startNanos = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long requestNumber = 0; requestNumber < requestCount; requestNumber++) {
+                long intendedStartNanos = startNanos + (long) (requestNumber * intervalNanos);
+                sleepUntil(intendedStartNanos);
+                inFlight.acquire();
+                long number = requestNumber;
+                executor.execute(() -> {
+                    try {
+                        recorder.execute(number, intendedStartNanos);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+        return recorder.report(String.format("open loop, %.1f requests/s for %d s", requestsPerSecond, duration.toSeconds()),
+                System.nanoTime() - startNanos);
+    }
+
+    // pacing Duration.ZERO : back to back requests
+    public LoadReport runClosedLoop(int users, Duration duration, Duration pacing) throws InterruptedException {
+        if (users < 1) {
+            throw new IllegalArgumentException("users must be at least 1 : " + users);
+        }
+        Recorder recorder = new Recorder();
+        AtomicLong requestNumbers = new AtomicLong();
+        long pacingNanos = pacing.toNanos();
+        long startNanos = System.nanoTime();
+        long endNanos = startNanos + duration.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int user = 0; user < users; user++) {
+                // paced users are spread over the first interval instead of all starting at once
+                long firstStartNanos = startNanos + pacingNanos * user / users;
+                executor.execute(() -> {
+                    long intendedStartNanos = firstStartNanos;
+                    try {
+                        while (pacingNanos > 0 ? intendedStartNanos - endNanos < 0 : System.nanoTime() - endNanos < 0) {
+                            if (pacingNanos > 0) {
+                                sleepUntil(intendedStartNanos);
+                            } else {
+                                intendedStartNanos = System.nanoTime();
+                            }
+                            recorder.execute(requestNumbers.getAndIncrement(), intendedStartNanos);
+                            intendedStartNanos += pacingNanos;
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+        }
+        return recorder.report(String.format("closed loop, %d users%s for %d s", users,
+                        pacingNanos > 0 ? " paced every " + pacing.toMillis() + " ms" : "", duration.toSeconds()),
+                System.nanoTime() - startNanos);
+    }
+
+    private static void sleepUntil(long deadlineNanos) throws InterruptedException {
+        long remainingNanos;
+        while ((remainingNanos = deadlineNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remainingNanos);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    // results of one run, recorded from the request threads
+    private final class Recorder {
+        private final LatencyHistogram correctedHistogram = new LatencyHistogram();
+        private final LatencyHistogram uncorrectedHistogram = new LatencyHistogram();
+        private final LongAdder errorCount = new LongAdder();
+        private final AtomicReference<Throwable> firstError = new AtomicReference<>();
+
+        private void execute(long requestNumber, long intendedStartNanos) {
+            long startNanos = System.nanoTime();
+            try {
+                Object result = target.call(requestNumber);
+                if (result instanceof CompletionStage<?> completionStage) {
+                    completionStage.toCompletableFuture().join();
+                }
+                long endNanos = System.nanoTime();
+                correctedHistogram.record(endNanos - intendedStartNanos);
+                uncorrectedHistogram.record(endNanos - startNanos);
+            } catch (Exception e) {
+                errorCount.increment();
+                firstError.compareAndSet(null, e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+            }
+        }
+
+        private LoadReport report(String description, long elapsedNanos) {
+            return new LoadReport(description, elapsedNanos, correctedHistogram, uncorrectedHistogram,
+                    errorCount.sum(), firstError.get());
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.learnjava.loadgen;
+
+import com.learnjava.metrics.HistogramSnapshot;
+import com.learnjava.metrics.LatencyHistogram;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static com.learnjava.util.LoggerUtil.log;
+
+// Result of a LoadGenerator run: throughput, errors and the latency distribution of the successful requests,
+// corrected for coordinated omission (from the intended start) and uncorrected (from the actual start).
+public class LoadReport {
+
+    private static final double[] PERCENTILES = {50.0, 75.0, 90.0, 95.0, 99.0, 99.9, 99.99};
+
+    private final String description;
+    private final long elapsedNanos;
+    private final LatencyHistogram correctedHistogram;
+    private final LatencyHistogram uncorrectedHistogram;
+    private final long errorCount;
+    private final Throwable firstError;
+
+    LoadReport(String description, long elapsedNanos, LatencyHistogram correctedHistogram,
+               LatencyHistogram uncorrectedHistogram, long errorCount, Throwable firstError) {
+        this.description = description;
+        this.elapsedNanos = elapsedNanos;
+        this.correctedHistogram = correctedHistogram;
+        this.uncorrectedHistogram = uncorrectedHistogram;
+        this.errorCount = errorCount;
+        this.firstError = firstError;
+    }
+
+    public long successCount() {
+        return correctedHistogram.count();
+    }
+
+    public long errorCount() {
+        return errorCount;
+    }
+
+    public long requestCount() {
+        return successCount() + errorCount;
+    }
+
+    // first error of the run, null if there was none
+    public Throwable firstError() {
+        return firstError;
+    }
+
+    public double errorRate() {
+        return requestCount() == 0 ? 0.0 : (double) errorCount / requestCount();
+    }
+
+    // completed requests (successful or not) per second, over the whole run including the last responses
+    public double throughput() {
+        return requestCount() * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    public HistogramSnapshot corrected() {
+        return correctedHistogram.snapshot();
+    }
+
+    public HistogramSnapshot uncorrected() {
+        return uncorrectedHistogram.snapshot();
+    }
+
+    public String percentileTable() {
+        long correctedMaxNanos = corrected().maxNanos();
+        long uncorrectedMaxNanos = uncorrected().maxNanos();
+        StringBuilder table = new StringBuilder(String.format("%12s %16s %16s%n", "percentile", "corrected (ms)", "uncorrected (ms)"));
+        for (double percentile : PERCENTILES) {
+            table.append(String.format("%12s %16.3f %16.3f%n", percentile,
+                    HistogramSnapshot.toMillis(Math.min(correctedHistogram.valueAtPercentile(percentile), correctedMaxNanos)),
+                    HistogramSnapshot.toMillis(Math.min(uncorrectedHistogram.valueAtPercentile(percentile), uncorrectedMaxNanos))));
+        }
+        table.append(String.format("%12s %16.3f %16.3f%n", "max",
+                HistogramSnapshot.toMillis(correctedMaxNanos), HistogramSnapshot.toMillis(uncorrectedMaxNanos)));
+        return table.toString();
+    }
+
+    public void logReport() {
+        log(String.format("Load test (%s) : %d requests, %d errors (%.2f%%), %.1f requests/s, %.1f s%n%s",
+                description, requestCount(), errorCount, errorRate() * 100, throughput(),
+                elapsedNanos / 1e9, percentileTable())
+                + (firstError == null ? "" : "first error : " + firstError));
+    }
+
+    // Corrected distribution in the text format of HdrHistogram's outputPercentileDistribution (values in ms),
+    // one line per non empty bucket, so it can be plotted with the usual HdrHistogram tools.
+    public void writePercentileDistribution(Path file) throws IOException {
+        long[] bucketCounts = correctedHistogram.bucketCounts();
+        long totalCount = 0;
+        for (long count : bucketCounts) {
+            totalCount += count;
+        }
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            writer.printf("%12s %14s %10s %14s%n%n", "Value", "Percentile", "TotalCount", "1/(1-Percentile)");
+            long runningCount = 0;
+            for (int index = 0; index < bucketCounts.length; index++) {
+                if (bucketCounts[index] == 0) {
+                    continue;
+                }
+                runningCount += bucketCounts[index];
+                double percentile = (double) runningCount / totalCount;
+                double value = HistogramSnapshot.toMillis(LatencyHistogram.bucketHighestValue(index));
+                if (runningCount < totalCount) {
+                    writer.printf("%12.3f %2.12f %10d %14.2f%n", value, percentile, runningCount, 1 / (1 - percentile));
+                } else {
+                    writer.printf("%12.3f %2.12f %10d%n", value, percentile, runningCount);
+                }
+            }
+            HistogramSnapshot snapshot = corrected();
+            writer.printf("#[Mean    = %12.3f, Max            = %12.3f]%n",
+                    HistogramSnapshot.toMillis(snapshot.meanNanos()), HistogramSnapshot.toMillis(snapshot.maxNanos()));
+            writer.printf("#[Total count    = %12d, Errors         = %12d]%n", totalCount, errorCount);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("LoadReport[%s, requests=%d, errors=%d, throughput=%.1f/s, corrected={%s}, uncorrected={%s}]",
+                description, requestCount(), errorCount, throughput(), corrected(), uncorrected());
+    }
+}
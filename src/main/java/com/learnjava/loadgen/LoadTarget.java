@@ -0,0 +1,10 @@
+package com.learnjava.loadgen;
+
+// One request of a load test, e.g. requestNumber -> productService.retrieveProductDetails("PRODUCT-" + requestNumber).
+// The request is complete when call() returns, or, if it returns a CompletionStage, when that completes.
+// An exception (or a failed CompletionStage) counts as an error.
+@FunctionalInterface
+public interface LoadTarget {
+
+    Object call(long requestNumber) throws Exception;
+}
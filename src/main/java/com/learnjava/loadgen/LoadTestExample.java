@@ -0,0 +1,63 @@
+package com.learnjava.loadgen;
+
+import com.learnjava.checkout.CheckoutService;
+import com.learnjava.completableFuture.ProductServiceWithInventoryUsingCompletableFuture;
+import com.learnjava.executorService.ExecutorRegistry;
+import com.learnjava.executorService.ProductServiceUsingExecutor;
+import com.learnjava.service.InventoryService;
+import com.learnjava.service.PriceValidatorService;
+import com.learnjava.service.ProductInfoService;
+import com.learnjava.service.ReviewService;
+import com.learnjava.util.DataSet;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static com.learnjava.util.LoggerUtil.log;
+
+// Load test of the in process services (with their simulated latencies).
+// usage : LoadTestExample <executor|completableFuture|checkout> <open|closed> <requests per second|users> <seconds> [percentile file]
+//      e.g. LoadTestExample executor open 500 30 executor-500.hgrm
+public class LoadTestExample {
+
+    public static void main(String[] args) throws InterruptedException, IOException {
+        String service = args.length > 0 ? args[0] : "executor";
+        String mode = args.length > 1 ? args[1] : "open";
+        double load = args.length > 2 ? Double.parseDouble(args[2]) : 50;
+        Duration duration = Duration.ofSeconds(args.length > 3 ? Long.parseLong(args[3]) : 10);
+
+        LoadGenerator loadGenerator = new LoadGenerator(target(service));
+        LoadReport loadReport = mode.equals("open")
+                ? loadGenerator.runOpenLoop(load, duration)
+                : loadGenerator.runClosedLoop((int) load, duration, Duration.ZERO);
+        loadReport.logReport();
+        if (args.length > 4) {
+            loadReport.writePercentileDistribution(Path.of(args[4]));
+            log("Percentile distribution written to " + args[4]);
+        }
+        ExecutorRegistry.defaultRegistry().shutdown(Duration.ofSeconds(5));
+    }
+
+    private static LoadTarget target(String service) {
+        ProductInfoService productInfoService = new ProductInfoService();
+        ReviewService reviewService = new ReviewService();
+        return switch (service) {
+            case "executor" -> {
+                ProductServiceUsingExecutor productService = new ProductServiceUsingExecutor(productInfoService, reviewService);
+                yield requestNumber -> productService.retrieveProductDetails("PRODUCT-" + requestNumber);
+            }
+            case "completableFuture" -> {
+                ProductServiceWithInventoryUsingCompletableFuture productService =
+                        new ProductServiceWithInventoryUsingCompletableFuture(productInfoService, reviewService, new InventoryService());
+                yield requestNumber -> productService.retrieveProductDetailsAsync("PRODUCT-" + requestNumber);
+            }
+            case "checkout" -> {
+                CheckoutService checkoutService = new CheckoutService(new PriceValidatorService());
+                // items 1 to 5 are all valid
+                yield requestNumber -> checkoutService.checkout(DataSet.createCart(5));
+            }
+            default -> throw new IllegalArgumentException("Unknown service : " + service);
+        };
+    }
+}
@@ -0,0 +1,18 @@
+package com.learnjava.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+// snapshot of a LatencyHistogram, all values in nanoseconds
+public record HistogramSnapshot(long count, long meanNanos, long p50Nanos, long p90Nanos, long p99Nanos, long p999Nanos, long maxNanos) {
+
+    @Override
+    public String toString() {
+        return String.format("count=%d mean=%.2fms p50=%.2fms p90=%.2fms p99=%.2fms p999=%.2fms max=%.2fms",
+                count, toMillis(meanNanos), toMillis(p50Nanos), toMillis(p90Nanos), toMillis(p99Nanos),
+                toMillis(p999Nanos), toMillis(maxNanos));
+    }
+
+    public static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,122 @@
+package com.learnjava.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Lock free latency histogram (values in nanoseconds), safe to record from any number of threads.
+// Buckets are log-linear (HdrHistogram style): values below 128 have their own bucket, above that every
+// power of 2 range is split into 64 sub buckets, so a recorded value is off by at most ~1.5%.
+// Recording is a couple of shifts and one atomic increment, no allocation.
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_HALF_COUNT = 1 << (SUB_BUCKET_BITS - 1);
+    private static final int BUCKET_COUNT = (63 - SUB_BUCKET_BITS + 1) * SUB_BUCKET_HALF_COUNT + 2 * SUB_BUCKET_HALF_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketIndex(value));
+        totalCount.incrementAndGet();
+        totalNanos.addAndGet(value);
+        if (value > maxNanos.get()) {
+            maxNanos.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    public long count() {
+        return totalCount.get();
+    }
+
+    // value (in nanoseconds) below which the given percentage (0 - 100) of the recorded values fall
+    public long valueAtPercentile(double percentile) {
+        long[] countsCopy = copyCounts();
+        long total = 0;
+        for (long count : countsCopy) {
+            total += count;
+        }
+        return valueAtPercentile(countsCopy, total, percentile);
+    }
+
+    // consistent enough view for reporting, concurrent recordings may or may not be included
+    public HistogramSnapshot snapshot() {
+        long[] countsCopy = copyCounts();
+        long total = 0;
+        for (long count : countsCopy) {
+            total += count;
+        }
+        long max = maxNanos.get();
+        return new HistogramSnapshot(
+                total,
+                total == 0 ? 0 : totalNanos.get() / Math.max(1, totalCount.get()),
+                Math.min(max, valueAtPercentile(countsCopy, total, 50.0)),
+                Math.min(max, valueAtPercentile(countsCopy, total, 90.0)),
+                Math.min(max, valueAtPercentile(countsCopy, total, 99.0)),
+                Math.min(max, valueAtPercentile(countsCopy, total, 99.9)),
+                max);
+    }
+
+    // count of values recorded in each bucket together with the bucket's highest value,
+    // used to write full percentile distributions
+    public long[] bucketCounts() {
+        return copyCounts();
+    }
+
+    public static long bucketHighestValue(int index) {
+        return highestEquivalentValue(index);
+    }
+
+    public void reset() {
+        for (int index = 0; index < BUCKET_COUNT; index++) {
+            counts.set(index, 0);
+        }
+        totalCount.set(0);
+        totalNanos.set(0);
+        maxNanos.set(0);
+    }
+
+    private long[] copyCounts() {
+        long[] countsCopy = new long[BUCKET_COUNT];
+        for (int index = 0; index < BUCKET_COUNT; index++) {
+            countsCopy[index] = counts.get(index);
+        }
+        return countsCopy;
+    }
+
+    private static long valueAtPercentile(long[] countsCopy, long total, double percentile) {
+        if (total == 0) {
+            return 0;
+        }
+        long countAtPercentile = Math.max(1, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * total));
+        long runningCount = 0;
+        for (int index = 0; index < countsCopy.length; index++) {
+            runningCount += countsCopy[index];
+            if (runningCount >= countAtPercentile) {
+                return highestEquivalentValue(index);
+            }
+        }
+        return highestEquivalentValue(countsCopy.length - 1);
+    }
+
+    static int bucketIndex(long value) {
+        if (value < 2 * SUB_BUCKET_HALF_COUNT) {
+            return (int) value;
+        }
+        int shift = (63 - Long.numberOfLeadingZeros(value)) - (SUB_BUCKET_BITS - 1);
+        return shift * SUB_BUCKET_HALF_COUNT + (int) (value >>> shift);
+    }
+
+    static long highestEquivalentValue(int index) {
+        if (index < 2 * SUB_BUCKET_HALF_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_HALF_COUNT - 1;
+        long subBucket = index - (long) shift * SUB_BUCKET_HALF_COUNT;
+        long lowestValue = subBucket << shift;
+        return lowestValue + (1L << shift) - 1;
+    }
+}
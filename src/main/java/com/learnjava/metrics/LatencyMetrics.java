@@ -0,0 +1,89 @@
+package com.learnjava.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import static com.learnjava.util.LoggerUtil.log;
+
+// Registry of named latency histograms, one per service stage (e.g. "ProductService.productInfo").
+// Every call gets its own Timer, so any number of concurrent requests can be timed at the same time
+// (unlike the single static StopWatch every service shared before).
+//
+// usage:
+//      LatencyMetrics.Timer requestTimer = metrics.start("ProductService.request");
+//      ProductInfo productInfo = metrics.time("ProductService.productInfo", () -> ...);
+//      requestTimer.stop();
+//      metrics.snapshot() / metrics.logSnapshot()
+public class LatencyMetrics {
+
+    // stage names used by the product services
+    public static final String REQUEST = "request";
+    public static final String PRODUCT_INFO = "productInfo";
+    public static final String REVIEWS = "reviews";
+    public static final String INVENTORY = "inventory";
+    public static final String COMBINE = "combine";
+
+    private static final LatencyMetrics DEFAULT_METRICS = new LatencyMetrics();
+
+    private final ConcurrentHashMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    // metrics shared by all the services
+    public static LatencyMetrics defaultMetrics() {
+        return DEFAULT_METRICS;
+    }
+
+    public static String stageName(Class<?> serviceClass, String stage) {
+        return serviceClass.getSimpleName() + "." + stage;
+    }
+
+    public LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, key -> new LatencyHistogram());
+    }
+
+    public Timer start(String name) {
+        return new Timer(histogram(name));
+    }
+
+    public <T> T time(String name, Supplier<T> supplier) {
+        Timer timer = start(name);
+        try {
+            return supplier.get();
+        } finally {
+            timer.stop();
+        }
+    }
+
+    // sorted by name
+    public Map<String, HistogramSnapshot> snapshot() {
+        Map<String, HistogramSnapshot> snapshot = new TreeMap<>();
+        histograms.forEach((name, histogram) -> snapshot.put(name, histogram.snapshot()));
+        return snapshot;
+    }
+
+    public void logSnapshot() {
+        snapshot().forEach((name, histogramSnapshot) -> log(name + " : " + histogramSnapshot));
+    }
+
+    public void reset() {
+        histograms.values().forEach(LatencyHistogram::reset);
+    }
+
+    // times a single call, not meant to be shared between threads
+    public static final class Timer {
+        private final LatencyHistogram histogram;
+        private final long startNanos = System.nanoTime();
+
+        private Timer(LatencyHistogram histogram) {
+            this.histogram = histogram;
+        }
+
+        // records the elapsed time and returns it in milliseconds
+        public long stop() {
+            long elapsedNanos = System.nanoTime() - startNanos;
+            histogram.record(elapsedNanos);
+            return elapsedNanos / 1_000_000;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.learnjava.parallel;
+
+import com.learnjava.parallel.ParallelMapper.Strategy;
+import com.learnjava.util.LogLevel;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static com.learnjava.util.CommonUtil.noOfCores;
+import static com.learnjava.util.LoggerUtil.log;
+
+// ParallelMapper which picks the strategy per call of map():
+//      1. the first few elements (up to sampleSize) are transformed sequentially, measuring the wall clock time and the
+//         cpu time of the calling thread.
+//      2. estimated remaining work (cost per element * remaining elements) too small to pay for the
+//         fan out                                           -> SEQUENTIAL
+//         most of the time was spent waiting (blocking I/O) -> VIRTUAL_THREADS (not limited by the cores)
+//         otherwise (cpu bound)                             -> FORK_JOIN (one chunk per core, more if stolen)
+// The results of the sampled elements are kept, they are not transformed again.
+public class AdaptiveParallelMapper<T, R> implements ParallelMapper<T, R> {
+
+    // below this total work, creating tasks and waking up workers costs more than it saves
+    private static final long MIN_PARALLEL_WORK_NANOS = 200_000;
+    // share of the sampled time spent off cpu above which the transform is treated as blocking
+    private static final double BLOCKING_RATIO = 0.5;
+    private static final int DEFAULT_SAMPLE_SIZE = 3;
+
+    private static final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+    private final Function<? super T, ? extends R> transform;
+    private final int sampleSize;
+    private volatile Strategy lastStrategy;
+
+    public AdaptiveParallelMapper(Function<? super T, ? extends R> transform) {
+        this(transform, DEFAULT_SAMPLE_SIZE);
+    }
+
+    public AdaptiveParallelMapper(Function<? super T, ? extends R> transform, int sampleSize) {
+        if (sampleSize < 1) {
+            throw new IllegalArgumentException("sampleSize must be >= 1 : " + sampleSize);
+        }
+        this.transform = transform;
+        this.sampleSize = sampleSize;
+    }
+
+    @Override
+    public List<R> map(List<? extends T> input) {
+        // small inputs sample a single element, sampling is sequential and would eat up the gain
+        int sampled = Math.min(sampleSize, Math.max(1, input.size() / 8));
+        List<R> resultList = new ArrayList<>(input.size());
+
+        boolean cpuTimeSupported = threadMXBean.isCurrentThreadCpuTimeSupported();
+        long startCpuNanos = cpuTimeSupported ? threadMXBean.getCurrentThreadCpuTime() : 0;
+        long startNanos = System.nanoTime();
+        for (int index = 0; index < sampled; index++) {
+            resultList.add(transform.apply(input.get(index)));
+        }
+        long wallNanos = System.nanoTime() - startNanos;
+        long cpuNanos = cpuTimeSupported ? threadMXBean.getCurrentThreadCpuTime() - startCpuNanos : wallNanos;
+
+        List<? extends T> remaining = input.subList(sampled, input.size());
+        if (remaining.isEmpty()) {
+            lastStrategy = Strategy.SEQUENTIAL;
+            return resultList;
+        }
+        Strategy strategy = chooseStrategy(wallNanos / sampled, cpuNanos / sampled, remaining.size());
+        lastStrategy = strategy;
+        // every call of a hot path, so only at DEBUG (the message isn't even built otherwise)
+        log(LogLevel.DEBUG, () -> "AdaptiveParallelMapper : sampled " + sampled + " elements, wall " + wallNanos / sampled + " ns, cpu "
+                + cpuNanos / sampled + " ns per element, using " + strategy + " for " + remaining.size() + " elements");
+
+        resultList.addAll(ParallelMapper.<T, R>of(strategy, transform).map(remaining));
+        return resultList;
+    }
+
+    static Strategy chooseStrategy(long wallNanosPerElement, long cpuNanosPerElement, int remainingElements) {
+        long estimatedWorkNanos = wallNanosPerElement * remainingElements;
+        if (remainingElements < 2 || estimatedWorkNanos < MIN_PARALLEL_WORK_NANOS) {
+            return Strategy.SEQUENTIAL;
+        }
+        double blockedRatio = wallNanosPerElement == 0 ? 0 : 1 - (double) cpuNanosPerElement / wallNanosPerElement;
+        if (blockedRatio > BLOCKING_RATIO) {
+            return Strategy.VIRTUAL_THREADS;
+        }
+        // a single core machine gains nothing from forking cpu bound work
+        return noOfCores() > 1 ? Strategy.FORK_JOIN : Strategy.SEQUENTIAL;
+    }
+
+    // strategy picked by the last call of map(), null before the first call
+    public Strategy getLastStrategy() {
+        return lastStrategy;
+    }
+}
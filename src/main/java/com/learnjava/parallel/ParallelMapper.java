@@ -0,0 +1,93 @@
+package com.learnjava.parallel;
+
+import com.learnjava.forkjoin.RecursiveTransformTask;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Applies a transform to every element of a list and returns the results in the order of the input.
+// The engine doing the work is interchangeable, see Strategy, so the same transform can be run
+// sequentially, on the cores (cpu bound work) or on virtual threads (blocking work).
+//
+// usage:
+//      ParallelMapper<String, String> mapper = ParallelMapper.of(Strategy.AUTO, CommonUtil::transForm);
+//      List<String> resultList = mapper.map(names);
+//
+// Exceptions thrown by the transform are rethrown by map() (CompletionException is unwrapped).
+@FunctionalInterface
+public interface ParallelMapper<T, R> {
+
+    enum Strategy {
+        SEQUENTIAL,
+        // ForkJoinPool.commonPool(), parallelism = noOfCores - 1
+        PARALLEL_STREAM,
+        // RecursiveTransformTask on ForkJoinPool.commonPool() with the auto-tuned threshold
+        FORK_JOIN,
+        // a CompletableFuture per element on ForkJoinPool.commonPool() (use completableFuture() for another executor)
+        COMPLETABLE_FUTURE,
+        // a virtual thread per element, for blocking transforms (remote calls, delay etc.)
+        VIRTUAL_THREADS,
+        // samples the cost of the transform and picks one of the above, see AdaptiveParallelMapper
+        AUTO
+    }
+
+    List<R> map(List<? extends T> input);
+
+    static <T, R> ParallelMapper<T, R> of(Strategy strategy, Function<? super T, ? extends R> transform) {
+        return switch (strategy) {
+            case SEQUENTIAL -> sequential(transform);
+            case PARALLEL_STREAM -> parallelStream(transform);
+            case FORK_JOIN -> forkJoin(transform, ForkJoinPool.commonPool(), RecursiveTransformTask.AUTO_THRESHOLD);
+            case COMPLETABLE_FUTURE -> completableFuture(transform, ForkJoinPool.commonPool());
+            case VIRTUAL_THREADS -> virtualThreads(transform);
+            case AUTO -> new AdaptiveParallelMapper<>(transform);
+        };
+    }
+
+    static <T, R> ParallelMapper<T, R> sequential(Function<? super T, ? extends R> transform) {
+        return input -> input.stream().<R>map(transform).collect(Collectors.toList());
+    }
+
+    static <T, R> ParallelMapper<T, R> parallelStream(Function<? super T, ? extends R> transform) {
+        // collect() of an ordered parallel stream keeps the order of the input
+        return input -> input.parallelStream().<R>map(transform).collect(Collectors.toList());
+    }
+
+    static <T, R> ParallelMapper<T, R> forkJoin(Function<? super T, ? extends R> transform, ForkJoinPool forkJoinPool, int threshold) {
+        return input -> RecursiveTransformTask.transform(forkJoinPool, input, transform, threshold);
+    }
+
+    static <T, R> ParallelMapper<T, R> completableFuture(Function<? super T, ? extends R> transform, Executor executor) {
+        return input -> joinAll(input.stream()
+                .map(element -> CompletableFuture.<R>supplyAsync(() -> transform.apply(element), executor))
+                .collect(Collectors.toList()));
+    }
+
+    static <T, R> ParallelMapper<T, R> virtualThreads(Function<? super T, ? extends R> transform) {
+        return input -> {
+            // executor is closed (and waits for all the submitted tasks) at the end of try block
+            try (ExecutorService virtualThreadExecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+                return ParallelMapper.<T, R>completableFuture(transform, virtualThreadExecutor).map(input);
+            }
+        };
+    }
+
+    // all the futures are submitted before the first join, so they run in parallel
+    private static <R> List<R> joinAll(List<CompletableFuture<R>> futureList) {
+        try {
+            return futureList.stream().map(CompletableFuture::join).collect(Collectors.toList());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
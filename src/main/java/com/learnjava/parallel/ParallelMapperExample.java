@@ -0,0 +1,42 @@
+package com.learnjava.parallel;
+
+import com.learnjava.parallel.ParallelMapper.Strategy;
+import com.learnjava.util.CommonUtil;
+import com.learnjava.util.DataSet;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static com.learnjava.util.CommonUtil.startTimer;
+import static com.learnjava.util.CommonUtil.timeTaken;
+import static com.learnjava.util.LoggerUtil.log;
+
+// same name length transform as StringTransformExample and ForkJoinUsingRecursion, with every strategy
+public class ParallelMapperExample {
+
+    public static void main(String[] args) {
+
+        List<String> names = DataSet.namesList();
+        for (Strategy strategy : Strategy.values()) {
+            startTimer();
+            List<String> resultList = ParallelMapper.of(strategy, CommonUtil::addNameLengthTransform).map(names);
+            log(strategy + " Final Result : " + resultList);
+            timeTaken();
+        }
+
+        // cpu bound transform, auto mode picks the fork/join pool instead of virtual threads
+        AdaptiveParallelMapper<Integer, Long> cpuBoundMapper = new AdaptiveParallelMapper<>(ParallelMapperExample::sumOfDivisors);
+        List<Long> sums = cpuBoundMapper.map(IntStream.rangeClosed(100_000, 102_000).boxed().toList());
+        log("sum of divisors of 102000 : " + sums.get(sums.size() - 1) + ", strategy : " + cpuBoundMapper.getLastStrategy());
+    }
+
+    private static long sumOfDivisors(int number) {
+        long sum = 0;
+        for (int divisor = 1; divisor <= number; divisor++) {
+            if (number % divisor == 0) {
+                sum += divisor;
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,201 @@
+package com.learnjava.service;
+
+import com.learnjava.domain.Inventory;
+import com.learnjava.domain.ProductOption;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.learnjava.util.LoggerUtil.log;
+
+// Batching (DataLoader style) front end of InventoryService.
+// Individual addInventory_CF() calls are collected for batchWindowMillis (or until maxBatchSize distinct
+// options are collected) and then sent to InventoryService.addInventoryBulk() as a single call.
+// Options with the same productionOptionId requested in the same batch are sent only once, and every
+// caller gets its own copy of the result of that single request.
+//
+// usage: pass it wherever an InventoryService is expected, the async api (addInventory_CF) gets batched.
+public class BatchingInventoryService extends InventoryService implements AutoCloseable {
+
+    private final InventoryService inventoryService;
+    private final int maxBatchSize;
+    private final long batchWindowMillis;
+    private final ScheduledExecutorService batchTimer;
+    // bulk calls are blocking (500ms), so they run on virtual threads instead of the batch timer thread
+    private final ExecutorService bulkCallExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Object lock = new Object();
+    // guarded by lock
+    private Map<Integer, PendingInventory> pendingBatch = new LinkedHashMap<>();
+    private long batchGeneration;
+    private ScheduledFuture<?> scheduledFlush;
+    private boolean closed;
+
+    private final LongAdder requestCount = new LongAdder();
+    private final LongAdder dedupedRequestCount = new LongAdder();
+    private final LongAdder bulkCallCount = new LongAdder();
+
+    public BatchingInventoryService(InventoryService inventoryService, int maxBatchSize, long batchWindowMillis) {
+        if (maxBatchSize < 1 || batchWindowMillis < 0) {
+            throw new IllegalArgumentException("maxBatchSize must be >= 1 and batchWindowMillis >= 0");
+        }
+        this.inventoryService = inventoryService;
+        this.maxBatchSize = maxBatchSize;
+        this.batchWindowMillis = batchWindowMillis;
+        this.batchTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "inventory-batch-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Inventory> addInventory_CF(ProductOption productOption) {
+        requestCount.increment();
+        List<PendingInventory> batchToSend = null;
+        CompletableFuture<Inventory> inventoryFuture;
+
+        synchronized (lock) {
+            if (closed) {
+                throw new IllegalStateException("BatchingInventoryService is closed");
+            }
+            PendingInventory pendingInventory = pendingBatch.get(productOption.getProductionOptionId());
+            if (pendingInventory != null) {
+                dedupedRequestCount.increment();
+            } else {
+                pendingInventory = new PendingInventory(productOption);
+                pendingBatch.put(productOption.getProductionOptionId(), pendingInventory);
+                if (pendingBatch.size() == 1) {
+                    // first option of a new batch starts the window
+                    final long generation = batchGeneration;
+                    scheduledFlush = batchTimer.schedule(() -> flush(generation), batchWindowMillis, TimeUnit.MILLISECONDS);
+                }
+            }
+            inventoryFuture = pendingInventory.inventoryFuture;
+            if (pendingBatch.size() >= maxBatchSize) {
+                batchToSend = takeBatch();
+            }
+        }
+
+        if (batchToSend != null) {
+            send(batchToSend);
+        }
+        // every caller gets its own Inventory (it is set on its own ProductOption) through its own stage,
+        // so a caller cancelling its future doesn't cancel it for the other callers of the same option either
+        return inventoryFuture.thenApply(BatchingInventoryService::copyOf);
+    }
+
+    // addInventory_CF() doesn't block the caller either, a single thread waits for the bulk call of each batch
+    @Override
+    public CompletableFuture<Inventory> addInventoryAsync(ProductOption productOption) {
+        return addInventory_CF(productOption);
+    }
+
+    // blocking api, still batched with the other concurrent calls
+    @Override
+    public Inventory addInventory(ProductOption productOption) {
+        return addInventory_CF(productOption).join();
+    }
+
+    @Override
+    public List<Inventory> addInventoryBulk(List<ProductOption> productOptions) {
+        return inventoryService.addInventoryBulk(productOptions);
+    }
+
+    private void flush(long generation) {
+        List<PendingInventory> batchToSend;
+        synchronized (lock) {
+            // batch of this window was already sent because it reached maxBatchSize
+            if (generation != batchGeneration || pendingBatch.isEmpty()) {
+                return;
+            }
+            batchToSend = takeBatch();
+        }
+        send(batchToSend);
+    }
+
+    // must be called holding lock
+    private List<PendingInventory> takeBatch() {
+        List<PendingInventory> batch = new ArrayList<>(pendingBatch.values());
+        pendingBatch = new LinkedHashMap<>();
+        batchGeneration++;
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        return batch;
+    }
+
+    private void send(List<PendingInventory> batch) {
+        bulkCallCount.increment();
+        bulkCallExecutor.execute(() -> {
+            try {
+                List<ProductOption> productOptions = new ArrayList<>(batch.size());
+                batch.forEach(pendingInventory -> productOptions.add(pendingInventory.productOption));
+
+                List<Inventory> inventoryList = inventoryService.addInventoryBulk(productOptions);
+                for (int index = 0; index < batch.size(); index++) {
+                    batch.get(index).inventoryFuture.complete(inventoryList.get(index));
+                }
+            } catch (Exception e) {
+                log("Bulk inventory call failed for " + batch.size() + " options : " + e);
+                batch.forEach(pendingInventory -> pendingInventory.inventoryFuture.completeExceptionally(e));
+            }
+        });
+    }
+
+    public long getRequestCount() {
+        return requestCount.sum();
+    }
+
+    public long getDedupedRequestCount() {
+        return dedupedRequestCount.sum();
+    }
+
+    public long getBulkCallCount() {
+        return bulkCallCount.sum();
+    }
+
+    // sends whatever is pending and waits for the in-flight bulk calls, later calls are rejected
+    @Override
+    public void close() {
+        List<PendingInventory> batchToSend = null;
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (!pendingBatch.isEmpty()) {
+                batchToSend = takeBatch();
+            }
+        }
+        if (batchToSend != null) {
+            send(batchToSend);
+        }
+        batchTimer.shutdownNow();
+        bulkCallExecutor.close();
+    }
+
+    private static Inventory copyOf(Inventory inventory) {
+        return Inventory.builder()
+                .count(inventory.getCount()).build();
+    }
+
+    private static final class PendingInventory {
+        private final ProductOption productOption;
+        private final CompletableFuture<Inventory> inventoryFuture = new CompletableFuture<>();
+
+        private PendingInventory(ProductOption productOption) {
+            this.productOption = productOption;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.learnjava.service;
+
+import com.learnjava.cache.AsyncCache;
+import com.learnjava.cache.BloomFilter;
+import com.learnjava.cache.CacheStats;
+import com.learnjava.domain.checkout.CartItem;
+import com.learnjava.util.DataSet;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.learnjava.util.CommonUtil.startTimer;
+import static com.learnjava.util.CommonUtil.timeTaken;
+import static com.learnjava.util.LoggerUtil.log;
+
+// PriceValidatorService with two layers in front of the 500 ms validation, can be passed to CheckoutService:
+//      1. a BloomFilter of the known invalid item ids : an item whose id is not in the filter can't be invalid,
+//         so it is valid without any call (short circuit). Only the ids that might be invalid go further.
+//      2. an AsyncCache of the results by (itemId, rate) with a TTL : a repeated validation of the same item
+//         at the same rate is a map lookup, concurrent validations of the same item share a single call.
+// Without a filter every item goes through the cache.
+public class CachingPriceValidatorService extends PriceValidatorService {
+
+    private final BloomFilter knownInvalidItemIds;
+    private final AsyncCache<ValidationKey, Boolean> validationCache;
+    private final LongAdder requestCount = new LongAdder();
+    private final LongAdder shortCircuitCount = new LongAdder();
+
+    public CachingPriceValidatorService(PriceValidatorService priceValidatorService, int maxSize, Duration ttl) {
+        this(priceValidatorService, null, maxSize, ttl);
+    }
+
+    // knownInvalidItemIds must contain every id the downstream may reject, otherwise invalid items pass
+    public CachingPriceValidatorService(PriceValidatorService priceValidatorService, BloomFilter knownInvalidItemIds,
+                                        int maxSize, Duration ttl) {
+        this.knownInvalidItemIds = knownInvalidItemIds;
+        // validated with the non-blocking isCartItemInvalidAsync(), concurrent misses share the validation in flight
+        this.validationCache = new AsyncCache<>(
+                key -> priceValidatorService.isCartItemInvalidAsync(key.cartItem()),
+                maxSize, ttl);
+    }
+
+    @Override
+    public boolean isCartItemInvalid(CartItem cartItem) {
+        requestCount.increment();
+        if (knownInvalidItemIds != null && !knownInvalidItemIds.mightContain(cartItem.getItemId())) {
+            shortCircuitCount.increment();
+            return false;
+        }
+        return validationCache.join(new ValidationKey(cartItem));
+    }
+
+    // short circuited items and cache hits are completed right away, a miss completes when the downstream
+    // validation does, without blocking the caller. The cache hands out a copy of the cached result, so a
+    // caller cancelling it or timing it out doesn't change the result of the other carts.
+    @Override
+    public CompletableFuture<Boolean> isCartItemInvalidAsync(CartItem cartItem) {
+        requestCount.increment();
+        if (knownInvalidItemIds != null && !knownInvalidItemIds.mightContain(cartItem.getItemId())) {
+            shortCircuitCount.increment();
+            return CompletableFuture.completedFuture(false);
+        }
+        return validationCache.get(new ValidationKey(cartItem));
+    }
+
+    public ValidationStats stats() {
+        return new ValidationStats(requestCount.sum(), shortCircuitCount.sum(), validationCache.stats());
+    }
+
+    // the cart item is only carried for the downstream call, equality is by itemId and rate
+    private record ValidationKey(int itemId, double rate, CartItem cartItem) {
+
+        private ValidationKey(CartItem cartItem) {
+            this(cartItem.getItemId(), cartItem.getRate(), cartItem);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof ValidationKey key && itemId == key.itemId && Double.compare(rate, key.rate) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * itemId + Double.hashCode(rate);
+        }
+    }
+
+    // shortCircuitCount : answered by the filter, cacheStats : the other requests
+    public record ValidationStats(long requestCount, long shortCircuitCount, CacheStats cacheStats) {
+
+        public double shortCircuitRate() {
+            return requestCount == 0 ? 0.0 : (double) shortCircuitCount / requestCount;
+        }
+
+        // requests answered without a downstream call, by the filter or the cache
+        public double avoidedCallRate() {
+            return requestCount == 0 ? 0.0 : (double) (requestCount - cacheStats.missCount()) / requestCount;
+        }
+    }
+
+    public static void main(String[] args) {
+        CachingPriceValidatorService priceValidatorService = new CachingPriceValidatorService(new PriceValidatorService(),
+                BloomFilter.of(PriceValidatorService.INVALID_ITEM_IDS, 0.01), 10_000, Duration.ofMinutes(5));
+        List<CartItem> cartItems = DataSet.createCart(20).getCartItemList();
+
+        for (int run = 1; run <= 3; run++) {
+            startTimer();
+            long invalidItems = cartItems.stream().filter(priceValidatorService::isCartItemInvalid).count();
+            timeTaken();
+            log("Validation " + run + " : invalid items : " + invalidItems);
+        }
+        ValidationStats stats = priceValidatorService.stats();
+        log("Validation stats : " + stats + ", short circuit rate : " + stats.shortCircuitRate()
+                + ", avoided call rate : " + stats.avoidedCallRate());
+    }
+}
@@ -0,0 +1,50 @@
+package com.learnjava.service;
+
+import com.learnjava.cache.AsyncCache;
+import com.learnjava.cache.CacheStats;
+import com.learnjava.domain.ProductInfo;
+import com.learnjava.domain.ProductOption;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+// ProductInfoService with an AsyncCache in front of it, can be passed to any of the product services.
+// Concurrent calls for the same productId share a single call to the downstream productInfoService.
+public class CachingProductInfoService extends ProductInfoService {
+
+    private final AsyncCache<String, ProductInfo> productInfoCache;
+
+    // loaded with the non-blocking retrieveProductInfoAsync() of productInfoService : retrieveProductInfoAsync()
+    // returns right away also on a miss, the callers of the same productId share the load in flight
+    public CachingProductInfoService(ProductInfoService productInfoService, int maxSize, Duration ttl) {
+        this.productInfoCache = new AsyncCache<>(productInfoService::retrieveProductInfoAsync, maxSize, ttl);
+    }
+
+    @Override
+    public ProductInfo retrieveProductInfo(String productId) {
+        return copyOf(productInfoCache.join(productId));
+    }
+
+    @Override
+    public CompletableFuture<ProductInfo> retrieveProductInfoAsync(String productId) {
+        return productInfoCache.get(productId).thenApply(CachingProductInfoService::copyOf);
+    }
+
+    public CacheStats stats() {
+        return productInfoCache.stats();
+    }
+
+    // product services update the options (inventory) of the returned ProductInfo,
+    // so every caller gets its own copy instead of the cached instance.
+    private static ProductInfo copyOf(ProductInfo productInfo) {
+        List<ProductOption> productOptions = productInfo.getProductOptions().stream()
+                .map(productOption -> new ProductOption(productOption.getProductionOptionId(), productOption.getSize(),
+                        productOption.getColor(), productOption.getPrice(), productOption.getInventory()))
+                .collect(Collectors.toList());
+        return ProductInfo.builder().productId(productInfo.getProductId())
+                .productOptions(productOptions)
+                .build();
+    }
+}
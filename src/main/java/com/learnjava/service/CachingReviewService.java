@@ -0,0 +1,44 @@
+package com.learnjava.service;
+
+import com.learnjava.cache.AsyncCache;
+import com.learnjava.cache.CacheStats;
+import com.learnjava.domain.Review;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+// ReviewService with an AsyncCache in front of it, can be passed to any of the product services.
+// Concurrent calls for the same productId share a single call to the downstream reviewService.
+public class CachingReviewService extends ReviewService {
+
+    private final AsyncCache<String, Review> reviewCache;
+
+    // loaded with the non-blocking retrieveReviewsAsync() of reviewService : retrieveReviewsAsync() returns
+    // right away also on a miss, the callers of the same productId share the load in flight
+    public CachingReviewService(ReviewService reviewService, int maxSize, Duration ttl) {
+        this.reviewCache = new AsyncCache<>(reviewService::retrieveReviewsAsync, maxSize, ttl);
+    }
+
+    @Override
+    public Review retrieveReviews(String productId) {
+        Review review = reviewCache.join(productId);
+        return new Review(review.getNoOfReviews(), review.getOverallRating());
+    }
+
+    @Override
+    public CompletableFuture<Review> retrieveReviewsAsync(String productId) {
+        return reviewCache.get(productId)
+                .thenApply(review -> new Review(review.getNoOfReviews(), review.getOverallRating()));
+    }
+
+    // last review loaded for productId even if it is expired, null if there is none.
+    // e.g. fallback when the review service doesn't answer in time.
+    public Review retrieveStaleReviews(String productId) {
+        Review review = reviewCache.getStale(productId);
+        return review == null ? null : new Review(review.getNoOfReviews(), review.getOverallRating());
+    }
+
+    public CacheStats stats() {
+        return reviewCache.stats();
+    }
+}
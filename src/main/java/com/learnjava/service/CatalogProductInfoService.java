@@ -0,0 +1,35 @@
+package com.learnjava.service;
+
+import com.learnjava.domain.ProductInfo;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+// ProductInfoService reading from a local catalog (no remote call), can be passed to any of the
+// product services. The catalogLookup returns null for the products which are not in the catalog,
+// those are retrieved from the missingProductInfoService.
+public class CatalogProductInfoService extends ProductInfoService {
+
+    private final Function<String, ProductInfo> catalogLookup;
+    private final ProductInfoService missingProductInfoService;
+
+    public CatalogProductInfoService(Function<String, ProductInfo> catalogLookup, ProductInfoService missingProductInfoService) {
+        this.catalogLookup = catalogLookup;
+        this.missingProductInfoService = missingProductInfoService;
+    }
+
+    @Override
+    public ProductInfo retrieveProductInfo(String productId) {
+        ProductInfo productInfo = catalogLookup.apply(productId);
+        return productInfo != null ? productInfo : missingProductInfoService.retrieveProductInfo(productId);
+    }
+
+    // products of the catalog are completed right away, only the missing ones wait for the latency
+    @Override
+    public CompletableFuture<ProductInfo> retrieveProductInfoAsync(String productId) {
+        ProductInfo productInfo = catalogLookup.apply(productId);
+        return productInfo != null
+                ? CompletableFuture.completedFuture(productInfo)
+                : missingProductInfoService.retrieveProductInfoAsync(productId);
+    }
+}
@@ -0,0 +1,41 @@
+package com.learnjava.service;
+
+import com.learnjava.catalog.ColumnarCatalog;
+import com.learnjava.executorService.ExecutorRegistry;
+import com.learnjava.executorService.ProductServiceUsingExecutor;
+import com.learnjava.util.DataSet;
+
+import java.time.Duration;
+
+import static com.learnjava.util.LoggerUtil.log;
+
+// CatalogProductInfoService reading from an in memory ColumnarCatalog. Every call gets new option
+// views, so callers setting the inventory don't see each other's.
+public class ColumnarProductInfoService extends CatalogProductInfoService {
+
+    private final ColumnarCatalog catalog;
+
+    public ColumnarProductInfoService(ColumnarCatalog catalog, ProductInfoService missingProductInfoService) {
+        super(catalog::productInfo, missingProductInfoService);
+        this.catalog = catalog;
+    }
+
+    public ColumnarCatalog getCatalog() {
+        return catalog;
+    }
+
+    public static void main(String[] args) {
+
+        ColumnarCatalog catalog = ColumnarCatalog.of(DataSet.generateProductInfos(100_000, 6));
+        log("Catalog : " + catalog + ", estimated size in bytes : " + catalog.estimatedSizeInBytes());
+
+        ColumnarProductInfoService productInfoService = new ColumnarProductInfoService(catalog, new ProductInfoService());
+        ProductServiceUsingExecutor productService = new ProductServiceUsingExecutor(productInfoService, new ReviewService());
+        try {
+            log("Product is " + productService.retrieveProductDetails("PRODUCT-42"));
+        } catch (Exception e) {
+            log("Product retrieval failed : " + e);
+        }
+        ExecutorRegistry.defaultRegistry().shutdown(Duration.ofSeconds(5));
+    }
+}
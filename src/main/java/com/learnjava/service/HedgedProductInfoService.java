@@ -0,0 +1,45 @@
+package com.learnjava.service;
+
+import com.learnjava.domain.ProductInfo;
+import com.learnjava.hedging.HedgedRequest;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// ProductInfoService which sends hedged requests to several replicas of the product info service (first one is the primary),
+// can be passed to any of the product services.
+public class HedgedProductInfoService extends ProductInfoService implements AutoCloseable {
+
+    private final HedgedRequest<String, ProductInfo> hedgedRequest;
+
+    // e.g. hedgePercentile 95 -> backup request only if the primary is slower than 95% of the previous requests
+    public HedgedProductInfoService(List<ProductInfoService> replicas, double hedgePercentile, Duration initialHedgeDelay) {
+        // non-blocking calls to the replicas, a losing attempt is cancelled (removed from the latency timer)
+        List<Function<String, CompletableFuture<ProductInfo>>> replicaCalls = replicas.stream()
+                .map(replica -> (Function<String, CompletableFuture<ProductInfo>>) replica::retrieveProductInfoAsync)
+                .collect(Collectors.toList());
+        this.hedgedRequest = HedgedRequest.ofAsync(replicaCalls, hedgePercentile, initialHedgeDelay);
+    }
+
+    @Override
+    public ProductInfo retrieveProductInfo(String productId) {
+        return hedgedRequest.join(productId);
+    }
+
+    @Override
+    public CompletableFuture<ProductInfo> retrieveProductInfoAsync(String productId) {
+        return hedgedRequest.get(productId);
+    }
+
+    public HedgedRequest<String, ProductInfo> getHedgedRequest() {
+        return hedgedRequest;
+    }
+
+    @Override
+    public void close() {
+        hedgedRequest.close();
+    }
+}
@@ -0,0 +1,45 @@
+package com.learnjava.service;
+
+import com.learnjava.domain.Review;
+import com.learnjava.hedging.HedgedRequest;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// ReviewService which sends hedged requests to several replicas of the review service (first one is the primary),
+// can be passed to any of the product services.
+public class HedgedReviewService extends ReviewService implements AutoCloseable {
+
+    private final HedgedRequest<String, Review> hedgedRequest;
+
+    // e.g. hedgePercentile 95 -> backup request only if the primary is slower than 95% of the previous requests
+    public HedgedReviewService(List<ReviewService> replicas, double hedgePercentile, Duration initialHedgeDelay) {
+        // non-blocking calls to the replicas, a losing attempt is cancelled (removed from the latency timer)
+        List<Function<String, CompletableFuture<Review>>> replicaCalls = replicas.stream()
+                .map(replica -> (Function<String, CompletableFuture<Review>>) replica::retrieveReviewsAsync)
+                .collect(Collectors.toList());
+        this.hedgedRequest = HedgedRequest.ofAsync(replicaCalls, hedgePercentile, initialHedgeDelay);
+    }
+
+    @Override
+    public Review retrieveReviews(String productId) {
+        return hedgedRequest.join(productId);
+    }
+
+    @Override
+    public CompletableFuture<Review> retrieveReviewsAsync(String productId) {
+        return hedgedRequest.get(productId);
+    }
+
+    public HedgedRequest<String, Review> getHedgedRequest() {
+        return hedgedRequest;
+    }
+
+    @Override
+    public void close() {
+        hedgedRequest.close();
+    }
+}
@@ -1,33 +1,45 @@
 package com.learnjava.service;
 
+import com.learnjava.simulation.LatencySimulator;
+
+import java.time.Duration;
 import java.util.concurrent.CompletableFuture;
 
-import static com.learnjava.util.CommonUtil.delay;
 import static com.learnjava.util.LoggerUtil.log;
 
 public class HelloWorldService {
 
+    private final LatencySimulator latencySimulator;
+
+    public HelloWorldService() {
+        this(LatencySimulator.constant(Duration.ofMillis(1000)));
+    }
+
+    public HelloWorldService(LatencySimulator latencySimulator) {
+        this.latencySimulator = latencySimulator;
+    }
+
     public  String helloWorld() {
-        delay(1000);
+        latencySimulator.simulate("helloWorld");
         log("inside helloWorld");
         return "hello world";
     }
 
     public  String hello() {
-        delay(1000);
+        latencySimulator.simulate("hello");
         log("inside hello");
         return "hello";
     }
 
     public  String world() {
-        delay(1000);
+        latencySimulator.simulate("world");
         log("inside world");
         return " world!";
     }
 
     public CompletableFuture<String> worldFuture(String input) {
         return CompletableFuture.supplyAsync(()->{
-            delay(1000);
+            latencySimulator.simulate("worldFuture");
             return input+" world!";
         });
     }
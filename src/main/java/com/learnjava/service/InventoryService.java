@@ -2,26 +2,70 @@ package com.learnjava.service;
 
 import com.learnjava.domain.Inventory;
 import com.learnjava.domain.ProductOption;
+import com.learnjava.executorService.ExecutorRegistry;
+import com.learnjava.executorService.ExecutorRegistry.Downstream;
+import com.learnjava.simulation.LatencySimulator;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
-
-import static com.learnjava.util.CommonUtil.delay;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
 
 public class InventoryService {
+
+    // one latency per call, also for the bulk call
+    private final LatencySimulator latencySimulator;
+    // runs addInventory_CF(), by default the inventory bulkhead of the default ExecutorRegistry
+    private final Executor executor;
+
+    public InventoryService() {
+        this(LatencySimulator.constant(Duration.ofMillis(500)));
+    }
+
+    public InventoryService(LatencySimulator latencySimulator) {
+        this(latencySimulator, ExecutorRegistry.defaultRegistry().executorFor(Downstream.INVENTORY));
+    }
+
+    // to run addInventory_CF() on a different executor, caller owns its shutdown.
+    public InventoryService(LatencySimulator latencySimulator, Executor executor) {
+        this.latencySimulator = latencySimulator;
+        this.executor = executor;
+    }
+
     public Inventory addInventory(ProductOption productOption) {
-        delay(500);
+        latencySimulator.simulate("addInventory");
         return Inventory.builder()
                 .count(2).build();
 
     }
 
+    // runs on the executor (inventory bulkhead), not on ForkJoinPool.commonPool() shared with parallel streams.
+    // A thread of the executor is blocked during the latency, see addInventoryAsync().
     public CompletableFuture<Inventory> addInventory_CF(ProductOption productOption) {
 
         return CompletableFuture.supplyAsync(() -> {
-            delay(500);
+            latencySimulator.simulate("addInventory_CF");
             return Inventory.builder()
                     .count(2).build();
-        });
+        }, executor);
+
+    }
+
+    // non-blocking, completed by the timer of the LatencySimulator : no thread waits during the latency,
+    // so the number of calls in flight is not limited by the size of the inventory bulkhead
+    public CompletableFuture<Inventory> addInventoryAsync(ProductOption productOption) {
+        return latencySimulator.simulateAsync("addInventoryAsync", () -> Inventory.builder()
+                .count(2).build());
+    }
 
+    // bulk api, inventory of all the given productOptions in a single call (single latency of 500ms).
+    // returned list is in the same order as productOptions.
+    public List<Inventory> addInventoryBulk(List<ProductOption> productOptions) {
+        latencySimulator.simulate("addInventoryBulk");
+        return productOptions.stream()
+                .map(productOption -> Inventory.builder()
+                        .count(2).build())
+                .collect(Collectors.toList());
     }
 }
@@ -0,0 +1,39 @@
+package com.learnjava.service;
+
+import com.learnjava.catalog.MappedCatalogStore;
+import com.learnjava.util.DataSet;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static com.learnjava.util.CommonUtil.startTimer;
+import static com.learnjava.util.CommonUtil.timeTaken;
+import static com.learnjava.util.LoggerUtil.log;
+
+// CatalogProductInfoService reading from a memory mapped catalog file (MappedCatalogStore).
+public class MappedProductInfoService extends CatalogProductInfoService {
+
+    public MappedProductInfoService(MappedCatalogStore catalogStore, ProductInfoService missingProductInfoService) {
+        super(catalogStore::productInfo, missingProductInfoService);
+    }
+
+    public static void main(String[] args) throws IOException {
+
+        Path catalogFile = Files.createTempFile("catalog", ".bin");
+        startTimer();
+        MappedCatalogStore.write(catalogFile, DataSet.generateProductInfos(1_000_000, 6));
+        log("Catalog written to " + catalogFile + ", size in bytes : " + Files.size(catalogFile));
+        timeTaken();
+
+        startTimer();
+        try (MappedCatalogStore catalogStore = MappedCatalogStore.open(catalogFile)) {
+            // opening only maps the file, nothing is loaded on the heap
+            timeTaken();
+            MappedProductInfoService productInfoService = new MappedProductInfoService(catalogStore, new ProductInfoService());
+            log("ProductInfo is " + productInfoService.retrieveProductInfo("PRODUCT-424242"));
+        } finally {
+            Files.deleteIfExists(catalogFile);
+        }
+    }
+}
@@ -2,17 +2,36 @@ package com.learnjava.service;
 
 
 import com.learnjava.domain.checkout.CartItem;
+import com.learnjava.simulation.LatencySimulator;
 
-import static com.learnjava.util.CommonUtil.delay;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 public class PriceValidatorService {
 
+    // the only items this (simulated) validation rejects
+    public static final Set<Integer> INVALID_ITEM_IDS = Set.of(7, 9, 11);
+
+    private final LatencySimulator latencySimulator;
+
+    public PriceValidatorService() {
+        this(LatencySimulator.constant(Duration.ofMillis(500)));
+    }
+
+    public PriceValidatorService(LatencySimulator latencySimulator) {
+        this.latencySimulator = latencySimulator;
+    }
+
     public boolean isCartItemInvalid(CartItem cartItem){
         int cartId = cartItem.getItemId();
-        delay(500);
-        if (cartId == 7 || cartId == 9 || cartId == 11) {
-            return true;
-        }
-        return false;
+        latencySimulator.simulate("isCartItemInvalid");
+        return INVALID_ITEM_IDS.contains(cartId);
+    }
+
+    // non-blocking, completed by the timer of the LatencySimulator : no thread waits during the latency
+    public CompletableFuture<Boolean> isCartItemInvalidAsync(CartItem cartItem) {
+        int cartId = cartItem.getItemId();
+        return latencySimulator.simulateAsync("isCartItemInvalidAsync", () -> INVALID_ITEM_IDS.contains(cartId));
     }
 }
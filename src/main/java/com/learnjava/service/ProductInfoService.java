@@ -2,15 +2,35 @@ package com.learnjava.service;
 
 import com.learnjava.domain.ProductInfo;
 import com.learnjava.domain.ProductOption;
+import com.learnjava.simulation.LatencySimulator;
 
+import java.time.Duration;
 import java.util.List;
-
-import static com.learnjava.util.CommonUtil.delay;
+import java.util.concurrent.CompletableFuture;
 
 public class ProductInfoService {
 
+    private final LatencySimulator latencySimulator;
+
+    public ProductInfoService() {
+        this(LatencySimulator.constant(Duration.ofMillis(1000)));
+    }
+
+    public ProductInfoService(LatencySimulator latencySimulator) {
+        this.latencySimulator = latencySimulator;
+    }
+
     public ProductInfo retrieveProductInfo(String productId) {
-        delay(1000);
+        latencySimulator.simulate("retrieveProductInfo");
+        return productInfo(productId);
+    }
+
+    // non-blocking, completed by the timer of the LatencySimulator : no thread waits during the latency
+    public CompletableFuture<ProductInfo> retrieveProductInfoAsync(String productId) {
+        return latencySimulator.simulateAsync("retrieveProductInfoAsync", () -> productInfo(productId));
+    }
+
+    private ProductInfo productInfo(String productId) {
         List<ProductOption> productOptions = List.of(new ProductOption(1, "64GB", "Black", 699.99),
                 new ProductOption(2, "128GB", "Black", 749.99),
                 new ProductOption(3, "128GB", "Black", 749.99),
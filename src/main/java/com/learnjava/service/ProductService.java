@@ -3,12 +3,18 @@ package com.learnjava.service;
 import com.learnjava.domain.Product;
 import com.learnjava.domain.ProductInfo;
 import com.learnjava.domain.Review;
-import static com.learnjava.util.CommonUtil.stopWatch;
+import com.learnjava.metrics.LatencyMetrics;
+
+import static com.learnjava.metrics.LatencyMetrics.*;
 import static com.learnjava.util.LoggerUtil.log;
 
 public class ProductService {
+    private static final String REQUEST_METRIC = stageName(ProductService.class, REQUEST);
+    private static final String PRODUCT_INFO_METRIC = stageName(ProductService.class, PRODUCT_INFO);
+    private static final String REVIEWS_METRIC = stageName(ProductService.class, REVIEWS);
     private ProductInfoService productInfoService;
     private ReviewService reviewService;
+    private final LatencyMetrics metrics = LatencyMetrics.defaultMetrics();
 
     public ProductService(ProductInfoService productInfoService, ReviewService reviewService) {
         this.productInfoService = productInfoService;
@@ -16,14 +22,14 @@ public class ProductService {
     }
 
     public Product retrieveProductDetails(String productId) {
-        stopWatch.start();
-
-        ProductInfo productInfo = productInfoService.retrieveProductInfo(productId); // blocking call
-        Review review = reviewService.retrieveReviews(productId); // blocking call
-
-        stopWatch.stop();
-        log("Total Time Taken : "+ stopWatch.getTime());
-        return new Product(productId, productInfo, review);
+        LatencyMetrics.Timer requestTimer = metrics.start(REQUEST_METRIC);
+        try {
+            ProductInfo productInfo = metrics.time(PRODUCT_INFO_METRIC, () -> productInfoService.retrieveProductInfo(productId)); // blocking call
+            Review review = metrics.time(REVIEWS_METRIC, () -> reviewService.retrieveReviews(productId)); // blocking call
+            return new Product(productId, productInfo, review);
+        } finally {
+            log("Total Time Taken : "+ requestTimer.stop());
+        }
     }
 
     public static void main(String[] args) {
@@ -1,13 +1,30 @@
 package com.learnjava.service;
 
 import com.learnjava.domain.Review;
+import com.learnjava.simulation.LatencySimulator;
 
-import static com.learnjava.util.CommonUtil.delay;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
 
 public class ReviewService {
 
+    private final LatencySimulator latencySimulator;
+
+    public ReviewService() {
+        this(LatencySimulator.constant(Duration.ofMillis(1000)));
+    }
+
+    public ReviewService(LatencySimulator latencySimulator) {
+        this.latencySimulator = latencySimulator;
+    }
+
     public Review retrieveReviews(String productId) {
-        delay(1000);
+        latencySimulator.simulate("retrieveReviews");
         return new Review(200, 4.5);
     }
+
+    // non-blocking, completed by the timer of the LatencySimulator : no thread waits during the latency
+    public CompletableFuture<Review> retrieveReviewsAsync(String productId) {
+        return latencySimulator.simulateAsync("retrieveReviewsAsync", () -> new Review(200, 4.5));
+    }
 }
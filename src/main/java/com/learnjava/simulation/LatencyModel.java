@@ -0,0 +1,107 @@
+package com.learnjava.simulation;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Distribution of the simulated latency of a downstream call, sampled with the random generator of the
+// LatencySimulator (so a seeded simulator gives the same latencies again).
+//      constant  : always the same latency (what CommonUtil.delay() gave)
+//      uniform   : any latency between min and max
+//      logNormal : most calls close to the median, a long tail up to (and beyond) the p99,
+//                  the usual shape of real service latencies
+//      bimodal   : mix of two models, e.g. cache hits and misses, or GC pauses
+//      replay    : latencies recorded from a real service, returned in the order of the file
+public interface LatencyModel {
+
+    long sampleNanos(Random random);
+
+    static LatencyModel constant(Duration latency) {
+        return new Constant(latency.toNanos());
+    }
+
+    static LatencyModel uniform(Duration min, Duration max) {
+        if (max.compareTo(min) < 0) {
+            throw new IllegalArgumentException("max must be >= min : " + min + ", " + max);
+        }
+        return new Uniform(min.toNanos(), max.toNanos());
+    }
+
+    // e.g. logNormal(200 ms, 2 s) : half of the calls faster than 200 ms, 1% slower than 2 s
+    static LatencyModel logNormal(Duration median, Duration p99) {
+        if (median.isNegative() || median.isZero() || p99.compareTo(median) < 0) {
+            throw new IllegalArgumentException("median must be > 0 and p99 >= median : " + median + ", " + p99);
+        }
+        double mu = Math.log(median.toNanos());
+        // 2.326 is the 99th percentile of the standard normal distribution
+        double sigma = (Math.log(p99.toNanos()) - mu) / 2.326;
+        return new LogNormal(mu, sigma);
+    }
+
+    // slowProbability of the samples from slow, the others from fast
+    static LatencyModel bimodal(LatencyModel fast, LatencyModel slow, double slowProbability) {
+        if (slowProbability < 0 || slowProbability > 1) {
+            throw new IllegalArgumentException("slowProbability must be between 0 and 1 : " + slowProbability);
+        }
+        return new Bimodal(fast, slow, slowProbability);
+    }
+
+    // One latency in milliseconds per line (decimals allowed), empty lines and lines starting with # are
+    // skipped. The latencies are returned in the order of the file, starting again at the end.
+    static LatencyModel replay(Path file) throws IOException {
+        List<String> lines = Files.readAllLines(file);
+        long[] latencies = lines.stream()
+                .map(String::trim)
+                .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                .mapToLong(line -> Math.round(Double.parseDouble(line) * 1_000_000))
+                .toArray();
+        if (latencies.length == 0) {
+            throw new IllegalArgumentException("No latencies in " + file);
+        }
+        return new Replay(file.toString(), latencies, new AtomicLong());
+    }
+
+    record Constant(long nanos) implements LatencyModel {
+        @Override
+        public long sampleNanos(Random random) {
+            return nanos;
+        }
+    }
+
+    record Uniform(long minNanos, long maxNanos) implements LatencyModel {
+        @Override
+        public long sampleNanos(Random random) {
+            return minNanos == maxNanos ? minNanos : minNanos + (long) (random.nextDouble() * (maxNanos - minNanos));
+        }
+    }
+
+    record LogNormal(double mu, double sigma) implements LatencyModel {
+        @Override
+        public long sampleNanos(Random random) {
+            return (long) Math.exp(mu + sigma * random.nextGaussian());
+        }
+    }
+
+    record Bimodal(LatencyModel fast, LatencyModel slow, double slowProbability) implements LatencyModel {
+        @Override
+        public long sampleNanos(Random random) {
+            return random.nextDouble() < slowProbability ? slow.sampleNanos(random) : fast.sampleNanos(random);
+        }
+    }
+
+    record Replay(String source, long[] latencies, AtomicLong next) implements LatencyModel {
+        @Override
+        public long sampleNanos(Random random) {
+            return latencies[(int) (next.getAndIncrement() % latencies.length)];
+        }
+
+        @Override
+        public String toString() {
+            return "Replay[" + source + ", " + latencies.length + " latencies]";
+        }
+    }
+}
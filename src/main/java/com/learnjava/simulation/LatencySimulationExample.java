@@ -0,0 +1,42 @@
+package com.learnjava.simulation;
+
+import com.learnjava.loadgen.LoadGenerator;
+import com.learnjava.metrics.LatencyHistogram;
+import com.learnjava.service.InventoryService;
+import com.learnjava.service.ProductInfoService;
+import com.learnjava.service.ReviewService;
+import com.learnjava.virtualThread.ProductServiceUsingVirtualThreads;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static com.learnjava.util.LoggerUtil.log;
+import static java.time.Duration.ofMillis;
+
+// Percentiles of the latency models, then a load test of a product service whose downstreams have
+// a log-normal latency tail and 1% failures instead of the fixed 1 s delay.
+public class LatencySimulationExample {
+
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, LatencyModel> models = Map.of(
+                "constant 100ms", LatencyModel.constant(ofMillis(100)),
+                "uniform 50-150ms", LatencyModel.uniform(ofMillis(50), ofMillis(150)),
+                "logNormal median 100ms p99 1s", LatencyModel.logNormal(ofMillis(100), ofMillis(1000)),
+                "bimodal 95% 20ms / 5% 800ms", LatencyModel.bimodal(LatencyModel.constant(ofMillis(20)), LatencyModel.constant(ofMillis(800)), 0.05));
+        models.forEach((name, model) -> {
+            LatencySimulator latencySimulator = new LatencySimulator(model, 0.0, 42);
+            LatencyHistogram histogram = new LatencyHistogram();
+            for (int sample = 0; sample < 100_000; sample++) {
+                histogram.record(latencySimulator.nextDelayNanos());
+            }
+            log(name + " : " + histogram.snapshot());
+        });
+
+        ProductServiceUsingVirtualThreads productService = new ProductServiceUsingVirtualThreads(
+                new ProductInfoService(new LatencySimulator(LatencyModel.logNormal(ofMillis(100), ofMillis(1000)), 0.01, 1)),
+                new ReviewService(new LatencySimulator(LatencyModel.logNormal(ofMillis(50), ofMillis(500)), 0.01, 2)),
+                new InventoryService(new LatencySimulator(LatencyModel.uniform(ofMillis(20), ofMillis(80)), 0.0, 3)));
+        LoadGenerator loadGenerator = new LoadGenerator(requestNumber -> productService.retrieveProductDetails("PRODUCT-" + requestNumber));
+        loadGenerator.runOpenLoop(50, Duration.ofSeconds(5)).logReport();
+    }
+}
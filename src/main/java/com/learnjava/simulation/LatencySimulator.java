@@ -0,0 +1,114 @@
+package com.learnjava.simulation;
+
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static com.learnjava.util.CommonUtil.delay;
+
+// Simulated downstream call of a service: a latency sampled from a LatencyModel, then a failure
+// (SimulatedFailureException) with probability errorRate.
+// The random generator is seeded, so a run with the same seed (and the same order of calls) sees the same
+// latencies and failures. Can be shared between threads (java.util.Random is thread safe), the services
+// take it as constructor parameter, e.g.
+//      new ProductInfoService(new LatencySimulator(LatencyModel.logNormal(ofMillis(200), ofSeconds(2)), 0.01, 42))
+public class LatencySimulator {
+
+    // Single timer thread shared by all the simulators for simulateAsync(): a pending call is only an entry
+    // in the queue of the timer (no thread waits for it), so it can keep tens of thousands of calls in flight.
+    // Cancelled calls are removed from the queue right away.
+    private static final ScheduledThreadPoolExecutor latencyTimer = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "latency-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        latencyTimer.setRemoveOnCancelPolicy(true);
+    }
+
+    private final LatencyModel model;
+    private final double errorRate;
+    private final Random random;
+
+    public LatencySimulator(LatencyModel model, double errorRate, long seed) {
+        if (errorRate < 0 || errorRate > 1) {
+            throw new IllegalArgumentException("errorRate must be between 0 and 1 : " + errorRate);
+        }
+        this.model = model;
+        this.errorRate = errorRate;
+        this.random = new Random(seed);
+    }
+
+    // fixed latency and no failures, the default of the services
+    public static LatencySimulator constant(Duration latency) {
+        return new LatencySimulator(LatencyModel.constant(latency), 0.0, 0);
+    }
+
+    // blocks for the sampled latency, then throws SimulatedFailureException if this call fails
+    public void simulate(String operation) {
+        long delayNanos = nextDelayNanos();
+        boolean failure = nextFailure();
+        delay(Duration.ofNanos(delayNanos));
+        if (failure) {
+            throw new SimulatedFailureException("Simulated failure of " + operation);
+        }
+    }
+
+    // Non-blocking version of simulate(): the returned future is completed with result.get() (or failed with
+    // SimulatedFailureException) by the timer thread once the sampled latency has elapsed.
+    // Dependent stages without an executor (thenApply(), ...) also run on the timer thread, so they must be
+    // short, otherwise use the *Async() versions with an executor.
+    public <T> CompletableFuture<T> simulateAsync(String operation, Supplier<T> result) {
+        long delayNanos = nextDelayNanos();
+        boolean failure = nextFailure();
+        CompletableFuture<T> future = new CompletableFuture<>();
+        ScheduledFuture<?> scheduledCompletion = latencyTimer.schedule(() -> {
+            if (failure) {
+                future.completeExceptionally(new SimulatedFailureException("Simulated failure of " + operation));
+            } else {
+                try {
+                    future.complete(result.get());
+                } catch (RuntimeException e) {
+                    future.completeExceptionally(e);
+                }
+            }
+        }, delayNanos, TimeUnit.NANOSECONDS);
+        // completed before the latency elapsed (cancel() or orTimeout() by the caller) : removed from the timer,
+        // otherwise the completion is running or done and cancel() does nothing
+        future.whenComplete((value, throwable) -> scheduledCompletion.cancel(false));
+        return future;
+    }
+
+    // number of simulateAsync() calls waiting for their latency, of all the simulators
+    public static int pendingAsyncCalls() {
+        return latencyTimer.getQueue().size();
+    }
+
+    // for the callers which wait without blocking (e.g. with a timer), sample the latency and the failure
+    // of the call with these two instead of simulate()
+    public long nextDelayNanos() {
+        return Math.max(0, model.sampleNanos(random));
+    }
+
+    public boolean nextFailure() {
+        return errorRate > 0 && random.nextDouble() < errorRate;
+    }
+
+    public LatencyModel getModel() {
+        return model;
+    }
+
+    public double getErrorRate() {
+        return errorRate;
+    }
+
+    @Override
+    public String toString() {
+        return "LatencySimulator[" + model + ", errorRate=" + errorRate + "]";
+    }
+}
@@ -0,0 +1,9 @@
+package com.learnjava.simulation;
+
+// failure injected by a LatencySimulator, thrown by the simulated services after the latency of the call
+public class SimulatedFailureException extends RuntimeException {
+
+    public SimulatedFailureException(String message) {
+        super(message);
+    }
+}
@@ -3,15 +3,20 @@ package com.learnjava.thread;
 import com.learnjava.domain.Product;
 import com.learnjava.domain.ProductInfo;
 import com.learnjava.domain.Review;
+import com.learnjava.metrics.LatencyMetrics;
 import com.learnjava.service.ProductInfoService;
 import com.learnjava.service.ReviewService;
 
-import static com.learnjava.util.CommonUtil.stopWatch;
+import static com.learnjava.metrics.LatencyMetrics.*;
 import static com.learnjava.util.LoggerUtil.log;
 
 public class ProductServiceUsingThread {
+    private static final String REQUEST_METRIC = stageName(ProductServiceUsingThread.class, REQUEST);
+    private static final String PRODUCT_INFO_METRIC = stageName(ProductServiceUsingThread.class, PRODUCT_INFO);
+    private static final String REVIEWS_METRIC = stageName(ProductServiceUsingThread.class, REVIEWS);
     private ProductInfoService productInfoService;
     private ReviewService reviewService;
+    private final LatencyMetrics metrics = LatencyMetrics.defaultMetrics();
 
     public ProductServiceUsingThread(ProductInfoService productInfoService, ReviewService reviewService) {
         this.productInfoService = productInfoService;
@@ -19,8 +24,15 @@ public class ProductServiceUsingThread {
     }
 
     public Product retrieveProductDetails(String productId) {
-        stopWatch.start();
+        LatencyMetrics.Timer requestTimer = metrics.start(REQUEST_METRIC);
+        try {
+            return retrieveProductDetailsWithThreads(productId);
+        } finally {
+            log("Total Time Taken : "+ requestTimer.stop());
+        }
+    }
 
+    private Product retrieveProductDetailsWithThreads(String productId) {
         ProductInfoRunnable productInfoRunnable = new ProductInfoRunnable(productId);
         Thread productInfoThread = new Thread(productInfoRunnable);
 //        ProductInfo productInfo = productInfoService.retrieveProductInfo(productId); // blocking call
@@ -46,10 +58,8 @@ public class ProductServiceUsingThread {
         ProductInfo productInfo = productInfoRunnable.getProductInfo();
         Review review = reviewRunnable.getReview();
 
-        stopWatch.stop();
         // It takes almost half time as compared to ProductService (synchronous) because of execution of
         // threads parallely.
-        log("Total Time Taken : "+ stopWatch.getTime());
         return new Product(productId, productInfo, review);
     }
 
@@ -74,7 +84,7 @@ public class ProductServiceUsingThread {
 
         @Override
         public void run() {
-            this.productInfo = productInfoService.retrieveProductInfo(productId);
+            this.productInfo = metrics.time(PRODUCT_INFO_METRIC, () -> productInfoService.retrieveProductInfo(productId));
         }
 
         public ProductInfo getProductInfo() {
@@ -91,7 +101,7 @@ public class ProductServiceUsingThread {
 
         @Override
         public void run() {
-            this.review = reviewService.retrieveReviews(productId); // blocking call
+            this.review = metrics.time(REVIEWS_METRIC, () -> reviewService.retrieveReviews(productId)); // blocking call
         }
 
         public Review getReview() {
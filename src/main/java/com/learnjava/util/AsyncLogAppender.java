@@ -0,0 +1,230 @@
+package com.learnjava.util;
+
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Asynchronous log appender used by LoggerUtil.
+// Logging threads only turn the argument into a String (its state at the time of the call) and copy
+// the references of the message into a pre-allocated slot of a bounded, lock free ring buffer
+// (multi producer / single consumer, Vyukov style sequence per slot).
+// A single background thread formats the messages and writes them to the stream in batches,
+// so the logging threads never wait on (synchronized) System.out.
+final class AsyncLogAppender {
+
+    // what happens when the ring buffer is full
+    enum OverflowPolicy {
+        // message is dropped and counted, the logging thread never waits
+        DROP,
+        // logging thread waits for the consumer to free a slot (backpressure)
+        BLOCK
+    }
+
+    private static final int MAX_BATCH_SIZE = 256;
+    private static final long IDLE_PARK_NANOS = 1_000_000;
+
+    private final Slot[] slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    // only read/written by the consumer thread, then by drainAfterShutdown() once it has exited
+    private long head;
+
+    private final OverflowPolicy overflowPolicy;
+    private final PrintStream out;
+    private final LongAdder droppedCount = new LongAdder();
+    private final Thread consumerThread;
+    private volatile boolean running = true;
+
+    AsyncLogAppender(int capacity, OverflowPolicy overflowPolicy, PrintStream out) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of 2, capacity : " + capacity);
+        }
+        this.slots = new Slot[capacity];
+        for (int index = 0; index < capacity; index++) {
+            slots[index] = new Slot(index);
+        }
+        this.mask = capacity - 1;
+        this.overflowPolicy = overflowPolicy;
+        this.out = out;
+        this.consumerThread = new Thread(this::consume, "async-logger");
+        this.consumerThread.setDaemon(true);
+        this.consumerThread.start();
+    }
+
+    // a logging thread can still hold this appender after shutdown() (LoggerUtil switched back to
+    // synchronous logging in between) or after the consumer died, its message is then written on the
+    // calling thread
+    void append(LogLevel level, String threadName, String message, Object argument) {
+        String argumentText = argument == null ? null : argument.toString();
+        if (!running) {
+            writeSynchronously(level, threadName, message, argumentText);
+            return;
+        }
+        while (!offer(level, threadName, message, argumentText)) {
+            if (!running) {
+                writeSynchronously(level, threadName, message, argumentText);
+                return;
+            }
+            if (overflowPolicy == OverflowPolicy.DROP) {
+                droppedCount.increment();
+                return;
+            }
+            Thread.onSpinWait();
+            LockSupport.parkNanos(10_000);
+        }
+        if (!running) {
+            // shutdown() started after the check above, the consumer may have exited before seeing this message
+            drainAfterShutdown();
+        }
+    }
+
+    long droppedCount() {
+        return droppedCount.sum();
+    }
+
+    // stops the consumer after it has written everything appended so far
+    void shutdown() {
+        running = false;
+        LockSupport.unpark(consumerThread);
+        // also writes what a dead consumer left in the buffer
+        drainAfterShutdown();
+    }
+
+    // messages still in the buffer are written first, so a thread doesn't see its messages out of order
+    private synchronized void writeSynchronously(LogLevel level, String threadName, String message, String argument) {
+        drainAfterShutdown();
+        StringBuilder line = new StringBuilder(64);
+        format(line, level, threadName, message, argument);
+        out.print(line);
+        out.flush();
+    }
+
+    // the consumer has stopped (or is about to), so the late messages are drained by the logging
+    // thread, one logging thread at a time
+    private synchronized void drainAfterShutdown() {
+        boolean interrupted = false;
+        while (consumerThread.isAlive()) {
+            try {
+                consumerThread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        StringBuilder batch = new StringBuilder(MAX_BATCH_SIZE * 64);
+        while (drain(batch) > 0) {
+            out.print(batch);
+            batch.setLength(0);
+        }
+        out.flush();
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean offer(LogLevel level, String threadName, String message, String argument) {
+        long position = tail.get();
+        while (true) {
+            Slot slot = slots[(int) position & mask];
+            long difference = slot.sequence - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slot.level = level;
+                    slot.threadName = threadName;
+                    slot.message = message;
+                    slot.argument = argument;
+                    // publishes the slot to the consumer
+                    slot.sequence = position + 1;
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                // consumer hasn't freed this slot yet, buffer is full
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    private void consume() {
+        StringBuilder batch = new StringBuilder(MAX_BATCH_SIZE * 64);
+        int drained = 0;
+        try {
+            while (true) {
+                drained = drain(batch);
+                if (drained > 0) {
+                    out.print(batch);
+                    out.flush();
+                    batch.setLength(0);
+                } else if (!running) {
+                    // running is set before the last unpark, so nothing appended before shutdown() is left
+                    drained = drain(batch);
+                    if (drained == 0) {
+                        return;
+                    }
+                    out.print(batch);
+                    out.flush();
+                    batch.setLength(0);
+                } else {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+            }
+        } catch (Throwable e) {
+            // e.g. the stream failed : the batch is lost, the logging threads write synchronously
+            // from now on (and drain what is left in the buffer) instead of waiting for a free slot forever
+            droppedCount.add(drained);
+            running = false;
+        }
+    }
+
+    private int drain(StringBuilder batch) {
+        int drained = 0;
+        while (drained < MAX_BATCH_SIZE) {
+            Slot slot = slots[(int) head & mask];
+            if (slot.sequence != head + 1) {
+                break;
+            }
+            int length = batch.length();
+            try {
+                format(batch, slot.level, slot.threadName, slot.message, slot.argument);
+            } catch (Throwable e) {
+                batch.setLength(length);
+                droppedCount.increment();
+            } finally {
+                slot.threadName = null;
+                slot.message = null;
+                slot.argument = null;
+                // frees the slot for the producer of the next lap
+                slot.sequence = head + slots.length;
+                head++;
+                drained++;
+            }
+        }
+        return drained;
+    }
+
+    private static void format(StringBuilder batch, LogLevel level, String threadName, String message, String argument) {
+        batch.append('[').append(threadName).append("] - ");
+        if (level != LogLevel.INFO) {
+            batch.append(level).append(' ');
+        }
+        batch.append(message);
+        if (argument != null) {
+            batch.append(argument);
+        }
+        batch.append(System.lineSeparator());
+    }
+
+    private static final class Slot {
+        private volatile long sequence;
+        private LogLevel level;
+        private String threadName;
+        private String message;
+        private String argument;
+
+        private Slot(long sequence) {
+            this.sequence = sequence;
+        }
+    }
+}
@@ -1,17 +1,28 @@
 package com.learnjava.util;
 
-import org.apache.commons.lang3.time.StopWatch;
+import java.time.Duration;
 
 import static com.learnjava.util.LoggerUtil.log;
 import static java.lang.Thread.sleep;
 
 public class CommonUtil {
 
-    public static StopWatch stopWatch = new StopWatch();
+    // start time of startTimer() per thread, so that concurrent callers don't interfere with each other.
+    // For latency distributions across requests use com.learnjava.metrics.LatencyMetrics.
+    private static final ThreadLocal<Long> timerStartNanos = new ThreadLocal<>();
 
     public static void delay(long delayMilliSeconds)  {
+        delay(Duration.ofMillis(delayMilliSeconds));
+    }
+
+    // e.g. latencies of com.learnjava.simulation.LatencySimulator, with sub millisecond precision
+    public static void delay(Duration delay)  {
         try{
-            sleep(delayMilliSeconds);
+            sleep(delay);
+        }catch (InterruptedException e){
+            // restore the interrupt status, so that the caller (e.g. a cancelled task) can stop early
+            Thread.currentThread().interrupt();
+            LoggerUtil.log("Exception is :" + e.getMessage());
         }catch (Exception e){
             LoggerUtil.log("Exception is :" + e.getMessage());
         }
@@ -23,17 +34,24 @@ public class CommonUtil {
         return s.toUpperCase();
     }
 
-    public static void startTimer(){
-        stopWatch.start();
+    // transform of the names examples (StringTransformExample, ForkJoinUsingRecursion, ParallelMapperExample)
+    public static String addNameLengthTransform(String name) {
+        CommonUtil.delay(500);
+        return name.length() + " - " + name;
     }
 
-    public static void timeTaken(){
-        stopWatch.stop();
-        log("Total Time Taken : " +stopWatch.getTime());
+    public static void startTimer(){
+        timerStartNanos.set(System.nanoTime());
     }
 
-    public static void stopWatchReset(){
-        stopWatch.reset();
+    public static void timeTaken(){
+        Long startNanos = timerStartNanos.get();
+        timerStartNanos.remove();
+        if (startNanos == null) {
+            log("Timer was not started");
+            return;
+        }
+        log("Total Time Taken : " + (System.nanoTime() - startNanos) / 1_000_000);
     }
 
     public static  int noOfCores(){
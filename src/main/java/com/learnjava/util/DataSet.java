@@ -1,10 +1,20 @@
 package com.learnjava.util;
 
 
+import com.learnjava.collections.IntArrayList;
+import com.learnjava.collections.LongArrayList;
+import com.learnjava.domain.ProductInfo;
+import com.learnjava.domain.ProductOption;
 import com.learnjava.domain.checkout.Cart;
 import com.learnjava.domain.checkout.CartItem;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
@@ -61,7 +71,71 @@ public class DataSet {
                 .boxed().collect(Collectors.toSet());
     }
 
+    // primitive versions of the generators above (1..maxNumber), without boxing every number,
+    // so that large (100M) data sets measure the parallelism and not the boxing and the GC.
+    public static int[] generateIntArray(int maxNumber) {
+        int[] numbers = new int[maxNumber];
+        Arrays.parallelSetAll(numbers, index -> index + 1);
+        return numbers;
+    }
+
+    public static long[] generateLongArray(int maxNumber) {
+        long[] numbers = new long[maxNumber];
+        Arrays.parallelSetAll(numbers, index -> index + 1L);
+        return numbers;
+    }
+
+    public static IntArrayList generateIntArrayList(int maxNumber) {
+        return IntArrayList.wrap(generateIntArray(maxNumber));
+    }
+
+    public static LongArrayList generateLongArrayList(int maxNumber) {
+        return LongArrayList.wrap(generateLongArray(maxNumber));
+    }
+
+
 
+    // catalog of products "PRODUCT-1".."PRODUCT-n", the options repeat a few sizes and colors like real catalogs
+    public static List<ProductInfo> generateProductInfos(int noOfProducts, int optionsPerProduct) {
+        List<String> sizes = List.of("64GB", "128GB", "256GB", "512GB");
+        List<String> colors = List.of("Black", "White", "Blue", "Red", "Green");
+        List<ProductInfo> productInfos = new ArrayList<>(noOfProducts);
+        int optionId = 1;
+        for (int product = 1; product <= noOfProducts; product++) {
+            List<ProductOption> productOptions = new ArrayList<>(optionsPerProduct);
+            for (int option = 0; option < optionsPerProduct; option++, optionId++) {
+                productOptions.add(new ProductOption(optionId, sizes.get(option % sizes.size()),
+                        colors.get((product + option) % colors.size()), 699.99 + 50 * (option % sizes.size())));
+            }
+            productInfos.add(new ProductInfo("PRODUCT-" + product, productOptions));
+        }
+        return productInfos;
+    }
+
+    // JSON lines file of noOfPositions GitHubPositions ("POSITION-n" ids), for the ingestion examples
+    public static Path writeGitHubPositions(Path file, int noOfPositions) throws IOException {
+        List<String> companies = List.of("Acme", "Globex", "Initech", "Umbrella", "Soylent");
+        List<String> locations = List.of("Remote", "Berlin", "M\\u00fcnchen", "New York, NY", "S\\u00e3o Paulo");
+        List<String> titles = List.of("Java Developer", "Senior Backend Engineer", "Site Reliability Engineer",
+                "Data Engineer", "Frontend Developer");
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int position = 1; position <= noOfPositions; position++) {
+                String company = companies.get(position % companies.size());
+                writer.write("{\"id\":\"POSITION-" + position + "\",\"type\":\"" + (position % 3 == 0 ? "Part Time" : "Full Time")
+                        + "\",\"url\":\"https://jobs.github.com/positions/" + position
+                        + "\",\"created_at\":\"Mon Mar " + (position % 28 + 1) + " 10:00:00 UTC 2020"
+                        + "\",\"company\":\"" + company
+                        + "\",\"company_url\":\"https://www." + company.toLowerCase() + ".com"
+                        + "\",\"location\":\"" + locations.get(position % locations.size())
+                        + "\",\"title\":\"" + titles.get(position / locations.size() % titles.size())
+                        + "\",\"description\":\"<p>Join the \\\"" + company + "\\\" team.</p>\\n<p>Java, concurrency and parallelism.</p>"
+                        + "\",\"how_to_apply\":\"Send your CV to jobs@" + company.toLowerCase() + ".com"
+                        + "\",\"company_logo\":null}");
+                writer.newLine();
+            }
+        }
+        return file;
+    }
 
     public static double generateRandomPrice() {
         int min = 50;
@@ -0,0 +1,32 @@
+package com.learnjava.util;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// Absolute point in time by which a request has to be answered.
+// Created once per request and passed to every stage, each stage waits only for the time remaining,
+// so the total time of the request is bounded by the budget however the stages are chained.
+public final class Deadline {
+
+    private final long deadlineNanos;
+
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    public static Deadline after(Duration budget) {
+        return new Deadline(System.nanoTime() + budget.toNanos());
+    }
+
+    public long remainingNanos() {
+        return Math.max(0, deadlineNanos - System.nanoTime());
+    }
+
+    public long remainingMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(remainingNanos());
+    }
+
+    public boolean isExpired() {
+        return remainingNanos() == 0;
+    }
+}
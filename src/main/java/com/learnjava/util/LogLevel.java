@@ -0,0 +1,8 @@
+package com.learnjava.util;
+
+public enum LogLevel {
+    DEBUG,
+    INFO,
+    WARN,
+    ERROR
+}
@@ -1,10 +1,72 @@
 package com.learnjava.util;
 
+import java.util.function.Supplier;
+
 public class LoggerUtil {
 
+    // messages below this level are skipped before building the message
+    private static volatile LogLevel minLevel = LogLevel.INFO;
+    // null -> messages are written synchronously on the calling thread (default)
+    private static volatile AsyncLogAppender asyncLogAppender;
+
     public static void log(String message){
 
-        System.out.println("[" + Thread.currentThread().getName() +"] - " + message);
+        log(LogLevel.INFO, message, null);
+
+    }
+
+    // message + argument are only concatenated by the writer, so a disabled call doesn't build the
+    // string and an asynchronous call only runs argument.toString() on the calling thread.
+    // e.g. log(LogLevel.DEBUG, "Product is ", product)
+    public static void log(LogLevel level, String message, Object argument){
+        if (!isEnabled(level)) {
+            return;
+        }
+        AsyncLogAppender appender = asyncLogAppender;
+        if (appender != null) {
+            appender.append(level, Thread.currentThread().getName(), message, argument);
+            return;
+        }
+        String prefix = level == LogLevel.INFO ? "" : level + " ";
+        System.out.println("[" + Thread.currentThread().getName() +"] - " + prefix + message + (argument == null ? "" : argument));
+    }
+
+    // for messages which are expensive to build, the supplier is called only if the level is enabled
+    public static void log(LogLevel level, Supplier<String> messageSupplier){
+        if (isEnabled(level)) {
+            log(level, messageSupplier.get(), null);
+        }
+    }
+
+    public static boolean isEnabled(LogLevel level){
+        return level.ordinal() >= minLevel.ordinal();
+    }
+
+    public static void setLevel(LogLevel level){
+        minLevel = level;
+    }
+
+    // switches to asynchronous logging, capacity (power of 2) is the number of messages that can be
+    // pending, dropMessagesWhenFull decides between dropping messages or making the caller wait.
+    public static synchronized void enableAsyncLogging(int capacity, boolean dropMessagesWhenFull){
+        disableAsyncLogging();
+        asyncLogAppender = new AsyncLogAppender(capacity,
+                dropMessagesWhenFull ? AsyncLogAppender.OverflowPolicy.DROP : AsyncLogAppender.OverflowPolicy.BLOCK,
+                System.out);
+    }
+
+    // back to synchronous logging, pending messages are written before returning. A thread which
+    // read the appender just before it is removed writes its message itself (see AsyncLogAppender.append)
+    public static synchronized void disableAsyncLogging(){
+        AsyncLogAppender appender = asyncLogAppender;
+        if (appender != null) {
+            asyncLogAppender = null;
+            appender.shutdown();
+        }
+    }
 
+    public static long droppedMessageCount(){
+        AsyncLogAppender appender = asyncLogAppender;
+        return appender == null ? 0 : appender.droppedCount();
     }
 }
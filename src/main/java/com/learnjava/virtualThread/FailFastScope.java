@@ -0,0 +1,79 @@
+package com.learnjava.virtualThread;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Scope of sub tasks, each forked on its own virtual thread.
+// When one of the sub tasks fails, all the other sub tasks of the scope are cancelled (interrupted),
+// which is the "shutdown on failure" policy of StructuredTaskScope. StructuredTaskScope is still a
+// preview api in Java 21, so this class gives the same behaviour with the standard executor api.
+//
+// usage:
+//      try (FailFastScope scope = new FailFastScope()) {
+//          Future<A> a = scope.fork(...);
+//          Future<B> b = scope.fork(...);
+//          scope.join();
+//          ... a.resultNow(), b.resultNow()
+//      }
+final class FailFastScope implements AutoCloseable {
+
+    private final ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor();
+    private final List<Future<?>> forkedTasks = new CopyOnWriteArrayList<>();
+    private final AtomicReference<Exception> firstFailure = new AtomicReference<>();
+
+    <T> Future<T> fork(Callable<T> task) {
+        Future<T> future = executorService.submit(() -> {
+            try {
+                return task.call();
+            } catch (Exception e) {
+                if (firstFailure.compareAndSet(null, e)) {
+                    cancelAll();
+                }
+                throw e;
+            }
+        });
+        forkedTasks.add(future);
+        // scope might have failed while this task was being forked
+        if (firstFailure.get() != null) {
+            future.cancel(true);
+        }
+        return future;
+    }
+
+    // waits for all the forked tasks, and throws the first failure (if any)
+    void join() {
+        for (Future<?> future : forkedTasks) {
+            try {
+                future.get();
+            } catch (ExecutionException | CancellationException e) {
+                // failure is recorded in firstFailure, remaining tasks are already cancelled
+            } catch (InterruptedException e) {
+                cancelAll();
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        }
+        Exception failure = firstFailure.get();
+        if (failure != null) {
+            throw failure instanceof RuntimeException ? (RuntimeException) failure : new RuntimeException(failure);
+        }
+    }
+
+    private void cancelAll() {
+        forkedTasks.forEach(future -> future.cancel(true));
+    }
+
+    @Override
+    public void close() {
+        // cancel whatever is still running (e.g. join() was never called) and wait for the threads to finish
+        cancelAll();
+        executorService.close();
+    }
+}
@@ -0,0 +1,104 @@
+package com.learnjava.virtualThread;
+
+import com.learnjava.domain.Inventory;
+import com.learnjava.domain.Product;
+import com.learnjava.domain.ProductInfo;
+import com.learnjava.domain.ProductOption;
+import com.learnjava.domain.Review;
+import com.learnjava.metrics.LatencyMetrics;
+import com.learnjava.service.InventoryService;
+import com.learnjava.service.ProductInfoService;
+import com.learnjava.service.ReviewService;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.learnjava.metrics.LatencyMetrics.*;
+import static com.learnjava.util.LoggerUtil.log;
+
+// Every downstream call blocks in CommonUtil.delay(), on a virtual thread this blocking only parks the
+// virtual thread and releases its carrier (platform) thread, so the number of concurrent requests is not
+// limited by the number of cores / size of a thread pool.
+public class ProductServiceUsingVirtualThreads {
+    private static final String REQUEST_METRIC = stageName(ProductServiceUsingVirtualThreads.class, REQUEST);
+    private static final String PRODUCT_INFO_METRIC = stageName(ProductServiceUsingVirtualThreads.class, PRODUCT_INFO);
+    private static final String REVIEWS_METRIC = stageName(ProductServiceUsingVirtualThreads.class, REVIEWS);
+    private static final String INVENTORY_METRIC = stageName(ProductServiceUsingVirtualThreads.class, INVENTORY);
+    private ProductInfoService productInfoService;
+    private ReviewService reviewService;
+    private InventoryService inventoryService;
+    private final LatencyMetrics metrics = LatencyMetrics.defaultMetrics();
+
+    public ProductServiceUsingVirtualThreads(ProductInfoService productInfoService, ReviewService reviewService, InventoryService inventoryService) {
+        this.productInfoService = productInfoService;
+        this.reviewService = reviewService;
+        this.inventoryService = inventoryService;
+    }
+
+    // productInfo (+ inventory) and reviews are retrieved in parallel,
+    // if any of them fails the other one is cancelled and the failure is thrown.
+    // Latency: 1500 ms (approx) -> 1000 ms for productInfo/reviews + 500 ms for inventory of all options
+    public Product retrieveProductDetails(String productId) {
+        LatencyMetrics.Timer requestTimer = metrics.start(REQUEST_METRIC);
+        try (FailFastScope scope = new FailFastScope()) {
+            Future<ProductInfo> productInfoFuture = scope.fork(() -> retrieveProductInfoWithInventory(productId));
+            Future<Review> reviewFuture = scope.fork(() -> metrics.time(REVIEWS_METRIC, () -> reviewService.retrieveReviews(productId)));
+
+            scope.join();
+            return new Product(productId, productInfoFuture.resultNow(), reviewFuture.resultNow());
+        } finally {
+            requestTimer.stop();
+        }
+    }
+
+    private ProductInfo retrieveProductInfoWithInventory(String productId) {
+        ProductInfo productInfo = metrics.time(PRODUCT_INFO_METRIC, () -> productInfoService.retrieveProductInfo(productId));
+        productInfo.setProductOptions(metrics.time(INVENTORY_METRIC, () -> inventoryUpdatedProductOptions(productInfo)));
+        return productInfo;
+    }
+
+    // one virtual thread per productOption, nested scope so that cancelling the parent
+    // (interrupting join() below) also cancels all the inventory calls.
+    private List<ProductOption> inventoryUpdatedProductOptions(final ProductInfo productInfo) {
+        try (FailFastScope scope = new FailFastScope()) {
+            List<Future<Inventory>> inventoryFutureList = productInfo.getProductOptions().stream()
+                    .map(productOption -> scope.fork(() -> inventoryService.addInventory(productOption)))
+                    .collect(Collectors.toList());
+
+            scope.join();
+
+            List<ProductOption> productOptions = productInfo.getProductOptions();
+            return IntStream.range(0, productOptions.size())
+                    .mapToObj(index -> {
+                        ProductOption productOption = productOptions.get(index);
+                        productOption.setInventory(inventoryFutureList.get(index).resultNow());
+                        return productOption;
+                    }).collect(Collectors.toList());
+        }
+    }
+
+    public static void main(String[] args) {
+
+        ProductInfoService productInfoService = new ProductInfoService();
+        ReviewService reviewService = new ReviewService();
+        InventoryService inventoryService = new InventoryService();
+        ProductServiceUsingVirtualThreads productService = new ProductServiceUsingVirtualThreads(productInfoService, reviewService, inventoryService);
+        String productId = "ABC123";
+        Product product = productService.retrieveProductDetails(productId);
+        log("Product is " + product);
+
+        // 10,000 concurrent requests, each one on its own virtual thread.
+        // Time taken stays close to the latency of a single request.
+        long start = System.currentTimeMillis();
+        try (ExecutorService requestExecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            IntStream.range(0, 10_000)
+                    .forEach(index -> requestExecutor.submit(() -> productService.retrieveProductDetails("ABC" + index)));
+        }
+        log("Total Time Taken for 10000 requests : " + (System.currentTimeMillis() - start));
+        LatencyMetrics.defaultMetrics().logSnapshot();
+    }
+}
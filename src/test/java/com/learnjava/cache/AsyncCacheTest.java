@@ -0,0 +1,127 @@
+package com.learnjava.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.learnjava.util.CommonUtil.delay;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsyncCacheTest {
+    private final AtomicInteger loadCount = new AtomicInteger();
+
+    private CompletableFuture<String> slowLoad(String key) {
+        loadCount.incrementAndGet();
+        return CompletableFuture.supplyAsync(() -> {
+            delay(200);
+            return key.toUpperCase();
+        });
+    }
+
+    @Test
+    public void testGet_ConcurrentMissesShareSingleLoad() {
+        AsyncCache<String, String> cache = new AsyncCache<>(this::slowLoad, 10, Duration.ofMinutes(1));
+
+        List<CompletableFuture<String>> futureList = IntStream.range(0, 50)
+                .mapToObj(index -> cache.get("abc"))
+                .collect(Collectors.toList());
+
+        futureList.forEach(future -> assertEquals("ABC", future.join()));
+        assertEquals(1, loadCount.get());
+        assertEquals(1, cache.stats().missCount());
+        assertEquals(49, cache.stats().hitCount());
+    }
+
+    @Test
+    public void testGet_ExpiredEntryIsLoadedAgain() {
+        AsyncCache<String, String> cache = new AsyncCache<>(this::slowLoad, 10, Duration.ofMillis(300));
+
+        assertEquals("ABC", cache.join("abc"));
+        delay(400);
+        assertNull(cache.getIfPresent("abc"));
+        assertEquals("ABC", cache.join("abc"));
+
+        assertEquals(2, loadCount.get());
+        assertEquals(1, cache.stats().expirationCount());
+    }
+
+    @Test
+    public void testGet_LeastRecentlyUsedIsEvicted() {
+        AsyncCache<String, String> cache = new AsyncCache<>(this::slowLoad, 2, Duration.ofMinutes(1));
+
+        cache.join("a");
+        cache.join("b");
+        cache.join("a");
+        cache.join("c");
+
+        assertEquals(2, cache.size());
+        assertEquals("A", cache.getIfPresent("a"));
+        assertNull(cache.getIfPresent("b"));
+        assertEquals(1, cache.stats().evictionCount());
+    }
+
+    @Test
+    public void testGet_FailedLoadIsNotCached() {
+        AsyncCache<String, String> cache = new AsyncCache<>(key -> {
+            if (loadCount.incrementAndGet() == 1) {
+                throw new IllegalStateException("downstream failure");
+            }
+            return CompletableFuture.completedFuture(key);
+        }, 10, Duration.ofMinutes(1));
+
+        assertThrows(IllegalStateException.class, () -> cache.join("abc"));
+        assertEquals("abc", cache.join("abc"));
+        assertEquals(1, cache.stats().loadFailureCount());
+    }
+
+    @Test
+    public void testGetStale_KeepsLastValueWhenReloadFails() {
+        AsyncCache<String, String> cache = new AsyncCache<>(key -> {
+            if (loadCount.incrementAndGet() > 1) {
+                return CompletableFuture.failedFuture(new IllegalStateException("downstream failure"));
+            }
+            return CompletableFuture.completedFuture(key.toUpperCase());
+        }, 10, Duration.ofMillis(1));
+
+        assertEquals("ABC", cache.join("abc"));
+        delay(10);
+        assertThrows(IllegalStateException.class, () -> cache.join("abc"));
+
+        assertNull(cache.getIfPresent("abc"));
+        assertEquals("ABC", cache.getStale("abc"));
+    }
+
+    @Test
+    public void testGet_CallerCannotChangeTheCachedValue() {
+        AsyncCache<String, String> cache = new AsyncCache<>(this::slowLoad, 10, Duration.ofMinutes(1));
+
+        cache.get("abc").cancel(true);
+        cache.get("abc").complete("OTHER");
+        cache.get("abc").obtrudeValue("OBTRUDED");
+
+        assertEquals("ABC", cache.get("abc").join());
+        assertEquals(1, loadCount.get());
+    }
+
+    @Test
+    public void testGet_FailedEntryIsAMiss() {
+        CompletableFuture<String> load = new CompletableFuture<>();
+        AsyncCache<String, String> cache = new AsyncCache<>(key -> {
+            loadCount.incrementAndGet();
+            return loadCount.get() == 1 ? load : CompletableFuture.completedFuture("ABC");
+        }, 10, Duration.ofMinutes(1));
+        CompletableFuture<String> first = cache.get("abc");
+
+        load.completeExceptionally(new IllegalStateException("load failure"));
+
+        assertTrue(first.isCompletedExceptionally());
+        assertEquals("ABC", cache.get("abc").join());
+        assertEquals(2, cache.stats().missCount());
+        assertEquals(0, cache.stats().hitCount());
+    }
+}
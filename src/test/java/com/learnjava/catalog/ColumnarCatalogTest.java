@@ -0,0 +1,67 @@
+package com.learnjava.catalog;
+
+import com.learnjava.domain.Inventory;
+import com.learnjava.domain.ProductInfo;
+import com.learnjava.domain.ProductOption;
+import com.learnjava.util.DataSet;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ColumnarCatalogTest {
+
+    private final List<ProductInfo> productInfos = DataSet.generateProductInfos(1000, 6);
+    private final ColumnarCatalog catalog = ColumnarCatalog.of(productInfos);
+
+    @Test
+    public void testProductInfo_SameAsSource() {
+        assertEquals(1000, catalog.productCount());
+        assertEquals(6000, catalog.optionCount());
+
+        for (ProductInfo expected : List.of(productInfos.get(0), productInfos.get(500), productInfos.get(999))) {
+            ProductInfo productInfo = catalog.productInfo(expected.getProductId());
+
+            assertEquals(expected.getProductId(), productInfo.getProductId());
+            assertEquals(expected.getProductOptions().size(), productInfo.getProductOptions().size());
+            for (int index = 0; index < expected.getProductOptions().size(); index++) {
+                ProductOption expectedOption = expected.getProductOptions().get(index);
+                ProductOption option = productInfo.getProductOptions().get(index);
+                assertEquals(expectedOption.getProductionOptionId(), option.getProductionOptionId());
+                assertEquals(expectedOption.getSize(), option.getSize());
+                assertEquals(expectedOption.getColor(), option.getColor());
+                assertEquals(expectedOption.getPrice(), option.getPrice());
+                assertNull(option.getInventory());
+            }
+        }
+        assertNull(catalog.productInfo("UNKNOWN"));
+    }
+
+    @Test
+    public void testInventory_SetOnViewDoesNotChangeCatalog() {
+        ColumnarCatalog catalogWithInventory = ColumnarCatalog.builder()
+                .startProduct("ABC123")
+                .addOption(1, "64GB", "Black", 699.99, 5)
+                .addOption(2, null, "Black", 749.99, ColumnarCatalog.NO_INVENTORY)
+                .build();
+
+        ProductOption option = catalogWithInventory.productInfo("ABC123").getProductOptions().get(0);
+        assertEquals(5, option.getInventory().getCount());
+        option.setInventory(new Inventory(2));
+        assertEquals(2, option.getInventory().getCount());
+        assertEquals(5, catalogWithInventory.productInfo("ABC123").getProductOptions().get(0).getInventory().getCount());
+
+        ProductOption optionWithoutSize = catalogWithInventory.productInfo("ABC123").getProductOptions().get(1);
+        assertNull(optionWithoutSize.getSize());
+        assertNull(optionWithoutSize.getInventory());
+        assertThrows(UnsupportedOperationException.class, () -> optionWithoutSize.setSize("128GB"));
+    }
+
+    @Test
+    public void testBuilder_RejectsDuplicateProduct() {
+        ColumnarCatalog.Builder builder = ColumnarCatalog.builder().startProduct("ABC123");
+
+        assertThrows(IllegalArgumentException.class, () -> builder.startProduct("ABC123"));
+    }
+}
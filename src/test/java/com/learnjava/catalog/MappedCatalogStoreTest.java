@@ -0,0 +1,65 @@
+package com.learnjava.catalog;
+
+import com.learnjava.domain.Inventory;
+import com.learnjava.domain.ProductInfo;
+import com.learnjava.domain.ProductOption;
+import com.learnjava.util.DataSet;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappedCatalogStoreTest {
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        List<ProductInfo> productInfos = DataSet.generateProductInfos(10_000, 4);
+        productInfos.get(7).getProductOptions().get(0).setInventory(new Inventory(3));
+        Path catalogFile = Files.createTempFile("catalog", ".bin");
+        try {
+            MappedCatalogStore.write(catalogFile, productInfos);
+
+            try (MappedCatalogStore catalogStore = MappedCatalogStore.open(catalogFile)) {
+                assertEquals(10_000, catalogStore.productCount());
+                assertEquals(40_000, catalogStore.optionCount());
+                for (ProductInfo expected : productInfos) {
+                    assertSameProductInfo(expected, catalogStore.productInfo(expected.getProductId()));
+                }
+                assertEquals(3, catalogStore.productInfo("PRODUCT-8").getProductOptions().get(0).getInventory().getCount());
+                assertNull(catalogStore.productInfo("PRODUCT-10001"));
+                assertFalse(catalogStore.contains(""));
+            }
+        } finally {
+            Files.deleteIfExists(catalogFile);
+        }
+    }
+
+    @Test
+    public void testOpen_RejectsOtherFiles() throws IOException {
+        Path otherFile = Files.createTempFile("other", ".bin");
+        try {
+            Files.write(otherFile, new byte[100]);
+
+            assertThrows(IOException.class, () -> MappedCatalogStore.open(otherFile));
+        } finally {
+            Files.deleteIfExists(otherFile);
+        }
+    }
+
+    private static void assertSameProductInfo(ProductInfo expected, ProductInfo productInfo) {
+        assertEquals(expected.getProductId(), productInfo.getProductId());
+        assertEquals(expected.getProductOptions().size(), productInfo.getProductOptions().size());
+        for (int index = 0; index < expected.getProductOptions().size(); index++) {
+            ProductOption expectedOption = expected.getProductOptions().get(index);
+            ProductOption option = productInfo.getProductOptions().get(index);
+            assertEquals(expectedOption.getProductionOptionId(), option.getProductionOptionId());
+            assertEquals(expectedOption.getSize(), option.getSize());
+            assertEquals(expectedOption.getColor(), option.getColor());
+            assertEquals(expectedOption.getPrice(), option.getPrice());
+        }
+    }
+}
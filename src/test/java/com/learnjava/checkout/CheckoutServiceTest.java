@@ -0,0 +1,62 @@
+package com.learnjava.checkout;
+
+import com.learnjava.checkout.CheckoutService.ValidationStrategy;
+import com.learnjava.domain.checkout.Cart;
+import com.learnjava.domain.checkout.CartItem;
+import com.learnjava.domain.checkout.CheckoutResponse;
+import com.learnjava.domain.checkout.CheckoutStatus;
+import com.learnjava.service.PriceValidatorService;
+import com.learnjava.util.DataSet;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CheckoutServiceTest {
+    private final PriceValidatorService priceValidatorService = new PriceValidatorService();
+    private final CheckoutService checkoutService = new CheckoutService(priceValidatorService);
+
+    @Test
+    public void testCheckout_Success() {
+        Cart cart = DataSet.createCart(6);
+        // rates are rounded to cents before the sum
+        double expectedRate = cart.getCartItemList().stream()
+                .mapToLong(cartItem -> Math.round(cartItem.getRate() * 100) * cartItem.getQuantity())
+                .sum() / 100.0;
+
+        CheckoutResponse checkoutResponse = checkoutService.checkout(cart);
+
+        assertEquals(CheckoutStatus.SUCCESS, checkoutResponse.getCheckoutStatus());
+        assertTrue(checkoutResponse.getErrorList().isEmpty());
+        assertEquals(expectedRate, checkoutResponse.getFinalRate(), 0.0);
+    }
+
+    @Test
+    public void testCheckout_Failure_AllStrategies() {
+        // items 7, 9 & 11 are invalid as per PriceValidatorService
+        for (ValidationStrategy strategy : ValidationStrategy.values()) {
+            CheckoutResponse checkoutResponse = checkoutService.checkout(DataSet.createCart(13), strategy);
+
+            assertEquals(CheckoutStatus.FAILURE, checkoutResponse.getCheckoutStatus());
+            List<Integer> invalidItemIds = checkoutResponse.getErrorList().stream()
+                    .map(CartItem::getItemId)
+                    .collect(Collectors.toList());
+            assertEquals(List.of(7, 9, 11), invalidItemIds);
+        }
+    }
+
+    @Test
+    public void testCheckout_VirtualThreads_LargeCart() {
+        // 1000 items * 500 ms would take minutes sequentially, virtual threads keep it close to a single delay
+        long start = System.currentTimeMillis();
+        CheckoutResponse checkoutResponse = checkoutService.checkout(DataSet.createCart(1000), ValidationStrategy.VIRTUAL_THREADS);
+        long timeTaken = System.currentTimeMillis() - start;
+
+        assertEquals(CheckoutStatus.FAILURE, checkoutResponse.getCheckoutStatus());
+        assertEquals(3, checkoutResponse.getErrorList().size());
+        assertTrue(timeTaken < 5000, "time taken : " + timeTaken);
+    }
+}
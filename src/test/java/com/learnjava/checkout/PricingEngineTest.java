@@ -0,0 +1,56 @@
+package com.learnjava.checkout;
+
+import com.learnjava.checkout.PricingEngine.PricingResult;
+import com.learnjava.domain.checkout.CartItem;
+import com.learnjava.util.DataSet;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class PricingEngineTest {
+
+    @Test
+    public void testRulesAndExpiredItems() {
+        PricingEngine pricingEngine = new PricingEngine(List.of(
+                PricingRule.when(cartItem -> cartItem.getQuantity() >= 10, PricingRule.percentOff(1000)),
+                PricingRule.amountOffPerUnit(50),
+                PricingRule.tax(1900)));
+        List<CartItem> cartItems = List.of(
+                new CartItem(1, "item 1", 10.01, 2, false),
+                new CartItem(2, "item 2", 3.10, 10, false),
+                new CartItem(3, "item 3", 99.99, 1, true),
+                new CartItem(4, "item 4", 0.40, 1, false));
+
+        PricingResult pricingResult = pricingEngine.price(cartItems);
+
+        // item 1 : 1001 * 2 = 2002 - 100 = 1902 + 19% = 2263.38 -> 2263
+        // item 2 : 310 * 10 = 3100 - 10% = 2790 - 500 = 2290 + 19% = 2725.1 -> 2725
+        // item 4 : 40 - 50 -> 0
+        assertEquals(2002 + 3100 + 40, pricingResult.subtotalCents());
+        assertEquals(2263 + 2725, pricingResult.totalCents());
+        assertEquals(3, pricingResult.pricedItems());
+        assertEquals(1, pricingResult.expiredItems());
+        assertEquals(49.88, pricingResult.total(), 0.0);
+    }
+
+    @Test
+    public void testTotalDoesNotDependOnOrder() {
+        PricingEngine pricingEngine = new PricingEngine(List.of(PricingRule.percentOff(333), PricingRule.tax(700)));
+        List<CartItem> cartItems = new ArrayList<>(DataSet.createCart(200_000).getCartItemList());
+        long expectedTotal = 0;
+        for (CartItem cartItem : cartItems) {
+            expectedTotal += pricingEngine.priceCents(cartItem);
+        }
+
+        Random random = new Random(3);
+        for (int run = 0; run < 5; run++) {
+            Collections.shuffle(cartItems, random);
+            assertEquals(expectedTotal, pricingEngine.price(cartItems).totalCents());
+        }
+    }
+}
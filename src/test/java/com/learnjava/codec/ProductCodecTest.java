@@ -0,0 +1,108 @@
+package com.learnjava.codec;
+
+import com.learnjava.domain.Inventory;
+import com.learnjava.domain.Product;
+import com.learnjava.domain.ProductInfo;
+import com.learnjava.domain.ProductOption;
+import com.learnjava.domain.Review;
+import org.junit.jupiter.api.Test;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductCodecTest {
+
+    private final Product product = new Product("ABC123",
+            new ProductInfo("ABC123", List.of(
+                    new ProductOption(1, "64GB", "Black", 699.99, new Inventory(2)),
+                    new ProductOption(2, "128GB", "Bleu ciel é中😀", 749.99),
+                    new ProductOption(null, null, null, 0.0))),
+            new Review(200, 4.5));
+
+    @Test
+    public void testRoundTrip() {
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+
+        int size = ProductCodec.encode(product, buffer);
+        assertEquals(ProductCodec.encodedSize(product), size);
+        assertEquals(size, buffer.position());
+
+        buffer.flip();
+        Product decoded = ProductCodec.decode(buffer);
+        assertEquals(size, buffer.position());
+        assertSameProduct(product, decoded);
+    }
+
+    @Test
+    public void testRoundTrip_ReusedDirectBufferWithSeveralProducts() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(4096);
+        for (int round = 0; round < 3; round++) {
+            buffer.clear();
+            for (int index = 0; index < 5; index++) {
+                ProductCodec.encode(product, buffer);
+            }
+            buffer.flip();
+            for (int index = 0; index < 5; index++) {
+                assertSameProduct(product, ProductCodec.decode(buffer));
+            }
+            assertFalse(buffer.hasRemaining());
+        }
+    }
+
+    @Test
+    public void testView_ReadsSingleFields() {
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        ProductCodec.encode(product, buffer);
+        buffer.flip();
+
+        EncodedProduct encodedProduct = ProductCodec.view(buffer);
+        assertEquals(4.5, encodedProduct.overallRating());
+        assertEquals(3, encodedProduct.optionCount());
+        assertEquals(749.99, encodedProduct.optionPrice(1));
+        assertEquals("Bleu ciel é中😀", encodedProduct.optionColor(1));
+        assertNull(encodedProduct.optionId(2));
+        assertEquals(ProductCodec.NULL_INT, encodedProduct.optionInventoryCount(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> encodedProduct.optionPrice(3));
+        assertEquals(0, buffer.position());
+    }
+
+    @Test
+    public void testEncode_BufferTooSmall_PositionUnchanged() {
+        ByteBuffer buffer = ByteBuffer.allocate(ProductCodec.encodedSize(product) - 1);
+
+        assertThrows(BufferOverflowException.class, () -> ProductCodec.encode(product, buffer));
+        assertEquals(0, buffer.position());
+    }
+
+    @Test
+    public void testDecode_UnknownVersion() {
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        ProductCodec.encode(product, buffer);
+        buffer.put(0, (byte) 99);
+        buffer.flip();
+
+        assertThrows(IllegalArgumentException.class, () -> ProductCodec.decode(buffer));
+    }
+
+    private static void assertSameProduct(Product expected, Product product) {
+        assertEquals(expected.getProductId(), product.getProductId());
+        assertEquals(expected.getReview().getNoOfReviews(), product.getReview().getNoOfReviews());
+        assertEquals(expected.getReview().getOverallRating(), product.getReview().getOverallRating());
+        assertEquals(expected.getProductInfo().getProductId(), product.getProductInfo().getProductId());
+        List<ProductOption> expectedOptions = expected.getProductInfo().getProductOptions();
+        List<ProductOption> options = product.getProductInfo().getProductOptions();
+        assertEquals(expectedOptions.size(), options.size());
+        for (int index = 0; index < expectedOptions.size(); index++) {
+            assertEquals(expectedOptions.get(index).getProductionOptionId(), options.get(index).getProductionOptionId());
+            assertEquals(expectedOptions.get(index).getSize(), options.get(index).getSize());
+            assertEquals(expectedOptions.get(index).getColor(), options.get(index).getColor());
+            assertEquals(expectedOptions.get(index).getPrice(), options.get(index).getPrice());
+            Inventory expectedInventory = expectedOptions.get(index).getInventory();
+            Inventory inventory = options.get(index).getInventory();
+            assertEquals(expectedInventory == null ? null : expectedInventory.getCount(), inventory == null ? null : inventory.getCount());
+        }
+    }
+}
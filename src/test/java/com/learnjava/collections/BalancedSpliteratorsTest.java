@@ -0,0 +1,50 @@
+package com.learnjava.collections;
+
+import com.learnjava.util.DataSet;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BalancedSpliteratorsTest {
+
+    @Test
+    public void testLinkedList_SplitsInHalvesAndKeepsOrder() {
+        LinkedList<Integer> numbers = DataSet.generateIntegerLinkedList(100_000);
+
+        Spliterator<Integer> spliterator = BalancedSpliterators.balanced(numbers);
+        Spliterator<Integer> prefix = spliterator.trySplit();
+        assertEquals(50_000, prefix.estimateSize());
+        assertEquals(50_000, spliterator.estimateSize());
+        assertTrue(spliterator.hasCharacteristics(Spliterator.ORDERED | Spliterator.SUBSIZED));
+
+        List<Integer> doubled = BalancedSpliterators.parallelStream(numbers).map(n -> n * 2).collect(Collectors.toList());
+        assertEquals(numbers.stream().map(n -> n * 2).collect(Collectors.toList()), doubled);
+    }
+
+    @Test
+    public void testHashSet() {
+        Set<Integer> numbers = DataSet.generateIntegerSet(50_000);
+
+        assertEquals(50_000L * 50_001L / 2, BalancedSpliterators.parallelStream(numbers).mapToLong(n -> n).sum());
+        assertTrue(BalancedSpliterators.balanced(numbers).hasCharacteristics(Spliterator.DISTINCT));
+    }
+
+    @Test
+    public void testUnknownSizeSource() {
+        Spliterator<Integer> source = Stream.iterate(1, n -> n <= 10_000, n -> n + 1).spliterator();
+
+        Spliterator<Integer> balanced = BalancedSpliterators.balanced(source);
+        assertFalse(balanced.hasCharacteristics(Spliterator.SIZED));
+
+        List<Integer> numbers = StreamSupport.stream(balanced, true).collect(Collectors.toList());
+        assertEquals(DataSet.generateIntegerList(10_000), numbers);
+    }
+}
@@ -0,0 +1,64 @@
+package com.learnjava.collections;
+
+import com.learnjava.util.DataSet;
+import org.junit.jupiter.api.Test;
+
+import java.util.ConcurrentModificationException;
+import java.util.Spliterator;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntArrayListTest {
+
+    @Test
+    public void testParallelSum_DoesNotOverflow() {
+        IntArrayList numbers = DataSet.generateIntArrayList(1_000_000);
+
+        assertEquals(1_000_000L * 1_000_001L / 2, numbers.parallelSum());
+        assertEquals(numbers.sum(), numbers.parallelSum());
+    }
+
+    @Test
+    public void testParallelStream_KeepsOrder() {
+        IntArrayList numbers = DataSet.generateIntArrayList(100_000);
+
+        assertArrayEquals(IntStream.rangeClosed(2, 200_000).filter(n -> n % 2 == 0).toArray(),
+                numbers.parallelStream().map(n -> n * 2).toArray());
+    }
+
+    @Test
+    public void testParallelReduce() {
+        IntArrayList numbers = DataSet.generateIntArrayList(50_000);
+
+        assertEquals(50_000, numbers.parallelReduce(Integer.MIN_VALUE, Math::max));
+        assertEquals(numbers.reduce(0, Integer::sum), numbers.parallelReduce(0, Integer::sum));
+    }
+
+    @Test
+    public void testAddAndSpliterator() {
+        IntArrayList numbers = new IntArrayList(0);
+        for (int number = 1; number <= 100; number++) {
+            numbers.add(number);
+        }
+
+        Spliterator.OfInt spliterator = numbers.spliterator();
+        Spliterator.OfInt prefix = spliterator.trySplit();
+        assertEquals(50, prefix.estimateSize());
+        assertEquals(50, spliterator.estimateSize());
+        assertTrue(spliterator.hasCharacteristics(Spliterator.SUBSIZED));
+        assertEquals(5050, numbers.stream().sum());
+
+        Spliterator.OfInt modified = numbers.spliterator();
+        assertThrows(ConcurrentModificationException.class, () -> modified.tryAdvance((int number) -> numbers.add(number)));
+    }
+
+    @Test
+    public void testLongArrayList() {
+        LongArrayList numbers = DataSet.generateLongArrayList(100_000);
+
+        assertEquals(100_000L * 100_001L / 2, numbers.parallelSum());
+        assertEquals(100_000L, numbers.parallelReduce(Long.MIN_VALUE, Math::max));
+        assertEquals(100_000, numbers.parallelStream().count());
+    }
+}
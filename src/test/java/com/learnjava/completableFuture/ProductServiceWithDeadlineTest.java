@@ -0,0 +1,104 @@
+package com.learnjava.completableFuture;
+
+import com.learnjava.domain.ProductPart;
+import com.learnjava.domain.ProductResult;
+import com.learnjava.service.CachingReviewService;
+import com.learnjava.service.InventoryService;
+import com.learnjava.service.ProductInfoService;
+import com.learnjava.service.ReviewService;
+import com.learnjava.simulation.LatencyModel;
+import com.learnjava.simulation.LatencySimulator;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductServiceWithDeadlineTest {
+    private final ProductInfoService productInfoService = new ProductInfoService();
+    private final InventoryService inventoryService = new InventoryService();
+
+    @Test
+    public void testRetrieveProductDetails_WithinDeadline() {
+        ProductServiceWithDeadline productService = new ProductServiceWithDeadline(productInfoService, new ReviewService(), inventoryService,
+                AggregationFallbacks.withoutReviews());
+
+        ProductResult productResult = productService.retrieveProductDetails("ABC123", Duration.ofMillis(3000));
+
+        assertFalse(productResult.isDegraded());
+        assertEquals(200, productResult.getProduct().getReview().getNoOfReviews());
+        productResult.getProduct().getProductInfo().getProductOptions()
+                .forEach(productOption -> assertNotNull(productOption.getInventory()));
+    }
+
+    @Test
+    public void testRetrieveProductDetails_SlowReviews() {
+        ReviewService slowReviewService = new ReviewService(LatencySimulator.constant(Duration.ofSeconds(5)));
+        ProductServiceWithDeadline productService = new ProductServiceWithDeadline(productInfoService, slowReviewService, inventoryService,
+                AggregationFallbacks.withoutReviews());
+        int pendingBefore = LatencySimulator.pendingAsyncCalls();
+
+        long start = System.currentTimeMillis();
+        ProductResult productResult = productService.retrieveProductDetails("ABC123", Duration.ofMillis(2000));
+        long timeTaken = System.currentTimeMillis() - start;
+
+        assertEquals(Set.of(ProductPart.REVIEW), productResult.getDegradedParts());
+        assertEquals(0, productResult.getProduct().getReview().getNoOfReviews());
+        assertTrue(timeTaken < 2500, "time taken : " + timeTaken);
+        // the timed out review call doesn't wait past the deadline
+        assertEquals(pendingBefore, LatencySimulator.pendingAsyncCalls());
+    }
+
+    @Test
+    public void testRetrieveProductDetails_SlowReviewsWithoutFallback() {
+        ReviewService slowReviewService = new ReviewService(LatencySimulator.constant(Duration.ofSeconds(5)));
+        ProductServiceWithDeadline productService = new ProductServiceWithDeadline(productInfoService, slowReviewService, inventoryService,
+                new AggregationFallbacks(productId -> null, productId -> null));
+
+        // the timeout, not a NullPointerException from the Product without review
+        CompletionException exception = assertThrows(CompletionException.class,
+                () -> productService.retrieveProductDetails("ABC123", Duration.ofMillis(2000)));
+        assertInstanceOf(TimeoutException.class, exception.getCause());
+    }
+
+    @Test
+    public void testRetrieveProductDetails_StaleReviews() {
+        AtomicInteger callCount = new AtomicInteger();
+        // fast the first time, too slow afterwards
+        LatencyModel latencyModel = random -> Duration.ofMillis(callCount.incrementAndGet() == 1 ? 10 : 5000).toNanos();
+        ReviewService reviewService = new ReviewService(new LatencySimulator(latencyModel, 0.0, 0));
+        CachingReviewService cachingReviewService = new CachingReviewService(reviewService, 100, Duration.ofMillis(1));
+        cachingReviewService.retrieveReviews("ABC123");
+        ProductServiceWithDeadline productService = new ProductServiceWithDeadline(productInfoService, cachingReviewService, inventoryService,
+                AggregationFallbacks.withStaleReviews(cachingReviewService));
+
+        ProductResult productResult = productService.retrieveProductDetails("ABC123", Duration.ofMillis(2000));
+
+        assertEquals(Set.of(ProductPart.REVIEW), productResult.getDegradedParts());
+        assertEquals(200, productResult.getProduct().getReview().getNoOfReviews());
+    }
+
+    @Test
+    public void testRetrieveProductDetails_NoTimeForInventory() {
+        ProductServiceWithDeadline productService = new ProductServiceWithDeadline(productInfoService, new ReviewService(), inventoryService,
+                AggregationFallbacks.withoutReviews());
+
+        ProductResult productResult = productService.retrieveProductDetails("ABC123", Duration.ofMillis(1200));
+
+        assertEquals(Set.of(ProductPart.INVENTORY), productResult.getDegradedParts());
+    }
+
+    @Test
+    public void testProductResult_NoArgsConstructorIsNotDegraded() {
+        ProductResult productResult = new ProductResult();
+
+        assertFalse(productResult.isDegraded());
+        assertTrue(productResult.getDegradedParts().isEmpty());
+        productResult.setDegradedParts(null);
+        assertFalse(productResult.isDegraded());
+    }
+}
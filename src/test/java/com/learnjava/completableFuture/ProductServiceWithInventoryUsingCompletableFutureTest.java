@@ -0,0 +1,115 @@
+package com.learnjava.completableFuture;
+
+import com.learnjava.domain.Product;
+import com.learnjava.service.CachingProductInfoService;
+import com.learnjava.service.HedgedReviewService;
+import com.learnjava.service.InventoryService;
+import com.learnjava.service.ProductInfoService;
+import com.learnjava.service.ReviewService;
+import com.learnjava.simulation.LatencyModel;
+import com.learnjava.simulation.LatencySimulator;
+import com.learnjava.simulation.SimulatedFailureException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductServiceWithInventoryUsingCompletableFutureTest {
+
+    private final LatencySimulator latencySimulator = LatencySimulator.constant(Duration.ofMillis(200));
+
+    @Test
+    public void testRetrieveProductDetailsNonBlocking_ManyRequestsInFlight() {
+        // none of the calls must go to an executor
+        AtomicInteger executorTasks = new AtomicInteger();
+        Executor countingExecutor = task -> {
+            executorTasks.incrementAndGet();
+            task.run();
+        };
+        ProductServiceWithInventoryUsingCompletableFuture productService = new ProductServiceWithInventoryUsingCompletableFuture(
+                new ProductInfoService(latencySimulator), new ReviewService(latencySimulator), new InventoryService(latencySimulator),
+                countingExecutor);
+
+        long start = System.currentTimeMillis();
+        List<CompletableFuture<Product>> productFutures = IntStream.range(0, 10_000)
+                .mapToObj(request -> productService.retrieveProductDetailsNonBlocking("PRODUCT-" + request))
+                .collect(Collectors.toList());
+        CompletableFuture.allOf(productFutures.toArray(new CompletableFuture<?>[0])).join();
+        long timeTaken = System.currentTimeMillis() - start;
+
+        // product info then inventory : 2 latencies, whatever the number of requests
+        assertTrue(timeTaken < 5_000, "time taken : " + timeTaken);
+        assertEquals(0, executorTasks.get());
+        Product product = productFutures.get(42).join();
+        assertEquals("PRODUCT-42", product.getProductId());
+        assertNotNull(product.getReview());
+        product.getProductInfo().getProductOptions()
+                .forEach(productOption -> assertNotNull(productOption.getInventory()));
+    }
+
+    @Test
+    public void testRetrieveProductDetailsNonBlocking_CachingAndHedgedServices() {
+        AtomicInteger executorTasks = new AtomicInteger();
+        Executor countingExecutor = task -> {
+            executorTasks.incrementAndGet();
+            task.run();
+        };
+        CachingProductInfoService productInfoService = new CachingProductInfoService(new ProductInfoService(latencySimulator), 100, Duration.ofMinutes(1));
+        // the primary takes 2 s, the backup (sent after 50 ms) wins
+        ReviewService slowPrimary = new ReviewService(LatencySimulator.constant(Duration.ofSeconds(2)));
+        try (HedgedReviewService reviewService = new HedgedReviewService(List.of(slowPrimary, new ReviewService(latencySimulator)), 95, Duration.ofMillis(50))) {
+            ProductServiceWithInventoryUsingCompletableFuture productService = new ProductServiceWithInventoryUsingCompletableFuture(
+                    productInfoService, reviewService, new InventoryService(latencySimulator), countingExecutor);
+
+            long start = System.currentTimeMillis();
+            List<CompletableFuture<Product>> productFutures = IntStream.range(0, 1_000)
+                    .mapToObj(request -> productService.retrieveProductDetailsNonBlocking("PRODUCT-" + request % 10))
+                    .collect(Collectors.toList());
+            long timeToReturn = System.currentTimeMillis() - start;
+            CompletableFuture.allOf(productFutures.toArray(new CompletableFuture<?>[0])).join();
+            long timeTaken = System.currentTimeMillis() - start;
+
+            // cache misses and hedged calls don't block the caller either
+            assertTrue(timeToReturn < 1_000, "time to return : " + timeToReturn);
+            assertTrue(timeTaken < 1_500, "time taken : " + timeTaken);
+            assertEquals(0, executorTasks.get());
+            assertEquals(10, productInfoService.stats().missCount());
+            assertEquals(1_000, reviewService.getHedgedRequest().getBackupWinCount());
+            assertEquals("PRODUCT-7", productFutures.get(17).join().getProductId());
+        }
+    }
+
+    @Test
+    public void testRetrieveProductDetailsNonBlocking_CancelLeavesTheTimer() {
+        LatencySimulator slowSimulator = LatencySimulator.constant(Duration.ofMinutes(10));
+        ProductServiceWithInventoryUsingCompletableFuture productService = new ProductServiceWithInventoryUsingCompletableFuture(
+                new ProductInfoService(slowSimulator), new ReviewService(slowSimulator), new InventoryService(slowSimulator));
+        int pendingBefore = LatencySimulator.pendingAsyncCalls();
+
+        CompletableFuture<Product> productFuture = productService.retrieveProductDetailsNonBlocking("ABC123");
+        assertEquals(pendingBefore + 2, LatencySimulator.pendingAsyncCalls());
+        productFuture.cancel(true);
+
+        // product info and review calls are cancelled too
+        assertEquals(pendingBefore, LatencySimulator.pendingAsyncCalls());
+    }
+
+    @Test
+    public void testRetrieveProductDetailsNonBlocking_Failure() {
+        ReviewService failingReviewService = new ReviewService(new LatencySimulator(LatencyModel.constant(Duration.ofMillis(10)), 1.0, 0));
+        ProductServiceWithInventoryUsingCompletableFuture productService = new ProductServiceWithInventoryUsingCompletableFuture(
+                new ProductInfoService(latencySimulator), failingReviewService, new InventoryService(latencySimulator));
+
+        CompletionException exception = assertThrows(CompletionException.class,
+                () -> productService.retrieveProductDetailsNonBlocking("ABC123").join());
+        assertInstanceOf(SimulatedFailureException.class, exception.getCause());
+    }
+}
@@ -0,0 +1,196 @@
+package com.learnjava.completableFuture;
+
+import com.learnjava.domain.Product;
+import com.learnjava.domain.ProductInfo;
+import com.learnjava.domain.Review;
+import com.learnjava.service.InventoryService;
+import com.learnjava.service.ProductInfoService;
+import com.learnjava.service.ReviewService;
+import com.learnjava.simulation.LatencySimulator;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.learnjava.util.CommonUtil.delay;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StreamingProductServiceTest {
+
+    private final List<String> productIds = IntStream.rangeClosed(1, 200).mapToObj(id -> "ABC" + id).collect(Collectors.toList());
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlightSeen = new AtomicInteger();
+    private final AtomicInteger started = new AtomicInteger();
+
+    // product with a random latency of 0..10 ms, tracking how many are retrieved at the same time
+    private CompletableFuture<Product> retrieveProduct(String productId) {
+        started.incrementAndGet();
+        maxInFlightSeen.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        return CompletableFuture.supplyAsync(() -> {
+            inFlight.decrementAndGet();
+            if (productId.equals("FAIL")) {
+                throw new IllegalStateException("product not found : " + productId);
+            }
+            return new Product(productId, new ProductInfo(productId, List.of()), new Review(1, 5.0));
+        }, CompletableFuture.delayedExecutor(ThreadLocalRandom.current().nextInt(10), TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testOrdered_KeepsOrderOfIdsAndLimitsInFlight() throws InterruptedException {
+        StreamingProductService streamingProductService = new StreamingProductService(this::retrieveProduct, 8, true);
+
+        CollectingSubscriber subscriber = new CollectingSubscriber(Long.MAX_VALUE);
+        streamingProductService.retrieveProductDetails(productIds.stream()).subscribe(subscriber);
+
+        assertTrue(subscriber.completed.await(10, TimeUnit.SECONDS));
+        assertNull(subscriber.error);
+        assertEquals(productIds, subscriber.productIds());
+        assertTrue(maxInFlightSeen.get() <= 8, "max in flight : " + maxInFlightSeen.get());
+    }
+
+    @Test
+    public void testUnordered_EmitsAllProducts() throws InterruptedException {
+        StreamingProductService streamingProductService = new StreamingProductService(this::retrieveProduct, 16, false);
+
+        CollectingSubscriber subscriber = new CollectingSubscriber(Long.MAX_VALUE);
+        streamingProductService.retrieveProductDetails(productIds.stream()).subscribe(subscriber);
+
+        assertTrue(subscriber.completed.await(10, TimeUnit.SECONDS));
+        assertEquals(new HashSet<>(productIds), new HashSet<>(subscriber.productIds()));
+        assertEquals(productIds.size(), subscriber.products.size());
+    }
+
+    @Test
+    public void testBackpressure_SlowSubscriberLimitsRetrievals() {
+        StreamingProductService streamingProductService = new StreamingProductService(this::retrieveProduct, 4, false);
+
+        CollectingSubscriber subscriber = new CollectingSubscriber(5);
+        streamingProductService.retrieveProductDetails(productIds.stream()).subscribe(subscriber);
+        delay(300);
+
+        assertEquals(5, subscriber.products.size());
+        // 5 emitted + at most 4 waiting for demand
+        assertTrue(started.get() <= 9, "started : " + started.get());
+    }
+
+    @Test
+    public void testFailedProduct_FailsTheStream() throws InterruptedException {
+        StreamingProductService streamingProductService = new StreamingProductService(this::retrieveProduct, 4, true);
+
+        CollectingSubscriber subscriber = new CollectingSubscriber(Long.MAX_VALUE);
+        streamingProductService.retrieveProductDetails(List.of("ABC1", "FAIL", "ABC3").stream()).subscribe(subscriber);
+
+        assertTrue(subscriber.completed.await(10, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, subscriber.error);
+        assertEquals(List.of("ABC1"), subscriber.productIds());
+    }
+
+    @Test
+    public void testCancel_CancelsRetrievalsInFlight() {
+        List<CompletableFuture<Product>> retrievals = java.util.Collections.synchronizedList(new ArrayList<>());
+        // never completes on its own
+        StreamingProductService streamingProductService = new StreamingProductService(productId -> {
+            CompletableFuture<Product> retrieval = new CompletableFuture<>();
+            retrievals.add(retrieval);
+            return retrieval;
+        }, 4, true);
+
+        CollectingSubscriber subscriber = new CollectingSubscriber(Long.MAX_VALUE);
+        streamingProductService.retrieveProductDetails(productIds.stream()).subscribe(subscriber);
+        subscriber.subscription.cancel();
+
+        assertEquals(4, retrievals.size());
+        retrievals.forEach(retrieval -> assertTrue(retrieval.isCancelled()));
+    }
+
+    @Test
+    public void testFailedProduct_CancelsRetrievalsInFlight() throws InterruptedException {
+        List<CompletableFuture<Product>> retrievals = java.util.Collections.synchronizedList(new ArrayList<>());
+        StreamingProductService streamingProductService = new StreamingProductService(productId -> {
+            CompletableFuture<Product> retrieval = productId.equals("FAIL")
+                    ? CompletableFuture.failedFuture(new IllegalStateException("product not found : " + productId))
+                    : new CompletableFuture<>();
+            retrievals.add(retrieval);
+            return retrieval;
+        }, 4, false);
+
+        CollectingSubscriber subscriber = new CollectingSubscriber(Long.MAX_VALUE);
+        streamingProductService.retrieveProductDetails(List.of("ABC1", "ABC2", "FAIL", "ABC4").stream()).subscribe(subscriber);
+
+        assertTrue(subscriber.completed.await(10, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, subscriber.error);
+        // ABC4 is not started, the stream has failed by then
+        assertEquals(3, retrievals.size());
+        assertTrue(retrievals.get(0).isCancelled());
+        assertTrue(retrievals.get(1).isCancelled());
+    }
+
+    @Test
+    public void testDefaultRetrieval_NotLimitedByTheBulkheads() throws InterruptedException {
+        LatencySimulator latencySimulator = LatencySimulator.constant(Duration.ofMillis(200));
+        ProductServiceWithInventoryUsingCompletableFuture productService = new ProductServiceWithInventoryUsingCompletableFuture(
+                new ProductInfoService(latencySimulator), new ReviewService(latencySimulator), new InventoryService(latencySimulator));
+        StreamingProductService streamingProductService = new StreamingProductService(productService, 200, false);
+
+        long start = System.currentTimeMillis();
+        CollectingSubscriber subscriber = new CollectingSubscriber(Long.MAX_VALUE);
+        streamingProductService.retrieveProductDetails(productIds.stream()).subscribe(subscriber);
+
+        assertTrue(subscriber.completed.await(10, TimeUnit.SECONDS));
+        long timeTaken = System.currentTimeMillis() - start;
+        assertNull(subscriber.error);
+        assertEquals(200, subscriber.products.size());
+        // 200 products at the same time : 2 latencies, not 200 / bulkhead threads
+        assertTrue(timeTaken < 2_000, "time taken : " + timeTaken);
+    }
+
+    private static final class CollectingSubscriber implements Flow.Subscriber<Product> {
+        private final long initialRequest;
+        private volatile Flow.Subscription subscription;
+        private final List<Product> products = java.util.Collections.synchronizedList(new ArrayList<>());
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private volatile Throwable error;
+
+        private CollectingSubscriber(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(initialRequest);
+        }
+
+        @Override
+        public void onNext(Product product) {
+            products.add(product);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            completed.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed.countDown();
+        }
+
+        private List<String> productIds() {
+            synchronized (products) {
+                return products.stream().map(Product::getProductId).collect(Collectors.toList());
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.learnjava.executorService;
+
+import com.learnjava.executorService.BulkheadExecutor.OverflowPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BulkheadExecutorTest {
+
+    @Test
+    public void testReject_WhenQueueIsFull() throws InterruptedException {
+        BulkheadExecutor bulkhead = BulkheadExecutor.of("test-reject", 1, 1, OverflowPolicy.REJECT);
+        CountDownLatch release = new CountDownLatch(1);
+
+        bulkhead.execute(() -> await(release)); // running
+        bulkhead.execute(() -> await(release)); // queued
+
+        assertThrows(RejectedExecutionException.class, () -> bulkhead.execute(() -> { }));
+        assertEquals(1, bulkhead.getRejectedCount());
+
+        release.countDown();
+        assertTrue(bulkhead.shutdownGracefully(Duration.ofSeconds(1)));
+    }
+
+    @Test
+    public void testCallerRuns_WhenQueueIsFull() throws InterruptedException {
+        BulkheadExecutor bulkhead = BulkheadExecutor.of("test-caller-runs", 1, 1, OverflowPolicy.CALLER_RUNS);
+        CountDownLatch release = new CountDownLatch(1);
+        bulkhead.execute(() -> await(release));
+        bulkhead.execute(() -> await(release));
+
+        AtomicReference<Thread> executingThread = new AtomicReference<>();
+        bulkhead.execute(() -> executingThread.set(Thread.currentThread()));
+
+        assertSame(Thread.currentThread(), executingThread.get());
+        assertEquals(0, bulkhead.getRejectedCount());
+
+        release.countDown();
+        assertTrue(bulkhead.shutdownGracefully(Duration.ofSeconds(1)));
+    }
+
+    @Test
+    public void testShutdownGracefully_InterruptsLongRunningTasks() {
+        BulkheadExecutor bulkhead = BulkheadExecutor.of("test-shutdown", 1, 10, OverflowPolicy.REJECT);
+        bulkhead.execute(() -> await(new CountDownLatch(1)));
+
+        assertTrue(bulkhead.shutdownGracefully(Duration.ofMillis(100)));
+        assertTrue(bulkhead.isTerminated());
+        assertThrows(RejectedExecutionException.class, () -> bulkhead.execute(() -> { }));
+    }
+
+    @Test
+    public void testBlock_ShutdownNowWhileWaiting_TaskIsRejected() throws InterruptedException {
+        BulkheadExecutor bulkhead = BulkheadExecutor.of("test-block", 1, 1, OverflowPolicy.BLOCK, Duration.ofSeconds(5));
+        CountDownLatch release = new CountDownLatch(1);
+        bulkhead.execute(() -> await(release));
+        bulkhead.execute(() -> await(release));
+
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread submitter = new Thread(() -> {
+            try {
+                bulkhead.execute(() -> { });
+            } catch (RejectedExecutionException e) {
+                failure.set(e);
+            }
+        });
+        submitter.start();
+        Thread.sleep(100); // submitter waits for space in the queue
+        bulkhead.shutdownNow();
+        submitter.join(5_000);
+
+        // rejected instead of queued in a bulkhead which never runs it
+        assertInstanceOf(RejectedExecutionException.class, failure.get());
+        assertTrue(bulkhead.getQueue().isEmpty());
+        assertTrue(bulkhead.awaitTermination(1, TimeUnit.SECONDS));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.learnjava.executorService;
+
+import com.learnjava.executorService.BulkheadExecutor.OverflowPolicy;
+import com.learnjava.executorService.ExecutorRegistry.Downstream;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExecutorRegistryTest {
+
+    @Test
+    public void testFullBulkheadDoesNotRunOnTheSubmittingBulkhead() throws InterruptedException {
+        ExecutorRegistry executorRegistry = new ExecutorRegistry(Map.of(
+                Downstream.PRODUCT_INFO, BulkheadExecutor.of("test-productInfo", 1, 1, OverflowPolicy.BLOCK, Duration.ofMillis(50)),
+                Downstream.REVIEWS, BulkheadExecutor.of("test-reviews", 1, 1, OverflowPolicy.BLOCK, Duration.ofMillis(50)),
+                Downstream.INVENTORY, BulkheadExecutor.of("test-inventory", 1, 1, OverflowPolicy.BLOCK, Duration.ofMillis(50)),
+                Downstream.PRICE_VALIDATION, BulkheadExecutor.of("test-priceValidation", 1, 1, OverflowPolicy.BLOCK, Duration.ofMillis(50))));
+        BulkheadExecutor inventory = executorRegistry.executorFor(Downstream.INVENTORY);
+        CountDownLatch release = new CountDownLatch(1);
+        inventory.execute(() -> await(release)); // running
+        inventory.execute(() -> await(release)); // queued
+
+        // inventory call submitted from a productInfo thread, as in a thenApply() of the product info
+        AtomicReference<Thread> inventoryThread = new AtomicReference<>();
+        CompletableFuture<Void> submitted = CompletableFuture.runAsync(
+                () -> inventory.execute(() -> inventoryThread.set(Thread.currentThread())),
+                executorRegistry.executorFor(Downstream.PRODUCT_INFO));
+
+        // rejected after the block timeout instead of running on the productInfo thread
+        CompletionException exception = assertThrows(CompletionException.class, submitted::join);
+        assertInstanceOf(RejectedExecutionException.class, exception.getCause());
+        assertNull(inventoryThread.get());
+        assertEquals(1, inventory.getRejectedCount());
+
+        release.countDown();
+        executorRegistry.shutdown(Duration.ofSeconds(1));
+    }
+
+    @Test
+    public void testNoUseAfterShutdown() {
+        ExecutorRegistry executorRegistry = new ExecutorRegistry();
+        executorRegistry.executorFor(Downstream.REVIEWS);
+
+        executorRegistry.shutdown(Duration.ofSeconds(1));
+
+        assertTrue(executorRegistry.isShutdown());
+        assertThrows(IllegalStateException.class, () -> executorRegistry.executorFor(Downstream.REVIEWS));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
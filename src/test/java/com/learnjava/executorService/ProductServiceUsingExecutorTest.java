@@ -0,0 +1,40 @@
+package com.learnjava.executorService;
+
+import com.learnjava.metrics.LatencyHistogram;
+import com.learnjava.metrics.LatencyMetrics;
+import com.learnjava.service.ProductInfoService;
+import com.learnjava.service.ReviewService;
+import com.learnjava.simulation.LatencySimulator;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeoutException;
+
+import static com.learnjava.metrics.LatencyMetrics.REQUEST;
+import static com.learnjava.metrics.LatencyMetrics.stageName;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductServiceUsingExecutorTest {
+
+    @Test
+    public void testRetrieveProductDetails_TimedOutRequestIsRecorded() {
+        LatencyHistogram requestHistogram = LatencyMetrics.defaultMetrics()
+                .histogram(stageName(ProductServiceUsingExecutor.class, REQUEST));
+        long countBefore = requestHistogram.snapshot().count();
+        // slower than the 1200 ms deadline
+        ReviewService slowReviewService = new ReviewService(LatencySimulator.constant(Duration.ofSeconds(2)));
+
+        try (ExecutorService executorService = Executors.newFixedThreadPool(2)) {
+            ProductServiceUsingExecutor productService = new ProductServiceUsingExecutor(
+                    new ProductInfoService(LatencySimulator.constant(Duration.ofMillis(10))), slowReviewService, executorService);
+
+            assertThrows(TimeoutException.class, () -> productService.retrieveProductDetails("ABC123"));
+            executorService.shutdownNow();
+        }
+
+        assertEquals(countBefore + 1, requestHistogram.snapshot().count());
+        assertTrue(requestHistogram.snapshot().maxNanos() >= Duration.ofMillis(1200).toNanos());
+    }
+}
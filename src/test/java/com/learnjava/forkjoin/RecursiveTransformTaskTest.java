@@ -0,0 +1,51 @@
+package com.learnjava.forkjoin;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RecursiveTransformTaskTest {
+
+    private final List<Integer> numbers = IntStream.range(0, 1_000_000).boxed().collect(Collectors.toList());
+    private final List<String> expected = numbers.stream().map(String::valueOf).collect(Collectors.toList());
+
+    @Test
+    public void testTransform_AutoThreshold_KeepsOrder() {
+        List<String> resultList = RecursiveTransformTask.transform(numbers, String::valueOf);
+
+        assertEquals(expected, resultList);
+    }
+
+    @Test
+    public void testTransform_FixedThreshold_KeepsOrder() {
+        ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+        for (int threshold : new int[]{1, 7, 1000, 2_000_000}) {
+            List<String> resultList = RecursiveTransformTask.transform(forkJoinPool, numbers.subList(0, 100_000), String::valueOf, threshold);
+
+            assertEquals(expected.subList(0, 100_000), resultList, "threshold : " + threshold);
+        }
+        forkJoinPool.shutdown();
+    }
+
+    @Test
+    public void testTransform_NonRandomAccessAndEmptyList() {
+        List<String> resultList = RecursiveTransformTask.transform(new LinkedList<>(numbers.subList(0, 1000)), String::valueOf);
+        assertEquals(expected.subList(0, 1000), resultList);
+
+        assertTrue(RecursiveTransformTask.transform(List.<Integer>of(), String::valueOf).isEmpty());
+    }
+
+    @Test
+    public void testForkJoinUsingRecursion() {
+        List<String> resultList = new ForkJoinPool().invoke(new ForkJoinUsingRecursion(List.of("Bob", "Jamie"), 1));
+
+        assertEquals(List.of("3 - Bob", "5 - Jamie"), resultList);
+    }
+}
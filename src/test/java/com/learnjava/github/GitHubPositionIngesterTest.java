@@ -0,0 +1,85 @@
+package com.learnjava.github;
+
+import com.learnjava.domain.github.GitHubPosition;
+import com.learnjava.util.DataSet;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GitHubPositionIngesterTest {
+
+    @Test
+    public void testIngestAcrossChunks() throws IOException {
+        Path file = DataSet.writeGitHubPositions(Files.createTempFile("github-positions", ".jsonl"), 5_000);
+        try {
+            Map<String, GitHubPosition> positions = new ConcurrentHashMap<>();
+            // chunks much smaller than a line, and lines larger than the first read buffer
+            GitHubPositionIngester ingester = new GitHubPositionIngester(4, 97, Duration.ofSeconds(1), progress -> {
+            });
+
+            IngestionProgress progress = ingester.ingest(file, gitHubPosition -> {
+                assertNull(positions.put(gitHubPosition.getId(), gitHubPosition), "position read twice");
+            });
+
+            assertEquals(5_000, positions.size());
+            assertEquals(5_000, progress.positions());
+            assertEquals(0, progress.malformedLines());
+            assertEquals(Files.size(file), progress.bytesRead());
+            GitHubPosition gitHubPosition = positions.get("POSITION-2");
+            assertEquals("München", gitHubPosition.getLocation());
+            assertEquals("<p>Join the \"Initech\" team.</p>\n<p>Java, concurrency and parallelism.</p>", gitHubPosition.getDescription());
+            assertNull(gitHubPosition.getCompany_logo());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testMalformedAndBlankLines() throws IOException {
+        Path file = Files.createTempFile("github-positions", ".jsonl");
+        try {
+            Files.writeString(file, "{\"id\":\"1\",\"title\":\"Café\",\"tags\":[\"a\",{\"b\":1}],\"remote\":true}\r\n"
+                    + "\n"
+                    + "{\"id\":\"2\",\"title\":\n"
+                    + "{\"id\":\"3\",\"title\":\"\\ud83d\\ude00\"}", StandardCharsets.UTF_8);
+            Map<String, GitHubPosition> positions = new ConcurrentHashMap<>();
+
+            IngestionProgress progress = new GitHubPositionIngester(2, 16, Duration.ofSeconds(1), p -> {
+            }).ingest(file, gitHubPosition -> positions.put(gitHubPosition.getId(), gitHubPosition));
+
+            assertEquals(4, progress.lines());
+            assertEquals(2, progress.positions());
+            assertEquals(1, progress.malformedLines());
+            assertEquals("Café", positions.get("1").getTitle());
+            assertEquals("😀", positions.get("3").getTitle());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testConsumerFailureStopsIngestion() throws IOException {
+        Path file = DataSet.writeGitHubPositions(Files.createTempFile("github-positions", ".jsonl"), 1_000);
+        try {
+            GitHubPositionIngester ingester = new GitHubPositionIngester(2, 4096, Duration.ofSeconds(1), progress -> {
+            });
+
+            IllegalStateException exception = assertThrows(IllegalStateException.class, () -> ingester.ingest(file, gitHubPosition -> {
+                if (gitHubPosition.getId().equals("POSITION-500")) {
+                    throw new IllegalStateException("consumer failed");
+                }
+            }));
+            assertEquals("consumer failed", exception.getMessage());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.learnjava.github;
+
+import com.learnjava.domain.github.GitHubPosition;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PositionIndexTest {
+
+    private static final List<String> WORDS = List.of("java", "kotlin", "senior", "junior", "backend", "frontend",
+            "cloud", "data", "platform", "engineer");
+    private static final List<String> LOCATIONS = List.of("Remote", "Berlin", "New York, NY");
+    private static final List<String> COMPANIES = List.of("Acme", "Globex", "Initech");
+
+    @Test
+    public void testSearchMatchesLinearScan() {
+        List<GitHubPosition> positions = randomPositions(20_000, new Random(42));
+        PositionIndex index = new PositionIndex(ForkJoinPool.commonPool(), 500);
+        for (int from = 0; from < positions.size(); from += 3_000) {
+            index.append(positions.subList(from, Math.min(positions.size(), from + 3_000)));
+        }
+        assertEquals(20_000, index.size());
+        assertTrue(index.segmentCount() < 7);
+
+        assertSameHits(index, positions, PositionQuery.builder().allOf("java"),
+                position -> text(position).contains("java"));
+        assertSameHits(index, positions, PositionQuery.builder().allOf("Senior Java").location("Remote"),
+                position -> text(position).contains("senior") && text(position).contains("java") && position.getLocation().equals("Remote"));
+        assertSameHits(index, positions, PositionQuery.builder().anyOf("kotlin", "cloud").company("Globex").type("Part Time"),
+                position -> (text(position).contains("kotlin") || text(position).contains("cloud"))
+                        && position.getCompany().equals("Globex") && position.getType().equals("Part Time"));
+        assertSameHits(index, positions, PositionQuery.builder().allOf("data").anyOf("frontend", "backend", "missing"),
+                position -> text(position).contains("data") && (text(position).contains("frontend") || text(position).contains("backend")));
+        assertSameHits(index, positions, PositionQuery.builder().location("Berlin"),
+                position -> position.getLocation().equals("Berlin"));
+        assertSameHits(index, positions, PositionQuery.builder(), position -> true);
+
+        assertEquals(0, index.search(PositionQuery.builder().allOf("java", "missing").build()).totalHits());
+        assertEquals(0, index.search(PositionQuery.builder().location("remote").build()).totalHits());
+    }
+
+    @Test
+    public void testLimitKeepsTheFirstHits() {
+        List<GitHubPosition> positions = randomPositions(1_000, new Random(7));
+        PositionIndex index = new PositionIndex();
+        index.append(positions);
+
+        SearchResult result = index.search(PositionQuery.builder().limit(5).build());
+
+        assertEquals(1_000, result.totalHits());
+        assertEquals(positions.subList(0, 5), result.positions());
+    }
+
+    @Test
+    public void testConcurrentAppends() {
+        List<GitHubPosition> positions = randomPositions(40_000, new Random(11));
+        PositionIndex index = new PositionIndex(ForkJoinPool.commonPool(), 500);
+
+        // batches of different sizes from several threads, merges race with the other appends
+        List<List<GitHubPosition>> batches = new ArrayList<>();
+        for (int from = 0, size = 100; from < positions.size(); from += size, size = size % 3_000 + 700) {
+            batches.add(positions.subList(from, Math.min(positions.size(), from + size)));
+        }
+        batches.parallelStream().forEach(index::append);
+
+        assertEquals(40_000, index.size());
+        assertTrue(index.segmentCount() < 20, "segments : " + index.segmentCount());
+        // the order of the batches depends on the threads, every position is found once
+        assertSameHitsInAnyOrder(index, positions, PositionQuery.builder(), position -> true);
+        assertSameHitsInAnyOrder(index, positions, PositionQuery.builder().allOf("java").location("Berlin"),
+                position -> text(position).contains("java") && position.getLocation().equals("Berlin"));
+    }
+
+    @Test
+    public void testPostingListAdvance() {
+        int[] docIds = new int[10_000];
+        for (int index = 0; index < docIds.length; index++) {
+            docIds[index] = index * 3 + (index % 7 == 0 ? 1 : 0) + index / 1000 * 100_000;
+        }
+        PostingList postingList = PostingList.of(docIds, docIds.length);
+        assertTrue(postingList.sizeInBytes() < docIds.length * Integer.BYTES / 2);
+
+        PostingList.Cursor cursor = postingList.cursor();
+        for (int docId : docIds) {
+            assertEquals(docId, cursor.next());
+        }
+        assertEquals(DocIterator.NO_MORE_DOCS, cursor.next());
+
+        Random random = new Random(1);
+        for (int run = 0; run < 1_000; run++) {
+            PostingList.Cursor advancing = postingList.cursor();
+            int target = random.nextInt(docIds[docIds.length - 1] + 10);
+            int expected = DocIterator.NO_MORE_DOCS;
+            for (int docId : docIds) {
+                if (docId >= target) {
+                    expected = docId;
+                    break;
+                }
+            }
+            assertEquals(expected, advancing.advance(target));
+        }
+    }
+
+    private static void assertSameHits(PositionIndex index, List<GitHubPosition> positions, PositionQuery.Builder query,
+                                       Predicate<GitHubPosition> expected) {
+        List<String> expectedIds = positions.stream().filter(expected).map(GitHubPosition::getId).collect(Collectors.toList());
+        SearchResult result = index.search(query.limit(Integer.MAX_VALUE).build());
+        assertEquals(expectedIds.size(), result.totalHits());
+        assertEquals(expectedIds, result.positions().stream().map(GitHubPosition::getId).collect(Collectors.toList()));
+    }
+
+    private static void assertSameHitsInAnyOrder(PositionIndex index, List<GitHubPosition> positions, PositionQuery.Builder query,
+                                                 Predicate<GitHubPosition> expected) {
+        List<String> expectedIds = positions.stream().filter(expected).map(GitHubPosition::getId).sorted().collect(Collectors.toList());
+        SearchResult result = index.search(query.limit(Integer.MAX_VALUE).build());
+        assertEquals(expectedIds.size(), result.totalHits());
+        assertEquals(expectedIds, result.positions().stream().map(GitHubPosition::getId).sorted().collect(Collectors.toList()));
+    }
+
+    private static Set<String> text(GitHubPosition position) {
+        Set<String> terms = new HashSet<>(Tokenizer.terms(position.getTitle()));
+        terms.addAll(Tokenizer.terms(position.getDescription()));
+        terms.addAll(Tokenizer.terms(position.getCompany()));
+        terms.addAll(Tokenizer.terms(position.getLocation()));
+        return terms;
+    }
+
+    private static List<GitHubPosition> randomPositions(int count, Random random) {
+        List<GitHubPosition> positions = new ArrayList<>(count);
+        for (int index = 0; index < count; index++) {
+            positions.add(GitHubPosition.builder()
+                    .id("POSITION-" + index)
+                    .type(random.nextInt(3) == 0 ? "Part Time" : "Full Time")
+                    .title(word(random) + " " + word(random))
+                    .description("<p>" + word(random) + " " + word(random) + " " + word(random) + "</p>")
+                    .company(COMPANIES.get(random.nextInt(COMPANIES.size())))
+                    .location(LOCATIONS.get(random.nextInt(LOCATIONS.size())))
+                    .build());
+        }
+        return positions;
+    }
+
+    private static String word(Random random) {
+        return WORDS.get(random.nextInt(WORDS.size()));
+    }
+}
@@ -0,0 +1,154 @@
+package com.learnjava.hedging;
+
+import com.learnjava.simulation.LatencyModel;
+import com.learnjava.simulation.LatencySimulator;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.learnjava.util.CommonUtil.delay;
+import static java.time.Duration.ofMillis;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HedgedRequestTest {
+
+    @Test
+    public void testGet_BackupWinsWhenPrimaryIsSlow() throws InterruptedException {
+        CountDownLatch primaryCancelled = new CountDownLatch(1);
+        Function<String, String> slowPrimary = key -> {
+            delay(2000);
+            if (Thread.currentThread().isInterrupted()) {
+                primaryCancelled.countDown();
+            }
+            return "primary";
+        };
+        Function<String, String> fastBackup = key -> {
+            delay(10);
+            return "backup";
+        };
+
+        try (HedgedRequest<String, String> hedgedRequest = new HedgedRequest<>(List.of(slowPrimary, fastBackup), 95, Duration.ofMillis(50))) {
+            long start = System.currentTimeMillis();
+            assertEquals("backup", hedgedRequest.join("ABC123"));
+            assertTrue(System.currentTimeMillis() - start < 1000);
+
+            assertEquals(1, hedgedRequest.getHedgeCount());
+            assertEquals(1, hedgedRequest.getBackupWinCount());
+            assertTrue(primaryCancelled.await(1, TimeUnit.SECONDS), "primary is cancelled");
+        }
+    }
+
+    @Test
+    public void testGet_NoBackupWhenPrimaryIsFast() {
+        Function<String, String> primary = key -> "primary";
+        Function<String, String> backup = key -> "backup";
+
+        try (HedgedRequest<String, String> hedgedRequest = new HedgedRequest<>(List.of(primary, backup), 95, Duration.ofMillis(500))) {
+            assertEquals("primary", hedgedRequest.join("ABC123"));
+            assertEquals(0, hedgedRequest.getHedgeCount());
+        }
+    }
+
+    @Test
+    public void testGet_FailedPrimaryFallsBackImmediately() {
+        Function<String, String> failingPrimary = key -> {
+            throw new IllegalStateException("primary is down");
+        };
+        Function<String, String> backup = key -> "backup";
+
+        try (HedgedRequest<String, String> hedgedRequest = new HedgedRequest<>(List.of(failingPrimary, backup), 95, Duration.ofSeconds(10))) {
+            long start = System.currentTimeMillis();
+            assertEquals("backup", hedgedRequest.join("ABC123"));
+            assertTrue(System.currentTimeMillis() - start < 1000);
+        }
+    }
+
+    @Test
+    public void testGet_AllReplicasFail() {
+        Function<String, String> failingReplica = key -> {
+            throw new IllegalStateException("replica is down");
+        };
+
+        try (HedgedRequest<String, String> hedgedRequest = new HedgedRequest<>(List.of(failingReplica, failingReplica), 95, Duration.ofMillis(10))) {
+            assertThrows(IllegalStateException.class, () -> hedgedRequest.join("ABC123"));
+        }
+    }
+
+    @Test
+    public void testClose_DoesNotShutDownTheGivenExecutor() {
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            HedgedRequest<String, String> hedgedRequest = new HedgedRequest<>(List.of(key -> "primary"), 95, Duration.ofMillis(500), executorService);
+            assertEquals("primary", hedgedRequest.join("ABC123"));
+
+            hedgedRequest.close();
+
+            assertFalse(executorService.isShutdown());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testGet_AttemptCancelledFromOutsideCountsAsFailure() {
+        // the primary's future is cancelled by someone else than the hedged request
+        Function<String, CompletableFuture<String>> cancelledPrimary = key -> {
+            CompletableFuture<String> attempt = new CompletableFuture<>();
+            CompletableFuture.delayedExecutor(10, TimeUnit.MILLISECONDS).execute(() -> attempt.cancel(true));
+            return attempt;
+        };
+        Function<String, CompletableFuture<String>> backup = key -> CompletableFuture.completedFuture("backup");
+
+        HedgedRequest<String, String> hedgedRequest = HedgedRequest.ofAsync(List.of(cancelledPrimary, backup), 95, Duration.ofSeconds(10));
+        assertEquals("backup", hedgedRequest.get("ABC123").orTimeout(5, TimeUnit.SECONDS).join());
+
+        HedgedRequest<String, String> singleReplica = HedgedRequest.ofAsync(List.of(cancelledPrimary), 95, Duration.ofSeconds(10));
+        // completed with the failure of the last replica instead of hanging
+        assertThrows(CancellationException.class, () -> singleReplica.get("ABC123").orTimeout(5, TimeUnit.SECONDS).join());
+    }
+
+    @Test
+    public void testGet_HedgeRateStaysCloseToPercentile() {
+        // 80% of the calls between 1 and 10 ms, 20% between 50 and 100 ms : p90 is about 75 ms
+        LatencySimulator primaryLatency = new LatencySimulator(LatencyModel.bimodal(
+                LatencyModel.uniform(ofMillis(1), ofMillis(10)), LatencyModel.uniform(ofMillis(50), ofMillis(100)), 0.2), 0.0, 7);
+        Function<String, String> primary = key -> {
+            primaryLatency.simulate("primary");
+            return "primary";
+        };
+        Function<String, String> fastBackup = key -> "backup";
+
+        try (HedgedRequest<String, String> hedgedRequest = new HedgedRequest<>(List.of(primary, fastBackup), 90, ofMillis(75))) {
+            // waves of concurrent requests, the hedge delay is recalculated every 100 latencies
+            for (int wave = 0; wave < 10; wave++) {
+                runWave(hedgedRequest);
+            }
+            long hedgeCountBefore = hedgedRequest.getHedgeCount();
+            for (int wave = 0; wave < 10; wave++) {
+                runWave(hedgedRequest);
+            }
+
+            // the backups winning the slow requests don't pull the hedge delay down
+            double hedgeRate = (hedgedRequest.getHedgeCount() - hedgeCountBefore) / 1000.0;
+            assertTrue(hedgeRate > 0.03 && hedgeRate < 0.2,
+                    "hedge rate : " + hedgeRate + ", hedge delay : " + hedgedRequest.currentHedgeDelayMillis() + " ms");
+        }
+    }
+
+    private static void runWave(HedgedRequest<String, String> hedgedRequest) {
+        List<CompletableFuture<String>> results = IntStream.range(0, 100)
+                .mapToObj(request -> hedgedRequest.get("ABC" + request))
+                .collect(Collectors.toList());
+        results.forEach(CompletableFuture::join);
+    }
+}
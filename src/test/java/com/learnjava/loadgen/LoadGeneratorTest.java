@@ -0,0 +1,70 @@
+package com.learnjava.loadgen;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LoadGeneratorTest {
+
+    @Test
+    public void testOpenLoopCorrectsCoordinatedOmission() throws InterruptedException {
+        // one request in flight : the generator waits for the stall of request 10 before sending the next ones
+        LoadGenerator loadGenerator = new LoadGenerator(requestNumber -> {
+            Thread.sleep(requestNumber == 10 ? 300 : 1);
+            return null;
+        }, 1);
+
+        LoadReport loadReport = loadGenerator.runOpenLoop(100, Duration.ofSeconds(1));
+
+        assertEquals(100, loadReport.requestCount());
+        assertEquals(0, loadReport.errorCount());
+        // the requests which should have been sent during the stall waited for it, measured from their
+        // intended start, while from the actual start only request 10 was slow
+        assertTrue(loadReport.corrected().p90Nanos() > TimeUnit.MILLISECONDS.toNanos(100), loadReport.toString());
+        assertTrue(loadReport.uncorrected().p90Nanos() < TimeUnit.MILLISECONDS.toNanos(50), loadReport.toString());
+    }
+
+    @Test
+    public void testClosedLoopCountsErrors() throws InterruptedException {
+        LoadGenerator loadGenerator = new LoadGenerator(requestNumber -> requestNumber % 4 == 0
+                ? CompletableFuture.failedFuture(new IllegalStateException("failed " + requestNumber))
+                : CompletableFuture.completedFuture(requestNumber));
+
+        LoadReport loadReport = loadGenerator.runClosedLoop(4, Duration.ofMillis(200), Duration.ofMillis(10));
+
+        // 4 users, one request every 10 ms for 200 ms
+        assertEquals(80, loadReport.requestCount());
+        assertEquals(20, loadReport.errorCount());
+        assertEquals(0.25, loadReport.errorRate(), 0.0001);
+        assertInstanceOf(IllegalStateException.class, loadReport.firstError());
+    }
+
+    @Test
+    public void testWritePercentileDistribution() throws InterruptedException, IOException {
+        LoadReport loadReport = new LoadGenerator(requestNumber -> {
+            Thread.sleep(requestNumber % 10);
+            return null;
+        }).runOpenLoop(200, Duration.ofMillis(500));
+        Path file = Files.createTempFile("load", ".hgrm");
+        try {
+            loadReport.writePercentileDistribution(file);
+
+            List<String> lines = Files.readAllLines(file);
+            assertTrue(lines.get(0).trim().startsWith("Value"));
+            String lastValueLine = lines.get(lines.size() - 3).trim();
+            assertTrue(lastValueLine.contains("1.000000000000 "), lastValueLine);
+            assertTrue(lastValueLine.endsWith(" 100"), lastValueLine);
+            assertTrue(lines.get(lines.size() - 1).startsWith("#[Total count"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.learnjava.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testSnapshot_Percentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        // 1 ms .. 1000 ms
+        IntStream.rangeClosed(1, 1000).forEach(value -> histogram.record(value * 1_000_000L));
+
+        HistogramSnapshot snapshot = histogram.snapshot();
+
+        assertEquals(1000, snapshot.count());
+        assertEquals(1_000_000_000L, snapshot.maxNanos());
+        assertWithinOnePercent(500_000_000L, snapshot.p50Nanos());
+        assertWithinOnePercent(990_000_000L, snapshot.p99Nanos());
+        assertWithinOnePercent(999_000_000L, snapshot.p999Nanos());
+    }
+
+    @Test
+    public void testRecord_Concurrent() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        try (ExecutorService executorService = Executors.newFixedThreadPool(8)) {
+            IntStream.range(0, 8).forEach(thread -> executorService.submit(() ->
+                    IntStream.range(0, 100_000).forEach(value -> histogram.record(value))));
+        }
+
+        assertEquals(800_000, histogram.snapshot().count());
+    }
+
+    private static void assertWithinOnePercent(long expected, long actual) {
+        assertTrue(Math.abs(expected - actual) <= expected / 100, "expected " + expected + " but was " + actual);
+    }
+}
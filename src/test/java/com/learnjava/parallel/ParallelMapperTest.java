@@ -0,0 +1,71 @@
+package com.learnjava.parallel;
+
+import com.learnjava.parallel.ParallelMapper.Strategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.learnjava.util.CommonUtil.delay;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelMapperTest {
+
+    private final List<Integer> numbers = IntStream.range(0, 10_000).boxed().collect(Collectors.toList());
+    private final List<String> expected = numbers.stream().map(String::valueOf).collect(Collectors.toList());
+
+    @Test
+    public void testMap_AllStrategies_KeepOrder() {
+        for (Strategy strategy : Strategy.values()) {
+            List<String> resultList = ParallelMapper.<Integer, String>of(strategy, String::valueOf).map(numbers);
+
+            assertEquals(expected, resultList, strategy.name());
+        }
+    }
+
+    @Test
+    public void testMap_ExceptionIsRethrown() {
+        for (Strategy strategy : Strategy.values()) {
+            ParallelMapper<Integer, Integer> mapper = ParallelMapper.of(strategy, number -> {
+                if (number == 5000) {
+                    throw new IllegalStateException("failed : " + number);
+                }
+                return number;
+            });
+
+            assertThrows(IllegalStateException.class, () -> mapper.map(numbers), strategy.name());
+        }
+    }
+
+    @Test
+    public void testAuto_BlockingTransform_UsesVirtualThreads() {
+        AdaptiveParallelMapper<Integer, Integer> mapper = new AdaptiveParallelMapper<>(number -> {
+            delay(20);
+            return number * 2;
+        });
+
+        long start = System.currentTimeMillis();
+        List<Integer> resultList = mapper.map(numbers.subList(0, 500));
+        long timeTaken = System.currentTimeMillis() - start;
+
+        assertEquals(Strategy.VIRTUAL_THREADS, mapper.getLastStrategy());
+        assertEquals(998, (int) resultList.get(499));
+        // 500 * 20 ms sequentially
+        assertTrue(timeTaken < 2000, "time taken : " + timeTaken);
+    }
+
+    @Test
+    public void testAuto_CheapTransform_StaysSequential() {
+        AdaptiveParallelMapper<Integer, String> mapper = new AdaptiveParallelMapper<>(String::valueOf);
+
+        assertEquals(expected.subList(0, 10), mapper.map(numbers.subList(0, 10)));
+        assertEquals(Strategy.SEQUENTIAL, mapper.getLastStrategy());
+    }
+
+    @Test
+    public void testChooseStrategy() {
+        assertEquals(Strategy.SEQUENTIAL, AdaptiveParallelMapper.chooseStrategy(100, 100, 100));
+        assertEquals(Strategy.VIRTUAL_THREADS, AdaptiveParallelMapper.chooseStrategy(10_000_000, 10_000, 100));
+    }
+}
@@ -0,0 +1,69 @@
+package com.learnjava.service;
+
+import com.learnjava.domain.Inventory;
+import com.learnjava.domain.ProductOption;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BatchingInventoryServiceTest {
+
+    @Test
+    public void testAddInventory_CF_SingleBulkCall() {
+        try (BatchingInventoryService batchingInventoryService = new BatchingInventoryService(new InventoryService(), 100, 50)) {
+            // 3 requests for each of the 10 options
+            List<CompletableFuture<Inventory>> inventoryFutureList = IntStream.range(0, 30)
+                    .mapToObj(index -> batchingInventoryService.addInventory_CF(new ProductOption(index % 10, "64GB", "Black", 699.99)))
+                    .collect(Collectors.toList());
+
+            inventoryFutureList.forEach(inventoryFuture -> assertEquals(2, inventoryFuture.join().getCount()));
+            assertEquals(30, batchingInventoryService.getRequestCount());
+            assertEquals(20, batchingInventoryService.getDedupedRequestCount());
+            assertEquals(1, batchingInventoryService.getBulkCallCount());
+        }
+    }
+
+    @Test
+    public void testAddInventory_CF_MaxBatchSize() {
+        try (BatchingInventoryService batchingInventoryService = new BatchingInventoryService(new InventoryService(), 4, 10_000)) {
+            List<CompletableFuture<Inventory>> inventoryFutureList = IntStream.range(0, 8)
+                    .mapToObj(index -> batchingInventoryService.addInventory_CF(new ProductOption(index, "64GB", "Black", 699.99)))
+                    .collect(Collectors.toList());
+
+            // batches are sent when full, without waiting for the (10 sec) window
+            long start = System.currentTimeMillis();
+            inventoryFutureList.forEach(CompletableFuture::join);
+            assertTrue(System.currentTimeMillis() - start < 5000);
+            assertEquals(2, batchingInventoryService.getBulkCallCount());
+        }
+    }
+
+    @Test
+    public void testAddInventory_CF_DedupedCallersGetTheirOwnInventory() {
+        try (BatchingInventoryService batchingInventoryService = new BatchingInventoryService(new InventoryService(), 100, 50)) {
+            CompletableFuture<Inventory> first = batchingInventoryService.addInventory_CF(new ProductOption(1, "64GB", "Black", 699.99));
+            CompletableFuture<Inventory> second = batchingInventoryService.addInventory_CF(new ProductOption(1, "64GB", "Black", 699.99));
+
+            assertEquals(first.join(), second.join());
+            assertNotSame(first.join(), second.join());
+            assertEquals(1, batchingInventoryService.getDedupedRequestCount());
+        }
+    }
+
+    @Test
+    public void testAddInventory_CF_AfterClose() {
+        BatchingInventoryService batchingInventoryService = new BatchingInventoryService(new InventoryService(), 100, 50);
+        batchingInventoryService.close();
+
+        assertThrows(IllegalStateException.class,
+                () -> batchingInventoryService.addInventory_CF(new ProductOption(1, "64GB", "Black", 699.99)));
+    }
+}
@@ -0,0 +1,103 @@
+package com.learnjava.service;
+
+import com.learnjava.cache.BloomFilter;
+import com.learnjava.domain.checkout.CartItem;
+import com.learnjava.service.CachingPriceValidatorService.ValidationStats;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CachingPriceValidatorServiceTest {
+
+    // invalid ids are the multiples of 100, without the 500 ms delay
+    private final AtomicInteger downstreamCalls = new AtomicInteger();
+    private final PriceValidatorService downstream = new PriceValidatorService() {
+        @Override
+        public CompletableFuture<Boolean> isCartItemInvalidAsync(CartItem cartItem) {
+            downstreamCalls.incrementAndGet();
+            return CompletableFuture.completedFuture(cartItem.getItemId() % 100 == 0);
+        }
+    };
+    private final Set<Integer> invalidItemIds = IntStream.rangeClosed(1, 100).map(id -> id * 100).boxed().collect(Collectors.toSet());
+
+    @Test
+    public void testFilterShortCircuitsValidItems() {
+        CachingPriceValidatorService priceValidatorService = new CachingPriceValidatorService(downstream,
+                BloomFilter.of(invalidItemIds, 0.01), 1_000, Duration.ofMinutes(1));
+
+        for (int itemId = 1; itemId <= 10_000; itemId++) {
+            assertEquals(itemId % 100 == 0, priceValidatorService.isCartItemInvalid(cartItem(itemId, 10.0)), "item " + itemId);
+        }
+
+        ValidationStats stats = priceValidatorService.stats();
+        assertEquals(10_000, stats.requestCount());
+        // all the invalid ids reach the downstream, plus about 1% of the valid ones
+        assertTrue(downstreamCalls.get() >= 100 && downstreamCalls.get() < 400, "downstream calls : " + downstreamCalls.get());
+        assertEquals(10_000 - downstreamCalls.get(), stats.shortCircuitCount());
+        assertTrue(stats.shortCircuitRate() > 0.96);
+    }
+
+    @Test
+    public void testCacheByItemIdAndRate() {
+        CachingPriceValidatorService priceValidatorService = new CachingPriceValidatorService(downstream, 1_000, Duration.ofMinutes(1));
+        List<CartItem> cartItems = List.of(cartItem(100, 10.0), cartItem(101, 10.0), cartItem(100, 10.0), cartItem(100, 12.5));
+
+        List<Boolean> results = cartItems.stream().map(priceValidatorService::isCartItemInvalid).collect(Collectors.toList());
+        assertTrue(priceValidatorService.isCartItemInvalid(cartItem(100, 10.0)));
+
+        assertEquals(List.of(true, false, true, true), results);
+        assertEquals(3, downstreamCalls.get());
+        ValidationStats stats = priceValidatorService.stats();
+        assertEquals(0, stats.shortCircuitCount());
+        assertEquals(2, stats.cacheStats().hitCount());
+        assertEquals(0.4, stats.avoidedCallRate(), 0.0001);
+    }
+
+    @Test
+    public void testCacheEntriesExpire() throws InterruptedException {
+        CachingPriceValidatorService priceValidatorService = new CachingPriceValidatorService(downstream, 1_000, Duration.ofMillis(20));
+
+        priceValidatorService.isCartItemInvalid(cartItem(1, 10.0));
+        Thread.sleep(50);
+        priceValidatorService.isCartItemInvalid(cartItem(1, 10.0));
+
+        assertEquals(2, downstreamCalls.get());
+    }
+
+    @Test
+    public void testCallerCancellingDoesNotChangeTheCachedResult() {
+        PriceValidatorService slowDownstream = new PriceValidatorService() {
+            @Override
+            public CompletableFuture<Boolean> isCartItemInvalidAsync(CartItem cartItem) {
+                downstreamCalls.incrementAndGet();
+                return CompletableFuture.supplyAsync(() -> cartItem.getItemId() % 100 == 0,
+                        CompletableFuture.delayedExecutor(100, TimeUnit.MILLISECONDS));
+            }
+        };
+        CachingPriceValidatorService priceValidatorService = new CachingPriceValidatorService(slowDownstream, 1_000, Duration.ofMinutes(1));
+
+        // one cart gives up on the validation, another one times out
+        priceValidatorService.isCartItemInvalidAsync(cartItem(200, 10.0)).cancel(true);
+        CompletableFuture<Boolean> timedOut = priceValidatorService.isCartItemInvalidAsync(cartItem(200, 10.0))
+                .orTimeout(1, TimeUnit.MILLISECONDS);
+        assertThrows(CompletionException.class, timedOut::join);
+
+        assertTrue(priceValidatorService.isCartItemInvalidAsync(cartItem(200, 10.0)).join());
+        assertTrue(priceValidatorService.isCartItemInvalid(cartItem(200, 10.0)));
+        assertEquals(1, downstreamCalls.get());
+    }
+
+    private static CartItem cartItem(int itemId, double rate) {
+        return new CartItem(itemId, "item " + itemId, rate, 1, false);
+    }
+}
@@ -0,0 +1,44 @@
+package com.learnjava.service;
+
+import com.learnjava.domain.Review;
+import com.learnjava.simulation.LatencySimulator;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CachingReviewServiceTest {
+
+    private final AtomicInteger downstreamCalls = new AtomicInteger();
+    // completed by the latency timer, no thread waits for it
+    private final ReviewService downstream = new ReviewService(LatencySimulator.constant(Duration.ofMillis(300))) {
+        @Override
+        public CompletableFuture<Review> retrieveReviewsAsync(String productId) {
+            downstreamCalls.incrementAndGet();
+            return super.retrieveReviewsAsync(productId);
+        }
+    };
+
+    @Test
+    public void testRetrieveReviewsAsync_MissDoesNotBlockTheCaller() {
+        CachingReviewService reviewService = new CachingReviewService(downstream, 100, Duration.ofMinutes(1));
+
+        long start = System.currentTimeMillis();
+        List<CompletableFuture<Review>> reviewFutures = IntStream.range(0, 10)
+                .mapToObj(call -> reviewService.retrieveReviewsAsync("ABC123"))
+                .collect(Collectors.toList());
+        long timeToReturn = System.currentTimeMillis() - start;
+
+        assertTrue(timeToReturn < 150, "time to return : " + timeToReturn);
+        reviewFutures.forEach(reviewFuture -> assertEquals(200, reviewFuture.join().getNoOfReviews()));
+        // all the callers shared the load in flight
+        assertEquals(1, downstreamCalls.get());
+        assertEquals(9, reviewService.stats().hitCount());
+    }
+}
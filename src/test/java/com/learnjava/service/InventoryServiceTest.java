@@ -0,0 +1,27 @@
+package com.learnjava.service;
+
+import com.learnjava.domain.ProductOption;
+import com.learnjava.simulation.LatencySimulator;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class InventoryServiceTest {
+
+    @Test
+    public void testAddInventory_CF_RunsOnTheGivenExecutor() {
+        AtomicInteger executorTasks = new AtomicInteger();
+        Executor countingExecutor = task -> {
+            executorTasks.incrementAndGet();
+            task.run();
+        };
+        InventoryService inventoryService = new InventoryService(LatencySimulator.constant(Duration.ofMillis(10)), countingExecutor);
+
+        assertEquals(2, inventoryService.addInventory_CF(new ProductOption(1, "64GB", "Black", 699.99)).join().getCount());
+        assertEquals(1, executorTasks.get());
+    }
+}
@@ -0,0 +1,131 @@
+package com.learnjava.simulation;
+
+import com.learnjava.metrics.LatencyHistogram;
+import com.learnjava.service.ProductInfoService;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static java.time.Duration.ofMillis;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencySimulatorTest {
+
+    @Test
+    public void testSameSeedSameLatenciesAndFailures() {
+        LatencyModel model = LatencyModel.logNormal(ofMillis(100), ofMillis(1000));
+        LatencySimulator first = new LatencySimulator(model, 0.2, 7);
+        LatencySimulator second = new LatencySimulator(model, 0.2, 7);
+
+        for (int call = 0; call < 1000; call++) {
+            assertEquals(first.nextDelayNanos(), second.nextDelayNanos());
+            assertEquals(first.nextFailure(), second.nextFailure());
+        }
+    }
+
+    @Test
+    public void testLogNormalPercentiles() {
+        LatencySimulator latencySimulator = new LatencySimulator(LatencyModel.logNormal(ofMillis(100), ofMillis(1000)), 0.0, 42);
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int sample = 0; sample < 100_000; sample++) {
+            histogram.record(latencySimulator.nextDelayNanos());
+        }
+
+        double p50 = (double) histogram.valueAtPercentile(50) / TimeUnit.MILLISECONDS.toNanos(1);
+        double p99 = (double) histogram.valueAtPercentile(99) / TimeUnit.MILLISECONDS.toNanos(1);
+        assertEquals(100, p50, 10, histogram.snapshot().toString());
+        assertEquals(1000, p99, 100, histogram.snapshot().toString());
+    }
+
+    @Test
+    public void testBimodalAndErrorRate() {
+        LatencySimulator latencySimulator = new LatencySimulator(
+                LatencyModel.bimodal(LatencyModel.constant(ofMillis(10)), LatencyModel.constant(ofMillis(500)), 0.1), 0.05, 1);
+
+        int slow = 0;
+        int failures = 0;
+        for (int call = 0; call < 100_000; call++) {
+            if (latencySimulator.nextDelayNanos() == ofMillis(500).toNanos()) {
+                slow++;
+            }
+            if (latencySimulator.nextFailure()) {
+                failures++;
+            }
+        }
+        assertEquals(10_000, slow, 500);
+        assertEquals(5_000, failures, 300);
+    }
+
+    @Test
+    public void testReplayInFileOrder() throws IOException {
+        Path file = Files.createTempFile("latencies", ".txt");
+        try {
+            Files.writeString(file, "# recorded latencies in ms\n5\n\n1.5\n20\n");
+            LatencyModel model = LatencyModel.replay(file);
+            Random random = new Random();
+
+            long[] samples = LongStream.range(0, 4).map(i -> model.sampleNanos(random)).toArray();
+
+            assertArrayEquals(new long[]{5_000_000, 1_500_000, 20_000_000, 5_000_000}, samples);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testServiceThrowsSimulatedFailure() {
+        ProductInfoService productInfoService = new ProductInfoService(
+                new LatencySimulator(LatencyModel.constant(Duration.ZERO), 1.0, 0));
+
+        SimulatedFailureException exception = assertThrows(SimulatedFailureException.class,
+                () -> productInfoService.retrieveProductInfo("ABC"));
+        assertTrue(exception.getMessage().contains("retrieveProductInfo"), exception.getMessage());
+    }
+
+    @Test
+    public void testSimulateAsyncCompletesAfterTheLatency() {
+        LatencySimulator latencySimulator = LatencySimulator.constant(ofMillis(200));
+        long startNanos = System.nanoTime();
+
+        CompletableFuture<String> future = latencySimulator.simulateAsync("call", () -> "result");
+
+        assertFalse(future.isDone());
+        assertEquals("result", future.join());
+        assertTrue(System.nanoTime() - startNanos >= ofMillis(200).toNanos());
+    }
+
+    @Test
+    public void testSimulateAsyncFailure() {
+        LatencySimulator latencySimulator = new LatencySimulator(LatencyModel.constant(ofMillis(1)), 1.0, 0);
+
+        CompletionException exception = assertThrows(CompletionException.class,
+                () -> latencySimulator.simulateAsync("call", () -> "result").join());
+        assertInstanceOf(SimulatedFailureException.class, exception.getCause());
+    }
+
+    @Test
+    public void testCancelledCallLeavesTheTimer() {
+        LatencySimulator latencySimulator = LatencySimulator.constant(Duration.ofMinutes(10));
+        int pendingBefore = LatencySimulator.pendingAsyncCalls();
+
+        CompletableFuture<String> future = latencySimulator.simulateAsync("call", () -> "result");
+        assertEquals(pendingBefore + 1, LatencySimulator.pendingAsyncCalls());
+        future.cancel(false);
+
+        assertEquals(pendingBefore, LatencySimulator.pendingAsyncCalls());
+    }
+
+    @Test
+    public void testInvalidErrorRate() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new LatencySimulator(LatencyModel.constant(ofMillis(1)), 1.5, 0));
+    }
+}
@@ -0,0 +1,84 @@
+package com.learnjava.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AsyncLogAppenderTest {
+
+    @Test
+    public void testAppend_Block_WritesEveryMessage() {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        AsyncLogAppender appender = new AsyncLogAppender(64, AsyncLogAppender.OverflowPolicy.BLOCK, new PrintStream(outputStream));
+
+        try (ExecutorService executorService = Executors.newFixedThreadPool(4)) {
+            IntStream.range(0, 4).forEach(thread -> executorService.submit(() ->
+                    IntStream.range(0, 10_000).forEach(index -> appender.append(LogLevel.INFO, "t" + thread, "message ", index))));
+        }
+        appender.shutdown();
+
+        String[] lines = outputStream.toString().split(System.lineSeparator());
+        assertEquals(40_000, lines.length);
+        assertEquals(0, appender.droppedCount());
+        assertTrue(lines[0].matches("\\[t\\d] - message \\d+"), lines[0]);
+    }
+
+    @Test
+    public void testAppend_Drop_CountsDroppedMessages() {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        AsyncLogAppender appender = new AsyncLogAppender(2, AsyncLogAppender.OverflowPolicy.DROP, new PrintStream(outputStream));
+
+        IntStream.range(0, 10_000).forEach(index -> appender.append(LogLevel.WARN, "main", "message ", index));
+        appender.shutdown();
+
+        long writtenCount = outputStream.toString().lines().count();
+        assertEquals(10_000, writtenCount + appender.droppedCount());
+    }
+
+    @Test
+    public void testAppend_ArgumentFormattedAtCallTime() {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        AsyncLogAppender appender = new AsyncLogAppender(64, AsyncLogAppender.OverflowPolicy.BLOCK, new PrintStream(outputStream));
+        StringBuilder argument = new StringBuilder("before");
+
+        appender.append(LogLevel.INFO, "main", "argument is ", argument);
+        argument.setLength(0);
+        argument.append("after");
+        appender.shutdown();
+
+        assertEquals("[main] - argument is before", outputStream.toString().trim());
+    }
+
+    @Test
+    public void testAppend_ConsumerFailure_FallsBackToSynchronousWrites() {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        AtomicBoolean failed = new AtomicBoolean();
+        // the first write of the consumer fails and kills it
+        PrintStream failingOnce = new PrintStream(outputStream) {
+            @Override
+            public void print(Object object) {
+                if (failed.compareAndSet(false, true)) {
+                    throw new IllegalStateException("stream failure");
+                }
+                super.print(object);
+            }
+        };
+        AsyncLogAppender appender = new AsyncLogAppender(2, AsyncLogAppender.OverflowPolicy.BLOCK, failingOnce);
+
+        // with a dead consumer the buffer would stay full and the caller would wait forever
+        IntStream.range(0, 1_000).forEach(index -> appender.append(LogLevel.INFO, "main", "message ", index));
+        appender.shutdown();
+
+        long writtenCount = outputStream.toString().lines().count();
+        assertTrue(failed.get());
+        assertEquals(1_000, writtenCount + appender.droppedCount());
+    }
+}
@@ -0,0 +1,49 @@
+package com.learnjava.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class LoggerUtilTest {
+
+    @Test
+    public void testSwitchingModesWhileLogging_NoMessageLost() {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        PrintStream systemOut = System.out;
+        System.setOut(new PrintStream(outputStream));
+        AtomicBoolean logging = new AtomicBoolean(true);
+        try (ExecutorService executorService = Executors.newFixedThreadPool(5)) {
+            // switches between asynchronous and synchronous logging while the messages are logged
+            executorService.submit(() -> {
+                while (logging.get()) {
+                    LoggerUtil.enableAsyncLogging(64, false);
+                    Thread.yield();
+                    LoggerUtil.disableAsyncLogging();
+                }
+            });
+            List<CompletableFuture<Void>> loggers = IntStream.range(0, 4)
+                    .mapToObj(thread -> CompletableFuture.runAsync(() -> IntStream.range(0, 20_000)
+                            .forEach(index -> LoggerUtil.log(LogLevel.INFO, "message ", index)), executorService))
+                    .collect(Collectors.toList());
+            CompletableFuture.allOf(loggers.toArray(new CompletableFuture<?>[0])).join();
+            logging.set(false);
+        } finally {
+            logging.set(false);
+            LoggerUtil.disableAsyncLogging();
+            System.setOut(systemOut);
+        }
+
+        // no message is lost nor dropped (the callers wait when the buffer is full)
+        assertEquals(80_000, outputStream.toString().lines().count());
+    }
+}
@@ -0,0 +1,48 @@
+package com.learnjava.virtualThread;
+
+import com.learnjava.domain.Product;
+import com.learnjava.domain.Review;
+import com.learnjava.service.InventoryService;
+import com.learnjava.service.ProductInfoService;
+import com.learnjava.service.ReviewService;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductServiceUsingVirtualThreadsTest {
+    private final ProductInfoService productInfoService = new ProductInfoService();
+    private final ReviewService reviewService = new ReviewService();
+    private final InventoryService inventoryService = new InventoryService();
+
+    @Test
+    public void testRetrieveProductDetails() {
+        ProductServiceUsingVirtualThreads productService = new ProductServiceUsingVirtualThreads(productInfoService, reviewService, inventoryService);
+
+        Product product = productService.retrieveProductDetails("ABC123");
+
+        assertEquals("ABC123", product.getProductId());
+        assertNotNull(product.getReview());
+        product.getProductInfo().getProductOptions()
+                .forEach(productOption -> assertNotNull(productOption.getInventory()));
+    }
+
+    @Test
+    public void testRetrieveProductDetails_FailureCancelsSiblings() {
+        ReviewService failingReviewService = new ReviewService() {
+            @Override
+            public Review retrieveReviews(String productId) {
+                throw new IllegalStateException("review service is down");
+            }
+        };
+        ProductServiceUsingVirtualThreads productService = new ProductServiceUsingVirtualThreads(productInfoService, failingReviewService, inventoryService);
+
+        long start = System.currentTimeMillis();
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> productService.retrieveProductDetails("ABC123"));
+        long timeTaken = System.currentTimeMillis() - start;
+
+        assertEquals("review service is down", exception.getMessage());
+        // productInfo call (1000 ms) is cancelled instead of being waited for
+        assertTrue(timeTaken < 1000, "time taken : " + timeTaken);
+    }
+}